@@ -0,0 +1,145 @@
+package com.xpenseai.benchmark;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.xpenseai.XpenseaiApplication;
+import com.xpenseai.expense.Expense;
+import com.xpenseai.user.Role;
+import com.xpenseai.user.User;
+import com.xpenseai.user.UserRepository;
+
+/**
+ * Synthetic data for the benchmarks: {@code bench.users} users, each with
+ * {@code bench.expensesPerYear} expenses spread over the last {@code bench.years} years.
+ * Generation is seeded, so every run (and every release) sees the same dataset.
+ */
+public final class BenchmarkData {
+
+    public static final String[] CATEGORIES = {
+            "Food", "Transportation", "Shopping", "Entertainment", "Utilities", "Health", "Travel", "Other"
+    };
+
+    private static final String[] MERCHANTS = {
+            "Uber ride", "Amazon order", "Starbucks coffee", "Whole Foods groceries", "Netflix subscription",
+            "Shell gas station", "CVS pharmacy", "Delta airlines", "Target store", "Chipotle lunch"
+    };
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private BenchmarkData() {
+    }
+
+    public static int users() {
+        return Integer.getInteger("bench.users", 50);
+    }
+
+    public static int years() {
+        return Integer.getInteger("bench.years", 3);
+    }
+
+    public static int expensesPerYear() {
+        return Integer.getInteger("bench.expensesPerYear", 500);
+    }
+
+    /**
+     * Starts the application without a web server against a private in-memory H2 database.
+     * Extra {@code --key=value} arguments are applied on top.
+     */
+    public static ConfigurableApplicationContext startContext(String databaseName, String... extraArgs) {
+        // Passed as command-line arguments so they take precedence over application.yml
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--management.tracing.sampling.probability=0"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(XpenseaiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+    }
+
+    /**
+     * Inserts the configured users and expenses and returns the users.
+     */
+    public static List<User> seed(ConfigurableApplicationContext context) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Random random = new Random(42);
+
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < users(); u++) {
+            users.add(userRepository.save(User.builder()
+                    .firstname("Bench")
+                    .lastname("User" + u)
+                    .email("bench" + u + "@xpenseai.com")
+                    .password("not-used")
+                    .role(Role.USER)
+                    .build()));
+        }
+
+        int days = years() * 365;
+        int perUser = years() * expensesPerYear();
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (User user : users) {
+            for (int i = 0; i < perUser; i++) {
+                Expense expense = randomExpense(random, days);
+                batch.add(new Object[] {
+                        expense.getDescription(), expense.getAmount(), Date.valueOf(expense.getDate()),
+                        expense.getCategory(), Timestamp.valueOf(expense.getCreatedAt()), user.getId()
+                });
+                if (batch.size() == INSERT_BATCH_SIZE) {
+                    insert(jdbcTemplate, batch);
+                }
+            }
+        }
+        insert(jdbcTemplate, batch);
+        return users;
+    }
+
+    /**
+     * Detached expenses for serialization benchmarks.
+     */
+    public static List<Expense> expenses(int count) {
+        Random random = new Random(42);
+        List<Expense> expenses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Expense expense = randomExpense(random, years() * 365);
+            expense.setId((long) i + 1);
+            expenses.add(expense);
+        }
+        return expenses;
+    }
+
+    private static Expense randomExpense(Random random, int days) {
+        LocalDate date = LocalDate.now().minusDays(random.nextInt(days));
+        return Expense.builder()
+                .description(MERCHANTS[random.nextInt(MERCHANTS.length)] + " #" + random.nextInt(1000))
+                .amount(Math.round((1 + random.nextDouble() * 250) * 100) / 100.0)
+                .date(date)
+                .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                .createdAt(LocalDateTime.of(date, java.time.LocalTime.NOON))
+                .build();
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO expenses (description, amount, date, category, created_at, user_id) VALUES (?, ?, ?, ?, ?, ?)",
+                batch);
+        batch.clear();
+    }
+}
@@ -0,0 +1,104 @@
+package com.xpenseai.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.xpenseai.expense.Expense;
+import com.xpenseai.expense.ExpenseRequest;
+import com.xpenseai.expense.ExpenseService;
+import com.xpenseai.user.Role;
+import com.xpenseai.user.User;
+import com.xpenseai.user.UserRepository;
+
+/**
+ * Write throughput for saving a receipt's worth of expenses.
+ *
+ * {@code single} is the old path: one request, transaction and IDENTITY insert per line item.
+ * {@code batched} is {@link ExpenseService#createExpenses} with the prod profile's settings:
+ * pooled sequence ids, {@code hibernate.jdbc.batch_size} and {@code order_inserts}. Runs on
+ * in-memory H2, so the gain from the driver's {@code reWriteBatchedInserts} on Postgres comes
+ * on top of what is measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExpenseBatchInsertBenchmark {
+
+    @Param({ "single", "batched" })
+    private String mode;
+
+    @Param({ "10", "100" })
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private User user;
+    private List<ExpenseRequest> requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("batched".equals(mode)) {
+            context = BenchmarkData.startContext("expense-batch-" + mode,
+                    "--spring.jpa.mapping-resources=META-INF/orm-batching.xml",
+                    "--spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                    "--spring.jpa.properties.hibernate.order_inserts=true");
+        } else {
+            context = BenchmarkData.startContext("expense-batch-" + mode);
+        }
+        expenseService = context.getBean(ExpenseService.class);
+        user = context.getBean(UserRepository.class).save(User.builder()
+                .firstname("Bench")
+                .lastname("Writer")
+                .email("writer@xpenseai.com")
+                .password("not-used")
+                .role(Role.USER)
+                .build());
+
+        Random random = new Random(42);
+        requests = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            requests.add(ExpenseRequest.builder()
+                    .description("Receipt item #" + i)
+                    .amount(Math.round((1 + random.nextDouble() * 50) * 100) / 100.0)
+                    .date(LocalDate.now().toString())
+                    .category(BenchmarkData.CATEGORIES[random.nextInt(BenchmarkData.CATEGORIES.length)])
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Saves one receipt; throughput is receipts per second.
+     */
+    @Benchmark
+    public int saveReceipt() {
+        if ("batched".equals(mode)) {
+            return expenseService.createExpenses(requests, user).size();
+        }
+        int saved = 0;
+        for (ExpenseRequest request : requests) {
+            Expense expense = expenseService.createExpense(request, user);
+            saved += expense.getId() != null ? 1 : 0;
+        }
+        return saved;
+    }
+}
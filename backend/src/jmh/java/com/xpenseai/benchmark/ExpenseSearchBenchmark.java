@@ -0,0 +1,90 @@
+package com.xpenseai.benchmark;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.xpenseai.expense.Expense;
+import com.xpenseai.expense.ExpenseChangedEvent;
+import com.xpenseai.expense.ExpenseSearchIndex;
+import com.xpenseai.expense.ExpenseSearchRequest;
+import com.xpenseai.user.User;
+
+/**
+ * Query latency of the in-memory search index holding {@code documents} expenses; the
+ * target is under 10 ms per query at one million. {@code users = 1} puts every document
+ * in a single user's index, the worst case. No database: documents go in through the
+ * change listener.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExpenseSearchBenchmark {
+
+    private static final String[] MERCHANTS = {
+            "Uber ride", "Amazon order", "Starbucks coffee", "Whole Foods groceries", "Netflix subscription",
+            "Shell gas station", "CVS pharmacy", "Delta airlines", "Target store", "Chipotle lunch"
+    };
+
+    @Param({ "1000000" })
+    private int documents;
+
+    @Param({ "1", "1000" })
+    private int users;
+
+    private ExpenseSearchIndex index;
+    private final User user = User.builder().id(1).build();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        User[] owners = new User[users];
+        for (int i = 0; i < users; i++) {
+            owners[i] = User.builder().id(i + 1).build();
+        }
+        // Never rebuilt or refreshed, so neither the table, the archive nor the users are needed
+        index = new ExpenseSearchIndex(null, null, null);
+        LocalDate start = LocalDate.now().minusYears(3);
+        for (long id = 1; id <= documents; id++) {
+            // A store number per expense keeps the term dictionary realistically large
+            Expense expense = Expense.builder()
+                    .id(id)
+                    .description(MERCHANTS[random.nextInt(MERCHANTS.length)] + " store" + random.nextInt(50_000))
+                    .amount(1 + random.nextInt(50_000) / 100.0)
+                    .category(BenchmarkData.CATEGORIES[random.nextInt(BenchmarkData.CATEGORIES.length)])
+                    .date(start.plusDays(random.nextInt(3 * 365)))
+                    .build();
+            index.onExpenseChanged(new ExpenseChangedEvent(ExpenseChangedEvent.Type.CREATED, expense,
+                    owners[(int) (id % users)]));
+        }
+    }
+
+    @Benchmark
+    public Object prefix() {
+        return index.search(user.getId(), ExpenseSearchRequest.builder().query("starb cof").build());
+    }
+
+    @Benchmark
+    public Object fuzzy() {
+        return index.search(user.getId(), ExpenseSearchRequest.builder().query("starbuks").build());
+    }
+
+    @Benchmark
+    public Object filtered() {
+        return index.search(user.getId(), ExpenseSearchRequest.builder()
+                .query("groceries")
+                .category("Food")
+                .minAmount(100.0)
+                .startDate(LocalDate.now().minusMonths(6))
+                .build());
+    }
+}
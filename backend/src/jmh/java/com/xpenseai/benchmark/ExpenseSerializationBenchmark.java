@@ -0,0 +1,42 @@
+package com.xpenseai.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xpenseai.expense.Expense;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpenseSerializationBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Expense> expenses;
+
+    @Setup
+    public void setUp() {
+        // Same defaults as the ObjectMapper Spring Boot builds for the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        expenses = BenchmarkData.expenses(size);
+    }
+
+    @Benchmark
+    public byte[] serializeExpenseList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(expenses);
+    }
+}
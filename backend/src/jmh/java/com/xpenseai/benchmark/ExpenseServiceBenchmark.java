@@ -0,0 +1,52 @@
+package com.xpenseai.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.xpenseai.expense.Expense;
+import com.xpenseai.expense.ExpenseService;
+import com.xpenseai.user.User;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpenseServiceBenchmark {
+
+    @Param({ "week", "month", "6months", "all" })
+    private String period;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private List<User> users;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.startContext("expense-service");
+        users = BenchmarkData.seed(context);
+        expenseService = context.getBean(ExpenseService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Expense> getUserExpensesByPeriod() {
+        User user = users.get(next++ % users.size());
+        return expenseService.getUserExpensesByPeriod(user, period);
+    }
+}
@@ -0,0 +1,73 @@
+package com.xpenseai.budget;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.xpenseai.benchmark.BenchmarkData;
+import com.xpenseai.user.User;
+
+/**
+ * Lives in the budget package to reach {@link BudgetService#calculateSpentAmountForPeriod}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BudgetSpendBenchmark {
+
+    @Param({ "WEEKLY", "MONTHLY", "YEARLY" })
+    private String periodType;
+
+    private ConfigurableApplicationContext context;
+    private BudgetService budgetService;
+    private List<Budget> budgets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.startContext("budget-spend");
+        List<User> users = BenchmarkData.seed(context);
+        budgetService = context.getBean(BudgetService.class);
+
+        budgets = new ArrayList<>();
+        for (User user : users) {
+            Budget budget = Budget.builder()
+                    .category(BenchmarkData.CATEGORIES[0])
+                    .amount(1000.0)
+                    .periodType(periodType)
+                    .currentPeriodStart(LocalDate.now().minusDays(1))
+                    .user(user)
+                    .build();
+            budget.calculateNextResetDate();
+            // Period that ends today, so the query covers a full period of seeded data
+            budget.setCurrentPeriodStart(LocalDate.now().minusDays(
+                    budget.getNextResetDate().toEpochDay() - budget.getCurrentPeriodStart().toEpochDay()));
+            budget.setNextResetDate(LocalDate.now().plusDays(1));
+            budgets.add(budget);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Double calculateSpentAmountForPeriod() {
+        Budget budget = budgets.get(next++ % budgets.size());
+        return budgetService.calculateSpentAmountForPeriod(budget);
+    }
+}
@@ -0,0 +1,63 @@
+package com.xpenseai.rule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.xpenseai.benchmark.BenchmarkData;
+
+/**
+ * Matching cost per expense as the number of rules grows; lives in the rule package to
+ * reach {@link CategoryRuleMatcher#compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CategoryRuleMatcherBenchmark {
+
+    private static final String[] DESCRIPTIONS = {
+            "UBER   *TRIP HELP.UBER.COM", "Costco Wholesale #0452", "Corner cafe flat white",
+            "AMZN Mktp US*2K4L19", "Monthly rent transfer", "Shell fuel station 1183"
+    };
+
+    @Param({ "10", "500", "10000" })
+    private int rules;
+
+    private CategoryRuleMatcher matcher;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<CategoryRule> categoryRules = new ArrayList<>();
+        for (long id = 1; id <= rules; id++) {
+            boolean amountOnly = id % 10 == 0;
+            categoryRules.add(CategoryRule.builder()
+                    .id(id)
+                    .keyword(amountOnly ? null : "merchant" + Long.toString(random.nextLong() >>> 1, 36))
+                    .minAmount(id % 3 == 0 ? (double) random.nextInt(1000) : null)
+                    .category(BenchmarkData.CATEGORIES[(int) (id % BenchmarkData.CATEGORIES.length)])
+                    .build());
+        }
+        categoryRules.add(CategoryRule.builder().id(rules + 1L).keyword("uber").category("Transport").build());
+        categoryRules.add(CategoryRule.builder().id(rules + 2L).keyword("costco").minAmount(500.0)
+                .category("Shopping").build());
+        matcher = CategoryRuleMatcher.compile(categoryRules);
+    }
+
+    @Benchmark
+    public Object match() {
+        int i = next++ % DESCRIPTIONS.length;
+        return matcher.match(DESCRIPTIONS[i], 12.5 + i * 150);
+    }
+}
@@ -0,0 +1,62 @@
+package com.xpenseai.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects latencies (microseconds) and error counts for one scenario.
+ */
+class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+
+    synchronized void record(long latencyMicros, boolean error) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyMicros;
+        if (error) {
+            errors++;
+        }
+    }
+
+    /**
+     * Copies this recorder's samples into {@code target}, for an across-scenario summary.
+     */
+    synchronized void copyInto(LatencyRecorder target) {
+        synchronized (target) {
+            for (int i = 0; i < count; i++) {
+                target.record(latencies[i], false);
+            }
+            target.errors += errors;
+        }
+    }
+
+    synchronized Map<String, Object> summarize(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", count);
+        summary.put("errors", errors);
+        summary.put("errorRate", count == 0 ? 0.0 : (double) errors / count);
+        summary.put("throughputPerSec", count / elapsedSeconds);
+        summary.put("p50Ms", percentile(sorted, 50));
+        summary.put("p90Ms", percentile(sorted, 90));
+        summary.put("p99Ms", percentile(sorted, 99));
+        summary.put("p999Ms", percentile(sorted, 99.9));
+        summary.put("maxMs", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1000.0);
+        return summary;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0;
+    }
+}
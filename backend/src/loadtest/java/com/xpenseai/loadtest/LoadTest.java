@@ -0,0 +1,353 @@
+package com.xpenseai.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.xpenseai.XpenseaiApplication;
+
+/**
+ * End-to-end load test. Registers {@code users} accounts through the auth API, then drives
+ * a weighted mix of dashboard loads, expense creates, receipt batch saves and budget reads.
+ *
+ * Two modes:
+ * <ul>
+ * <li>{@code closed}: each simulated user runs one scenario at a time with think time in
+ * between, like real browser sessions.</li>
+ * <li>{@code open}: scenarios start at a fixed arrival rate regardless of how fast the
+ * server answers, and latency is measured from the intended start time, so queueing shows
+ * up in the percentiles. The rate steps from {@code rate} up to {@code maxRate}; the step
+ * where p99 or the error rate blows past the SLO is the saturation point.</li>
+ * </ul>
+ *
+ * Unless {@code baseUrl} is given the application is started in-process on a random port
+ * against an in-memory H2 database. Arguments are {@code key=value} pairs; see
+ * {@link #DEFAULTS}. Results are printed and written to {@code target/loadtest-result.json}.
+ */
+public final class LoadTest {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("baseUrl", "");
+        DEFAULTS.put("mode", "closed");
+        DEFAULTS.put("users", "50");
+        DEFAULTS.put("duration", "60");        // seconds per run (per step in open mode)
+        DEFAULTS.put("warmup", "10");          // seconds, results discarded
+        DEFAULTS.put("thinkMs", "1000");       // closed mode
+        DEFAULTS.put("rate", "20");            // open mode, scenarios per second
+        DEFAULTS.put("maxRate", "0");          // open mode, 0 = single step
+        DEFAULTS.put("rateStep", "20");
+        DEFAULTS.put("sloP99Ms", "500");
+        DEFAULTS.put("sloErrorRate", "0.01");
+        DEFAULTS.put("receiptItems", "5");
+        DEFAULTS.put("mix", "dashboard=40,create=25,receipt=10,budgets=25");
+        DEFAULTS.put("out", "target/loadtest-result.json");
+    }
+
+    private static final String[] BUDGET_CATEGORIES = { "Food", "Transportation", "Shopping" };
+
+    private final Map<String, String> options;
+    private final LoadTestClient client;
+    private final List<String> tokens = new ArrayList<>();
+    private final String[] scenarioNames;
+    private final int[] cumulativeWeights;
+
+    private LoadTest(Map<String, String> options, String baseUrl) {
+        this.options = options;
+        this.client = new LoadTestClient(baseUrl);
+
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : options.get("mix").split(",")) {
+            String[] pair = entry.split("=");
+            mix.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        scenarioNames = mix.keySet().toArray(new String[0]);
+        cumulativeWeights = new int[scenarioNames.length];
+        int total = 0;
+        for (int i = 0; i < scenarioNames.length; i++) {
+            total += mix.get(scenarioNames[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0 || !DEFAULTS.containsKey(arg.substring(0, eq))) {
+                throw new IllegalArgumentException("Unknown argument '" + arg + "', expected one of " + DEFAULTS.keySet());
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("baseUrl");
+        if (baseUrl.isEmpty()) {
+            context = startApplication();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port;
+        }
+
+        try {
+            LoadTest loadTest = new LoadTest(options, baseUrl);
+            loadTest.setUp();
+            Map<String, Object> result = "open".equals(options.get("mode")) ? loadTest.runOpen() : loadTest.runClosed();
+            loadTest.write(result);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication() {
+        // Command-line arguments, so they take precedence over application.yml
+        return new SpringApplicationBuilder(XpenseaiApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--management.tracing.sampling.probability=0",
+                        // Measures capacity; per-user limits would turn saturation into 429s
+                        "--xpenseai.rate-limit.enabled=false");
+    }
+
+    private void setUp() throws Exception {
+        int users = intOption("users");
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        System.out.printf("Registering %d users%n", users);
+        for (int i = 0; i < users; i++) {
+            String token = client.registerAndAuthenticate("load-" + runId + "-" + i + "@example.com", "password123");
+            tokens.add(token);
+            for (String category : BUDGET_CATEGORIES) {
+                client.createBudget(token, category, 500).join();
+            }
+        }
+    }
+
+    private Map<String, Object> runClosed() throws InterruptedException {
+        int users = intOption("users");
+        long thinkMs = intOption("thinkMs");
+
+        Map<String, LatencyRecorder> warmup = recorders();
+        runClosedFor(users, thinkMs, intOption("warmup"), warmup);
+
+        Map<String, LatencyRecorder> recorders = recorders();
+        long start = System.nanoTime();
+        runClosedFor(users, thinkMs, intOption("duration"), recorders);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", "closed");
+        result.put("users", users);
+        result.put("thinkMs", thinkMs);
+        result.put("scenarios", summarize(recorders, elapsed));
+        print("closed, " + users + " users", recorders, elapsed);
+        return result;
+    }
+
+    private void runClosedFor(int users, long thinkMs, int seconds, Map<String, LatencyRecorder> recorders)
+            throws InterruptedException {
+        if (seconds <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(users);
+        for (int i = 0; i < users; i++) {
+            String token = tokens.get(i % tokens.size());
+            Random random = new Random(i);
+            workers.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    String scenario = pickScenario(random);
+                    long begin = System.nanoTime();
+                    int status = execute(scenario, token, random).handle((s, e) -> e == null ? s : -1).join();
+                    recorders.get(scenario).record((System.nanoTime() - begin) / 1000, status < 0 || status >= 400);
+                    if (thinkMs > 0) {
+                        // Exponential think time around the mean, so sessions do not fall into lockstep
+                        long pause = (long) (-Math.log(1 - random.nextDouble()) * thinkMs);
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(pause, thinkMs * 5)));
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+    }
+
+    private Map<String, Object> runOpen() {
+        int rate = intOption("rate");
+        int maxRate = Math.max(rate, intOption("maxRate"));
+        int step = Math.max(1, intOption("rateStep"));
+        double sloP99 = Double.parseDouble(options.get("sloP99Ms"));
+        double sloErrorRate = Double.parseDouble(options.get("sloErrorRate"));
+
+        runOpenAt(rate, intOption("warmup"), recorders());
+
+        List<Map<String, Object>> steps = new ArrayList<>();
+        Integer saturationRate = null;
+        for (int current = rate; current <= maxRate; current += step) {
+            Map<String, LatencyRecorder> recorders = recorders();
+            double elapsed = runOpenAt(current, intOption("duration"), recorders);
+
+            LatencyRecorder all = new LatencyRecorder();
+            recorders.values().forEach(recorder -> recorder.copyInto(all));
+            Map<String, Object> overall = all.summarize(elapsed);
+            boolean withinSlo = (double) overall.get("p99Ms") <= sloP99 && (double) overall.get("errorRate") <= sloErrorRate;
+
+            Map<String, Object> stepResult = new LinkedHashMap<>();
+            stepResult.put("targetRatePerSec", current);
+            stepResult.put("withinSlo", withinSlo);
+            stepResult.put("overall", overall);
+            stepResult.put("scenarios", summarize(recorders, elapsed));
+            steps.add(stepResult);
+            print("open, " + current + "/s" + (withinSlo ? "" : " (SLO violated)"), recorders, elapsed);
+
+            if (!withinSlo) {
+                saturationRate = current;
+                break;
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", "open");
+        result.put("sloP99Ms", sloP99);
+        result.put("sloErrorRate", sloErrorRate);
+        result.put("saturationRatePerSec", saturationRate);
+        result.put("steps", steps);
+        if (saturationRate != null) {
+            System.out.printf("Saturation at %d scenarios/s (p99 > %.0f ms or error rate > %.2f%%)%n",
+                    saturationRate, sloP99, sloErrorRate * 100);
+        } else {
+            System.out.printf("No saturation up to %d scenarios/s%n", maxRate);
+        }
+        return result;
+    }
+
+    /**
+     * Starts scenarios on a fixed schedule. Requests are asynchronous, so a slow server makes
+     * in-flight work pile up instead of slowing the schedule down.
+     */
+    private double runOpenAt(int ratePerSecond, int seconds, Map<String, LatencyRecorder> recorders) {
+        if (seconds <= 0 || ratePerSecond <= 0) {
+            return 0;
+        }
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long total = (long) ratePerSecond * seconds;
+        ConcurrentLinkedQueue<CompletableFuture<?>> inFlight = new ConcurrentLinkedQueue<>();
+        AtomicInteger next = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int userIndex = next.getAndIncrement() % tokens.size();
+            Random random = ThreadLocalRandom.current();
+            String scenario = pickScenario(random);
+            CompletableFuture<Integer> future = execute(scenario, tokens.get(userIndex), random)
+                    .handle((status, error) -> {
+                        // Measured from the intended start, so time spent behind a backlog is counted
+                        long latencyMicros = (System.nanoTime() - intended) / 1000;
+                        recorders.get(scenario).record(latencyMicros, error != null || status >= 400);
+                        return status;
+                    });
+            inFlight.add(future);
+            inFlight.removeIf(CompletableFuture::isDone);
+        }
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).join();
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private CompletableFuture<Integer> execute(String scenario, String token, Random random) {
+        switch (scenario) {
+            case "dashboard":
+                return client.loadDashboard(token);
+            case "create":
+                return client.createExpense(token, random);
+            case "receipt":
+                return client.saveReceipt(token, random, intOption("receiptItems"));
+            case "budgets":
+                return client.readBudgets(token);
+            default:
+                throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+    }
+
+    private String pickScenario(Random random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return scenarioNames[i];
+            }
+        }
+        return scenarioNames[scenarioNames.length - 1];
+    }
+
+    private Map<String, LatencyRecorder> recorders() {
+        Map<String, LatencyRecorder> recorders = new HashMap<>();
+        for (String name : scenarioNames) {
+            recorders.put(name, new LatencyRecorder());
+        }
+        return recorders;
+    }
+
+    private Map<String, Object> summarize(Map<String, LatencyRecorder> recorders, double elapsed) {
+        Map<String, Object> summaries = new LinkedHashMap<>();
+        for (String name : scenarioNames) {
+            summaries.put(name, recorders.get(name).summarize(elapsed));
+        }
+        return summaries;
+    }
+
+    private void print(String title, Map<String, LatencyRecorder> recorders, double elapsed) {
+        System.out.printf("%n== %s, %.1f s ==%n", title, elapsed);
+        System.out.printf("%-10s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "scenario", "count", "err%", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (String name : scenarioNames) {
+            Map<String, Object> s = recorders.get(name).summarize(elapsed);
+            System.out.printf("%-10s %8d %7.2f %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", name,
+                    s.get("requests"), (double) s.get("errorRate") * 100, s.get("throughputPerSec"),
+                    s.get("p50Ms"), s.get("p90Ms"), s.get("p99Ms"), s.get("p999Ms"), s.get("maxMs"));
+        }
+    }
+
+    private void write(Map<String, Object> result) throws IOException {
+        Path out = Paths.get(options.get("out"));
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), result);
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    private int intOption(String name) {
+        return Integer.parseInt(options.get(name));
+    }
+}
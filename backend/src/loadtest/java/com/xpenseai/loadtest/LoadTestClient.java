@@ -0,0 +1,135 @@
+package com.xpenseai.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Thin async HTTP client for the REST API, mirroring the calls the React frontend makes.
+ * Every operation completes with the HTTP status of its last request, or exceptionally.
+ */
+class LoadTestClient {
+
+    private static final String[] CATEGORIES = { "Food", "Transportation", "Shopping", "Entertainment", "Utilities" };
+    private static final String[] MERCHANTS = { "Uber ride", "Amazon order", "Starbucks", "Whole Foods", "Shell gas" };
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    LoadTestClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /**
+     * Registers a user, then authenticates as that user; returns the JWT.
+     */
+    String registerAndAuthenticate(String email, String password) throws Exception {
+        post("/api/v1/auth/register", null, Map.of(
+                "firstname", "Load", "lastname", "Test", "email", email, "password", password)).join();
+
+        HttpResponse<String> response = httpClient.send(jsonPost("/api/v1/auth/authenticate", null,
+                Map.of("email", email, "password", password)), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Authentication failed for " + email + ": " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    CompletableFuture<Integer> createBudget(String token, String category, double amount) {
+        return post("/api/v1/budgets", token, Map.of("category", category, "amount", amount));
+    }
+
+    /**
+     * Dashboard: expenses and budgets fetched in parallel, as Dashboard.js does.
+     */
+    CompletableFuture<Integer> loadDashboard(String token) {
+        CompletableFuture<Integer> expenses = get("/api/v1/expenses", token);
+        CompletableFuture<Integer> budgets = get("/api/v1/budgets", token);
+        return expenses.thenCombine(budgets, LoadTestClient::worst);
+    }
+
+    CompletableFuture<Integer> createExpense(String token, Random random) {
+        return post("/api/v1/expenses", token, randomExpense(random));
+    }
+
+    /**
+     * Receipt scan save: all line items in one batch request, like App.handleBulkExpenseAdd.
+     */
+    CompletableFuture<Integer> saveReceipt(String token, Random random, int items) {
+        List<Map<String, Object>> lineItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            lineItems.add(randomExpense(random));
+        }
+        return post("/api/v1/expenses/batch", token, lineItems);
+    }
+
+    /**
+     * Budget page: current budgets and history.
+     */
+    CompletableFuture<Integer> readBudgets(String token) {
+        CompletableFuture<Integer> budgets = get("/api/v1/budgets", token);
+        CompletableFuture<Integer> history = get("/api/v1/budgets/history", token);
+        return budgets.thenCombine(history, LoadTestClient::worst);
+    }
+
+    private static Map<String, Object> randomExpense(Random random) {
+        return Map.of(
+                "description", MERCHANTS[random.nextInt(MERCHANTS.length)] + " " + random.nextInt(1000),
+                "amount", Math.round((1 + random.nextDouble() * 100) * 100) / 100.0,
+                "date", LocalDate.now().minusDays(random.nextInt(60)).toString(),
+                "category", CATEGORIES[random.nextInt(CATEGORIES.length)]);
+    }
+
+    private CompletableFuture<Integer> get(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return send(request.build());
+    }
+
+    private CompletableFuture<Integer> post(String path, String token, Object body) {
+        try {
+            return send(jsonPost(path, token, body));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private HttpRequest jsonPost(String path, String token, Object body) throws JsonProcessingException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    private CompletableFuture<Integer> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    private static int worst(int a, int b) {
+        return Math.max(a, b);
+    }
+}
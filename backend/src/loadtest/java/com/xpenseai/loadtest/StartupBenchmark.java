@@ -0,0 +1,284 @@
+package com.xpenseai.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Cold-start benchmark. Launches the packaged application once per run in each mode and
+ * records two times from process launch: {@code readyMs}, until {@code /actuator/health}
+ * first answers 200, and {@code firstRequestMs}, until a freshly registered user's
+ * dashboard (register, log in, expenses and budgets) has loaded. The second one includes
+ * whatever work a mode defers past readiness, such as lazily created beans.
+ *
+ * Modes:
+ * <ul>
+ * <li>{@code jar}: {@code java -jar} on the fat jar.</li>
+ * <li>{@code lazy}: the fat jar with {@code spring.main.lazy-initialization=true}.</li>
+ * <li>{@code cds}: the extracted jar with the class-data-sharing archive.</li>
+ * <li>{@code aot}: the extracted jar with the AOT-generated bean definitions.</li>
+ * <li>{@code aot-cds}: both of the above.</li>
+ * <li>{@code native}: the GraalVM native executable, when one has been built.</li>
+ * </ul>
+ *
+ * Every run gets a fresh in-memory H2 database and a free port. Modes whose artifact is
+ * missing are skipped. Arguments are {@code key=value} pairs; see {@link #DEFAULTS}. Results
+ * are printed and written to {@code target/startup-result.json}; each run's output goes to
+ * {@code target/startup-logs}.
+ */
+public final class StartupBenchmark {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("jar", "target/security-0.0.1-SNAPSHOT.jar");
+        DEFAULTS.put("extracted", "target/startup/security-0.0.1-SNAPSHOT.jar");
+        DEFAULTS.put("cdsArchive", "");       // defaults to application.jsa next to the extracted jar
+        DEFAULTS.put("nativeImage", "target/security");
+        DEFAULTS.put("modes", "jar,lazy,cds,aot,aot-cds,native");
+        DEFAULTS.put("runs", "5");
+        DEFAULTS.put("timeout", "120");       // seconds per run
+        DEFAULTS.put("jvmArgs", "");          // extra JVM options for the java modes, comma-separated
+        DEFAULTS.put("out", "target/startup-result.json");
+    }
+
+    private static final String[] APPLICATION_ARGS = {
+            "--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1",
+            "--spring.h2.console.enabled=false",
+            "--logging.level.root=WARN",
+            "--logging.level.org.hibernate.SQL=WARN",
+            "--management.tracing.sampling.probability=0",
+            "--xpenseai.rate-limit.enabled=false"
+    };
+
+    private final Map<String, String> options;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    private StartupBenchmark(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0 || !DEFAULTS.containsKey(arg.substring(0, eq))) {
+                throw new IllegalArgumentException("Unknown argument '" + arg + "', expected one of " + DEFAULTS.keySet());
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        new StartupBenchmark(options).run();
+    }
+
+    private void run() throws Exception {
+        int runs = Integer.parseInt(options.get("runs"));
+        Map<String, Object> modes = new LinkedHashMap<>();
+        System.out.printf("%-8s %5s %14s %14s %18s %18s%n",
+                "mode", "runs", "ready p50 ms", "ready min ms", "1st request p50 ms", "1st request min ms");
+        for (String mode : options.get("modes").split(",")) {
+            mode = mode.trim();
+            List<String> command = command(mode);
+            if (command == null) {
+                System.out.printf("%-8s skipped, artifact not found%n", mode);
+                continue;
+            }
+            long[] ready = new long[runs];
+            long[] firstRequest = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                long[] times = launch(mode, i, command);
+                ready[i] = times[0];
+                firstRequest[i] = times[1];
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("command", String.join(" ", command));
+            result.put("readyMs", summarize(ready));
+            result.put("firstRequestMs", summarize(firstRequest));
+            modes.put(mode, result);
+            System.out.printf("%-8s %5d %14d %14d %18d %18d%n", mode, runs,
+                    median(ready), min(ready), median(firstRequest), min(firstRequest));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("runs", runs);
+        result.put("javaVersion", System.getProperty("java.version"));
+        result.put("modes", modes);
+        Path out = Paths.get(options.get("out"));
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), result);
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    /**
+     * The launch command for a mode, without the per-run port; null when its artifact is missing.
+     */
+    private List<String> command(String mode) {
+        Path jar = Paths.get(options.get("jar"));
+        Path extracted = Paths.get(options.get("extracted"));
+        Path archive = options.get("cdsArchive").isEmpty()
+                ? extracted.resolveSibling("application.jsa")
+                : Paths.get(options.get("cdsArchive"));
+
+        List<String> command = new ArrayList<>();
+        switch (mode) {
+            case "jar":
+            case "lazy":
+                if (!Files.isRegularFile(jar)) {
+                    return null;
+                }
+                command.addAll(java());
+                command.addAll(List.of("-jar", jar.toString()));
+                if (mode.equals("lazy")) {
+                    command.add("--spring.main.lazy-initialization=true");
+                }
+                break;
+            case "cds":
+            case "aot":
+            case "aot-cds":
+                boolean cds = !mode.equals("aot");
+                if (!Files.isRegularFile(extracted) || (cds && !Files.isRegularFile(archive))) {
+                    return null;
+                }
+                command.addAll(java());
+                if (cds) {
+                    command.add("-XX:SharedArchiveFile=" + archive);
+                    // Classes the archive cannot map are loaded normally; the warnings are noise here
+                    command.add("-Xlog:cds=off");
+                    command.add("-Xlog:class+path=off");
+                }
+                if (mode.startsWith("aot")) {
+                    command.add("-Dspring.aot.enabled=true");
+                }
+                command.addAll(List.of("-jar", extracted.toString()));
+                break;
+            case "native":
+                Path executable = Paths.get(options.get("nativeImage"));
+                if (!Files.isExecutable(executable) || Files.isDirectory(executable)) {
+                    return null;
+                }
+                command.add(executable.toString());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        command.addAll(Arrays.asList(APPLICATION_ARGS));
+        return command;
+    }
+
+    private List<String> java() {
+        List<String> java = new ArrayList<>();
+        java.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (String arg : options.get("jvmArgs").split(",")) {
+            if (!arg.isBlank()) {
+                java.add(arg.trim());
+            }
+        }
+        return java;
+    }
+
+    /**
+     * Starts one instance, waits for readiness and a first real request, then stops it.
+     * Returns {readyMs, firstRequestMs}.
+     */
+    private long[] launch(String mode, int run, List<String> command) throws Exception {
+        int port = freePort();
+        List<String> withPort = new ArrayList<>(command);
+        withPort.add("--server.port=" + port);
+        String baseUrl = "http://localhost:" + port;
+        File log = Paths.get("target", "startup-logs", mode + "-" + run + ".log").toFile();
+        Files.createDirectories(log.getParentFile().toPath());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Integer.parseInt(options.get("timeout")));
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(withPort).redirectErrorStream(true).redirectOutput(log).start();
+        try {
+            while (!isHealthy(baseUrl)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited with " + process.exitValue() + "; see " + log);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(mode + " not ready within the timeout; see " + log);
+                }
+                Thread.sleep(5);
+            }
+            long ready = System.nanoTime();
+
+            LoadTestClient client = new LoadTestClient(baseUrl);
+            String token = client.registerAndAuthenticate("startup-" + mode + "-" + run + "@example.com", "password123");
+            int status = client.loadDashboard(token).join();
+            if (status != 200) {
+                throw new IllegalStateException(mode + " answered the first dashboard load with " + status);
+            }
+            long firstRequest = System.nanoTime();
+            return new long[] {
+                    TimeUnit.NANOSECONDS.toMillis(ready - start),
+                    TimeUnit.NANOSECONDS.toMillis(firstRequest - start)
+            };
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private boolean isHealthy(String baseUrl) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+                .timeout(Duration.ofSeconds(1))
+                .GET()
+                .build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            // Not listening yet
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Map<String, Object> summarize(long[] millis) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("min", min(millis));
+        summary.put("p50", median(millis));
+        summary.put("max", Arrays.stream(millis).max().orElse(0));
+        summary.put("runs", millis.clone());
+        return summary;
+    }
+
+    private static long median(long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        return sorted.length == 0 ? 0 : sorted[sorted.length / 2];
+    }
+
+    private static long min(long[] millis) {
+        return Arrays.stream(millis).min().orElse(0);
+    }
+}
@@ -0,0 +1,26 @@
+package com.xpenseai.analytics;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import com.xpenseai.user.User;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @GetMapping("/trends")
+    public ResponseEntity<TrendReport> getTrends(
+            @RequestParam(defaultValue = "12") Integer months,
+            @RequestParam(defaultValue = "3") Integer window,
+            @RequestParam(defaultValue = "5") Integer top,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(analyticsService.getTrends(user, months, window, top));
+    }
+}
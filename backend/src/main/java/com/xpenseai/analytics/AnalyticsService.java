@@ -0,0 +1,213 @@
+package com.xpenseai.analytics;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.xpenseai.expense.Expense;
+import com.xpenseai.expense.ExpenseArchive;
+import com.xpenseai.expense.ExpenseChangedEvent;
+import com.xpenseai.expense.ExpenseRepository;
+import com.xpenseai.expense.ExpensesBulkChangedEvent;
+import com.xpenseai.user.User;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Month-over-month and year-over-year trends per category, served from a cached
+ * {@link CategoryMonthMatrix} per user. A matrix is built with one GROUP BY query the first
+ * time a user asks for trends. After that, each committed expense change recomputes just
+ * the one (category, month) cell it touched, and bulk changes drop the user's matrix.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    private static final int MAX_MONTHS = 60;
+    private static final int MAX_WINDOW = 24;
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseArchive expenseArchive;
+
+    @Value("${xpenseai.analytics.max-cached-users:2000}")
+    private int maxCachedUsers;
+
+    private final Map<Integer, CategoryMonthMatrix> matrices = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CategoryMonthMatrix> eldest) {
+            return size() > maxCachedUsers;
+        }
+    };
+
+    public TrendReport getTrends(User user, int months, int window, int top) {
+        if (months < 1 || months > MAX_MONTHS || window < 1 || window > MAX_WINDOW || top < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "months must be 1-" + MAX_MONTHS + ", window 1-" + MAX_WINDOW + " and top non-negative");
+        }
+
+        // Earlier months feed the first moving averages and the year-over-year comparison
+        int lookback = Math.max(window - 1, 12);
+        YearMonth current = YearMonth.now();
+        CategoryMonthMatrix matrix = loadedMatrix(user);
+        Map<String, double[]> rows;
+        synchronized (matrix) {
+            rows = matrix.window(monthIndex(current), months + lookback);
+        }
+
+        double[] totals = new double[months + lookback];
+        rows.values().forEach(row -> {
+            for (int i = 0; i < row.length; i++) {
+                totals[i] += row[i];
+            }
+        });
+
+        List<TrendReport.Series> categories = new ArrayList<>();
+        rows.forEach((category, row) -> {
+            // Categories with nothing in the displayed months or the comparison months are left out
+            boolean shown = row[row.length - 13] != 0;
+            for (int i = lookback; i < row.length && !shown; i++) {
+                shown = row[i] != 0;
+            }
+            if (shown) {
+                categories.add(series(category, row, lookback, window));
+            }
+        });
+        categories.sort(Comparator.comparingDouble((TrendReport.Series series) ->
+                series.getMonthly().stream().mapToDouble(Double::doubleValue).sum()).reversed());
+
+        List<TrendReport.Series> topMovers = categories.stream()
+                .filter(series -> series.getMonthOverMonth().getDelta() != 0)
+                .sorted(Comparator.comparing((TrendReport.Series series) ->
+                        Math.abs(series.getMonthOverMonth().getDelta())).reversed())
+                .limit(top)
+                .collect(Collectors.toList());
+
+        List<String> labels = new ArrayList<>(months);
+        for (int i = months - 1; i >= 0; i--) {
+            labels.add(current.minusMonths(i).toString());
+        }
+
+        return TrendReport.builder()
+                .months(labels)
+                .movingAverageWindow(window)
+                .total(series(null, totals, lookback, window))
+                .categories(categories)
+                .topMovers(topMovers)
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        CategoryMonthMatrix matrix;
+        synchronized (matrices) {
+            matrix = matrices.get(event.getUser().getId());
+        }
+        if (matrix == null) {
+            return;
+        }
+        Expense expense = event.getExpense();
+        synchronized (matrix) {
+            // Not loaded yet: the load that is about to happen reads the committed change anyway
+            if (matrix.isLoaded()) {
+                recomputeCell(event.getUser(), matrix, expense.getCategory(), YearMonth.from(expense.getDate()));
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesBulkChanged(ExpensesBulkChangedEvent event) {
+        if (event.getAffected() > 0) {
+            synchronized (matrices) {
+                matrices.remove(event.getUser().getId());
+            }
+        }
+    }
+
+    private CategoryMonthMatrix loadedMatrix(User user) {
+        Integer userId = user.getId();
+        CategoryMonthMatrix matrix;
+        synchronized (matrices) {
+            matrix = matrices.computeIfAbsent(userId, id -> new CategoryMonthMatrix());
+        }
+        synchronized (matrix) {
+            if (!matrix.isLoaded()) {
+                expenseRepository.sumByCategoryAndMonth(userId).forEach(total -> matrix.add(total.getCategory(),
+                        total.getYear() * 12 + total.getMonth() - 1, total.getTotal()));
+                if (expenseArchive.hasArchivedExpenses(user)) {
+                    expenseArchive.findExpenses(user, null, null, null).forEach(expense ->
+                            matrix.add(expense.getCategory(), monthIndex(YearMonth.from(expense.getDate())),
+                                    expense.getAmount()));
+                }
+                matrix.markLoaded();
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Replaces one cell with its current value from the database (and archive), so a cell is
+     * always exact regardless of the order in which changes are applied.
+     */
+    private void recomputeCell(User user, CategoryMonthMatrix matrix, String category, YearMonth month) {
+        LocalDate start = month.atDay(1);
+        LocalDate end = month.atEndOfMonth();
+        double value = expenseRepository.sumAmountByUserIdAndCategoryAndDateBetween(user.getId(), category, start,
+                end);
+        if (expenseArchive.hasArchivedExpenses(user)) {
+            value += expenseArchive.sumByCategory(user, start, end).getOrDefault(category, 0.0);
+        }
+        matrix.set(category, monthIndex(month), value);
+    }
+
+    private static TrendReport.Series series(String category, double[] row, int lookback, int window) {
+        int length = row.length;
+        List<Double> monthly = new ArrayList<>(length - lookback);
+        List<Double> movingAverage = new ArrayList<>(length - lookback);
+        double windowSum = 0;
+        for (int i = 0; i < length; i++) {
+            windowSum += row[i];
+            if (i >= window) {
+                windowSum -= row[i - window];
+            }
+            if (i >= lookback) {
+                monthly.add(round(row[i]));
+                movingAverage.add(round(windowSum / window));
+            }
+        }
+        return TrendReport.Series.builder()
+                .category(category)
+                .monthly(monthly)
+                .movingAverage(movingAverage)
+                .monthOverMonth(change(row[length - 1], row[length - 2]))
+                .yearOverYear(change(row[length - 1], row[length - 13]))
+                .build();
+    }
+
+    private static TrendReport.Change change(double current, double previous) {
+        return TrendReport.Change.builder()
+                .current(round(current))
+                .previous(round(previous))
+                .delta(round(current - previous))
+                .percent(previous == 0 ? null : Math.round((current - previous) / previous * 1000) / 10.0)
+                .build();
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+}
@@ -0,0 +1,77 @@
+package com.xpenseai.analytics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One user's spending as a dense (category x month) matrix of primitive sums. Months are
+ * indexed as {@code year * 12 + month - 1}. Each category row covers the same contiguous
+ * month range, which grows when a cell outside it is set.
+ *
+ * Not thread-safe; {@link AnalyticsService} guards each instance with its monitor.
+ */
+final class CategoryMonthMatrix {
+
+    private final Map<String, double[]> rows = new LinkedHashMap<>();
+    private int firstMonth;
+    private int width;
+    private boolean loaded;
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    void markLoaded() {
+        loaded = true;
+    }
+
+    void set(String category, int month, double value) {
+        ensureCovers(month);
+        rows.computeIfAbsent(category, c -> new double[width])[month - firstMonth] = value;
+    }
+
+    void add(String category, int month, double value) {
+        ensureCovers(month);
+        rows.computeIfAbsent(category, c -> new double[width])[month - firstMonth] += value;
+    }
+
+    /**
+     * Copies {@code count} months ending at {@code lastMonth} (inclusive) for every category;
+     * months outside the stored range are zero.
+     */
+    Map<String, double[]> window(int lastMonth, int count) {
+        Map<String, double[]> copy = new LinkedHashMap<>();
+        int start = lastMonth - count + 1;
+        rows.forEach((category, row) -> {
+            double[] values = new double[count];
+            int from = Math.max(start, firstMonth);
+            int to = Math.min(lastMonth, firstMonth + width - 1);
+            if (from <= to) {
+                System.arraycopy(row, from - firstMonth, values, from - start, to - from + 1);
+            }
+            copy.put(category, values);
+        });
+        return copy;
+    }
+
+    private void ensureCovers(int month) {
+        if (width == 0) {
+            firstMonth = month;
+            width = 1;
+            return;
+        }
+        if (month >= firstMonth && month < firstMonth + width) {
+            return;
+        }
+        int newFirst = Math.min(firstMonth, month);
+        int newWidth = Math.max(firstMonth + width, month + 1) - newFirst;
+        int shift = firstMonth - newFirst;
+        rows.replaceAll((category, row) -> {
+            double[] grown = new double[newWidth];
+            System.arraycopy(row, 0, grown, shift, row.length);
+            return grown;
+        });
+        firstMonth = newFirst;
+        width = newWidth;
+    }
+}
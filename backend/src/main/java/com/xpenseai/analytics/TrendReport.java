@@ -0,0 +1,47 @@
+package com.xpenseai.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Month-by-month spending per category for the last {@code months.size()} months (the last
+ * one being the current month), with the derived comparisons the dashboard shows.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendReport {
+    private List<String> months; // "yyyy-MM", oldest first
+    private int movingAverageWindow;
+    private Series total;
+    private List<Series> categories;
+    private List<Series> topMovers; // largest absolute month-over-month change first
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Series {
+        private String category; // null for the total and for uncategorized expenses
+        private List<Double> monthly;
+        private List<Double> movingAverage; // trailing average over movingAverageWindow months
+        private Change monthOverMonth;
+        private Change yearOverYear;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Change {
+        private Double current;
+        private Double previous;
+        private Double delta;
+        private Double percent; // null when previous is zero
+    }
+}
@@ -7,6 +7,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.xpenseai.user.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -16,6 +19,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@SQLRestriction("deleted = false")
 @Table(name = "budgets")
 public class Budget {
 
@@ -46,11 +50,55 @@ public class Budget {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Per-user change version of the last write to this row (see ChangeVersions)
+    @Column(name = "change_version", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    @JsonIgnore
+    private Long changeVersion = 0L;
+
+    // Deleted rows stay behind as tombstones so clients syncing by version see the delete
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    @Builder.Default
+    @JsonIgnore
+    private boolean deleted = false;
+
+    // Spend in the current period as of the last BudgetSpendLedger flush; null on rows created before it existed.
+    // Only the ledger's queries write it after insert, so saving a stale copy cannot undo a flush.
+    @Column(name = "spent_amount", updatable = false)
+    @Builder.Default
+    @JsonIgnore
+    private Double recordedSpent = 0.0;
+
+    // Committed BudgetSpendDeltas not yet folded into recordedSpent that still match the budget, read with the row
+    @Formula("(select coalesce(sum(d.cents), 0) from budget_spend_deltas d where d.budget_id = id "
+            + "and d.category = category and d.expense_date >= current_period_start "
+            + "and d.expense_date < next_reset_date and (d.user_id = user_id "
+            + "or d.user_id in (select m.user_id from budget_members m where m.budget_id = id)))")
+    @JsonIgnore
+    private Long pendingSpentCents;
+
+    // Optimistic lock for concurrent edits of the budget itself; spend flushes do not bump it
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Long version;
+
+    // The owner; members are in BudgetMember
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
     private User user;
 
+    // Recorded plus not yet flushed spend, filled in for responses
+    @Transient
+    private Double spentAmount;
+
+    // Whether the requesting user owns the budget rather than being a member of it
+    @Transient
+    private Boolean owned;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
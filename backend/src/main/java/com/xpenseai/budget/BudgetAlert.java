@@ -0,0 +1,23 @@
+package com.xpenseai.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BudgetAlert {
+    private String type; // "THRESHOLD", "ROLLOVER"
+    private Long budgetId;
+    private String category;
+    private Integer threshold; // percent crossed, only set for THRESHOLD alerts
+    private Double budgetAmount;
+    private Double spentAmount;
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+}
@@ -0,0 +1,92 @@
+package com.xpenseai.budget;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pushes budget alerts to the owner and every member of the budget. Threshold crossings
+ * are reported by {@link BudgetSpendLedger} as committed expenses move the spend; rollover
+ * alerts wait for the rollover's transaction to commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class BudgetAlertService {
+
+    private static final int[] THRESHOLDS = { 50, 80, 100 };
+
+    private final BudgetMemberRepository budgetMemberRepository;
+    private final BudgetAlertHub alertHub;
+
+    public void publishRollover(Budget budget, BudgetHistory history) {
+        if (!alertHub.hasSubscribers()) {
+            return;
+        }
+        BudgetAlert alert = BudgetAlert.builder()
+                .type("ROLLOVER")
+                .budgetId(budget.getId())
+                .category(budget.getCategory())
+                .budgetAmount(history.getBudgetAmount())
+                .spentAmount(history.getSpentAmount())
+                .periodStart(history.getPeriodStart())
+                .periodEnd(history.getPeriodEnd())
+                .build();
+        List<Integer> recipients = recipients(budget);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(recipients, alert);
+            return;
+        }
+        // A rollover that rolls back must not have been announced
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(recipients, alert);
+            }
+        });
+    }
+
+    // Only called after the expense change commits, so the alert goes out right away
+    void publishThresholdCrossing(Budget budget, double before, double spent) {
+        if (!alertHub.hasSubscribers() || budget.getAmount() == null || budget.getAmount() <= 0) {
+            return;
+        }
+
+        // Only alert on upward crossings; report the highest threshold reached by this write
+        Integer crossed = null;
+        for (int threshold : THRESHOLDS) {
+            double limit = budget.getAmount() * threshold / 100.0;
+            if (before < limit && spent >= limit) {
+                crossed = threshold;
+            }
+        }
+        if (crossed == null) {
+            return;
+        }
+
+        send(recipients(budget), BudgetAlert.builder()
+                .type("THRESHOLD")
+                .budgetId(budget.getId())
+                .category(budget.getCategory())
+                .threshold(crossed)
+                .budgetAmount(budget.getAmount())
+                .spentAmount(spent)
+                .periodStart(budget.getCurrentPeriodStart())
+                .periodEnd(budget.getNextResetDate().minusDays(1))
+                .build());
+    }
+
+    private List<Integer> recipients(Budget budget) {
+        List<Integer> recipients = new ArrayList<>(budgetMemberRepository.findUserIdsByBudgetId(budget.getId()));
+        recipients.add(budget.getUser().getId());
+        return recipients;
+    }
+
+    private void send(List<Integer> recipients, BudgetAlert alert) {
+        recipients.forEach(userId -> alertHub.publish(userId, alert));
+    }
+}
@@ -1,8 +1,10 @@
 package com.xpenseai.budget;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.xpenseai.user.User;
 import lombok.RequiredArgsConstructor;
 
@@ -15,6 +17,7 @@ import java.util.List;
 public class BudgetController {
 
     private final BudgetService budgetService;
+    private final BudgetAlertHub budgetAlertHub;
 
     @PostMapping
     public ResponseEntity<Budget> createBudget(
@@ -51,19 +54,52 @@ public class BudgetController {
         return ResponseEntity.ok(budget);
     }
 
+    @GetMapping("/{id}/members")
+    public ResponseEntity<List<BudgetMemberView>> getBudgetMembers(
+            @PathVariable Long id,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(budgetService.getBudgetMembers(id, user));
+    }
+
+    @PostMapping("/{id}/members")
+    public ResponseEntity<List<BudgetMemberView>> addBudgetMember(
+            @PathVariable Long id,
+            @RequestBody BudgetMemberRequest request,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(budgetService.addBudgetMember(id, request, user));
+    }
+
+    @DeleteMapping("/{id}/members/{userId}")
+    public ResponseEntity<Void> removeBudgetMember(
+            @PathVariable Long id,
+            @PathVariable Integer userId,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        budgetService.removeBudgetMember(id, userId, user);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping(value = "/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBudgetAlerts(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return budgetAlertHub.subscribe(user.getId());
+    }
+
     @GetMapping("/history")
-    public ResponseEntity<List<BudgetHistory>> getBudgetHistory(Authentication authentication) {
+    public ResponseEntity<List<BudgetHistoryView>> getBudgetHistory(Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        List<BudgetHistory> history = budgetService.getUserBudgetHistory(user);
+        List<BudgetHistoryView> history = budgetService.getUserBudgetHistory(user);
         return ResponseEntity.ok(history);
     }
 
     @GetMapping("/history/{category}")
-    public ResponseEntity<List<BudgetHistory>> getBudgetHistoryByCategory(
+    public ResponseEntity<List<BudgetHistoryView>> getBudgetHistoryByCategory(
             @PathVariable String category,
             Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        List<BudgetHistory> history = budgetService.getBudgetHistoryByCategory(user, category);
+        List<BudgetHistoryView> history = budgetService.getBudgetHistoryByCategory(user, category);
         return ResponseEntity.ok(history);
     }
 
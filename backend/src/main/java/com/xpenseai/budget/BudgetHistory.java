@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.xpenseai.user.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -44,6 +45,13 @@ public class BudgetHistory {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Per-user change version of the last write to this row (see ChangeVersions)
+    @Column(name = "change_version", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    @JsonIgnore
+    private Long changeVersion = 0L;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
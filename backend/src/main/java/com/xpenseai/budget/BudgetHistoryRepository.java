@@ -1,6 +1,7 @@
 package com.xpenseai.budget;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import com.xpenseai.user.User;
 import java.time.LocalDate;
 import java.util.List;
@@ -13,5 +14,18 @@ public interface BudgetHistoryRepository extends JpaRepository<BudgetHistory, Lo
     List<BudgetHistory> findByUserAndPeriodStartBetweenOrderByPeriodStartDesc(User user, LocalDate startDate,
             LocalDate endDate);
 
-            
+    @Query("SELECT new com.xpenseai.budget.BudgetHistoryView(h.id, h.category, h.budgetAmount, h.spentAmount, "
+            + "h.periodStart, h.periodEnd, h.periodType, h.createdAt) "
+            + "FROM BudgetHistory h WHERE h.user.id = ?1 ORDER BY h.periodStart DESC")
+    List<BudgetHistoryView> findViewsByUserId(Integer userId);
+
+    @Query("SELECT new com.xpenseai.budget.BudgetHistoryView(h.id, h.category, h.budgetAmount, h.spentAmount, "
+            + "h.periodStart, h.periodEnd, h.periodType, h.createdAt) "
+            + "FROM BudgetHistory h WHERE h.user.id = ?1 AND h.category = ?2 ORDER BY h.periodStart DESC")
+    List<BudgetHistoryView> findViewsByUserIdAndCategory(Integer userId, String category);
+
+    @Query("SELECT new com.xpenseai.budget.BudgetHistoryView(h.id, h.category, h.budgetAmount, h.spentAmount, "
+            + "h.periodStart, h.periodEnd, h.periodType, h.createdAt) "
+            + "FROM BudgetHistory h WHERE h.user.id = ?1 AND h.changeVersion > ?2 AND h.changeVersion <= ?3 ORDER BY h.id")
+    List<BudgetHistoryView> findChangedViewsByUserId(Integer userId, long afterVersion, long upToVersion);
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.xpenseai.budget;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only budget history row, selected directly into the DTO so the history endpoints
+ * never materialize (or dirty-check) {@link BudgetHistory} entities.
+ */
+public record BudgetHistoryView(
+        Long id,
+        String category,
+        Double budgetAmount,
+        Double spentAmount,
+        LocalDate periodStart,
+        LocalDate periodEnd,
+        String periodType,
+        LocalDateTime createdAt) {
+}
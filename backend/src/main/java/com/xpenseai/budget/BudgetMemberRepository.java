@@ -0,0 +1,23 @@
+package com.xpenseai.budget;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
+
+public interface BudgetMemberRepository extends JpaRepository<BudgetMember, Long> {
+
+    @Query("SELECT COUNT(m) > 0 FROM BudgetMember m WHERE m.budget.id = ?1 AND m.user.id = ?2")
+    boolean existsByBudgetIdAndUserId(Long budgetId, Integer userId);
+
+    @Query("SELECT m.user.id FROM BudgetMember m WHERE m.budget.id = ?1")
+    List<Integer> findUserIdsByBudgetId(Long budgetId);
+
+    @Query("SELECT new com.xpenseai.budget.BudgetMemberView(u.id, u.email, u.firstname, u.lastname, m.joinedAt) "
+            + "FROM BudgetMember m JOIN m.user u WHERE m.budget.id = ?1 ORDER BY m.joinedAt")
+    List<BudgetMemberView> findViewsByBudgetId(Long budgetId);
+
+    @Modifying
+    @Query("DELETE FROM BudgetMember m WHERE m.budget.id = ?1 AND m.user.id = ?2")
+    int deleteByBudgetIdAndUserId(Long budgetId, Integer userId);
+}
@@ -0,0 +1,14 @@
+package com.xpenseai.budget;
+
+import java.time.LocalDateTime;
+
+/**
+ * A member of a shared budget as listed to the owner and the other members.
+ */
+public record BudgetMemberView(
+        Integer userId,
+        String email,
+        String firstname,
+        String lastname,
+        LocalDateTime joinedAt) {
+}
@@ -1,12 +1,92 @@
 package com.xpenseai.budget;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import com.xpenseai.user.User;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
     List<Budget> findByUser(User user);
 
+    // Budgets the user owns or is a member of
+    @Query("SELECT b FROM Budget b WHERE b.user.id = ?1 "
+            + "OR b.id IN (SELECT m.budget.id FROM BudgetMember m WHERE m.user.id = ?1)")
+    List<Budget> findAccessibleByUserId(Integer userId);
+
+    @Query("SELECT b FROM Budget b WHERE b.category = ?2 AND (b.user.id = ?1 "
+            + "OR b.id IN (SELECT m.budget.id FROM BudgetMember m WHERE m.user.id = ?1))")
+    List<Budget> findAccessibleByUserIdAndCategory(Integer userId, String category);
+
+    @Query("SELECT b FROM Budget b WHERE b.id = ?1 AND (b.user.id = ?2 "
+            + "OR b.id IN (SELECT m.budget.id FROM BudgetMember m WHERE m.user.id = ?2))")
+    Optional<Budget> findAccessibleByIdAndUserId(Long id, Integer userId);
+
+    // Spend of the owner and all members in the budget's category
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expense e WHERE e.category = ?3 AND e.date BETWEEN ?4 AND ?5 "
+            + "AND (e.user.id = ?2 OR e.user.id IN (SELECT m.user.id FROM BudgetMember m WHERE m.budget.id = ?1))")
+    Double sumSpent(Long budgetId, Integer ownerId, String category, LocalDate startDate, LocalDate endDate);
+
+    // The same spend less the deltas still pending for the budget, as BudgetSpendLedger.recompute records it.
+    // One statement, so an expense and its delta are either both seen or both not
+    @Query("SELECT COALESCE(SUM(e.amount), 0) - (SELECT COALESCE(SUM(d.cents), 0) FROM BudgetSpendDelta d "
+            + "WHERE d.budgetId = ?1 AND d.category = ?3 AND d.expenseDate BETWEEN ?4 AND ?5 AND (d.userId = ?2 "
+            + "OR d.userId IN (SELECT m.user.id FROM BudgetMember m WHERE m.budget.id = ?1))) / 100.0 "
+            + "FROM Expense e WHERE e.category = ?3 AND e.date BETWEEN ?4 AND ?5 "
+            + "AND (e.user.id = ?2 OR e.user.id IN (SELECT m.user.id FROM BudgetMember m WHERE m.budget.id = ?1))")
+    Double sumSpentLessPending(Long budgetId, Integer ownerId, String category, LocalDate startDate, LocalDate endDate);
+
+    // Recorded plus pending spend, read fresh rather than from an entity the persistence context may hold
+    @Query("SELECT COALESCE(b.recordedSpent, 0) + b.pendingSpentCents / 100.0 FROM Budget b WHERE b.id = ?1")
+    Optional<Double> findSpentById(Long id);
+
+    // Auto-resetting budgets whose period ended by the given day, for BudgetRolloverSweep
+    @Query("SELECT b.id FROM Budget b WHERE b.autoReset = true AND b.nextResetDate <= ?1 ORDER BY b.id")
+    List<Long> findIdsDueForReset(LocalDate today);
+
+    // Rows written before these columns were filled in on every write, for BudgetRolloverSweep to repair
+    @Query("SELECT b.id FROM Budget b WHERE b.deleted = false AND (b.autoReset IS NULL OR b.periodType IS NULL "
+            + "OR b.periodType = '' OR b.currentPeriodStart IS NULL OR b.nextResetDate IS NULL "
+            + "OR b.recordedSpent IS NULL) ORDER BY b.id")
+    List<Long> findIdsNeedingRepair();
+
+    // Row lock that orders BudgetSpendLedger flushes and recomputations of the same budget
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Budget b WHERE b.id = ?1")
+    Optional<Budget> findByIdForUpdate(Long id);
+
+    // Bulk updates leave the @Version alone, so spend writes never fail the owner's edits
+    @Modifying
+    @Query("UPDATE Budget b SET b.recordedSpent = b.recordedSpent + ?2 WHERE b.id = ?1")
+    int addRecordedSpent(Long id, double amount);
+
+    @Modifying
+    @Query("UPDATE Budget b SET b.recordedSpent = ?2 WHERE b.id = ?1")
+    int setRecordedSpent(Long id, double amount);
+
     Optional<Budget> findByUserAndCategory(User user, String category);
+
+    @Query("SELECT COUNT(b) > 0 FROM Budget b WHERE b.user.id = ?1 AND b.category = ?2")
+    boolean existsByUserIdAndCategory(Integer userId, String category);
+
+    // Ownership is part of the lookup, so another user's budget is simply not found
+    @Query("SELECT b FROM Budget b WHERE b.id = ?1 AND b.user.id = ?2")
+    Optional<Budget> findByIdAndUserId(Long id, Integer userId);
+
+    // Leaves a tombstone behind for delta sync
+    @Modifying
+    @Query("UPDATE Budget b SET b.deleted = true, b.changeVersion = ?3 "
+            + "WHERE b.id = ?1 AND b.user.id = ?2 AND b.deleted = false")
+    int softDeleteByIdAndUserId(Long id, Integer userId, long changeVersion);
+
+    @Query("SELECT b FROM Budget b WHERE b.user.id = ?1 AND b.changeVersion > ?2 AND b.changeVersion <= ?3 ORDER BY b.id")
+    List<Budget> findChangedByUserId(Integer userId, long afterVersion, long upToVersion);
+
+    @Query(value = "SELECT id FROM budgets WHERE user_id = ?1 AND deleted = true "
+            + "AND change_version > ?2 AND change_version <= ?3 ORDER BY id", nativeQuery = true)
+    List<Long> findDeletedIdsByUserId(Integer userId, long afterVersion, long upToVersion);
 }
\ No newline at end of file
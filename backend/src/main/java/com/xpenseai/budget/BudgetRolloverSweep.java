@@ -0,0 +1,43 @@
+package com.xpenseai.budget;
+
+import java.time.LocalDate;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rolls budgets over once their period ends, whether or not anyone is looking at them;
+ * {@code GET /budgets} only reads, so until the sweep gets to it a budget shows its ended
+ * period. Budgets written by older versions with columns missing are repaired first, so
+ * they roll over too. Each budget is handled in its own transaction under its row lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BudgetRolloverSweep {
+
+    private final BudgetRepository budgetRepository;
+    private final BudgetService budgetService;
+
+    @Scheduled(cron = "${xpenseai.budgets.rollover-cron:0 5 * * * *}")
+    public void sweep() {
+        for (Long budgetId : budgetRepository.findIdsNeedingRepair()) {
+            try {
+                budgetService.repair(budgetId);
+            } catch (RuntimeException e) {
+                log.warn("Repairing budget {} failed", budgetId, e);
+            }
+        }
+        for (Long budgetId : budgetRepository.findIdsDueForReset(LocalDate.now())) {
+            try {
+                budgetService.rollOverIfDue(budgetId);
+            } catch (RuntimeException e) {
+                // Still due, so the next sweep tries again
+                log.warn("Rolling over budget {} failed", budgetId, e);
+            }
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.xpenseai.budget;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import com.xpenseai.user.ChangeVersions;
 import com.xpenseai.user.User;
-import com.xpenseai.expense.ExpenseRepository;
+import com.xpenseai.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -14,14 +19,18 @@ public class BudgetService {
 
     private final BudgetRepository budgetRepository;
     private final BudgetHistoryRepository budgetHistoryRepository;
-    private final ExpenseRepository expenseRepository;
+    private final BudgetMemberRepository budgetMemberRepository;
+    private final UserRepository userRepository;
+    private final BudgetAlertService budgetAlertService;
+    private final BudgetSpendLedger budgetSpendLedger;
+    private final ChangeVersions changeVersions;
 
+    @Transactional
     public Budget createBudget(BudgetRequest request, User user) {
         // Guard: budget per category must be unique for the user
-        budgetRepository.findByUserAndCategory(user, request.getCategory())
-                .ifPresent(existing -> {
-                    throw new RuntimeException("Budget already exists for category: " + request.getCategory());
-                });
+        if (budgetRepository.existsByUserIdAndCategory(user.getId(), request.getCategory())) {
+            throw new RuntimeException("Budget already exists for category: " + request.getCategory());
+        }
 
         // Sanitize incoming values (avoid nulls)
         String periodType = request.getPeriodType() != null ? request.getPeriodType() : "MONTHLY";
@@ -33,66 +42,77 @@ public class BudgetService {
                 .periodType(periodType)
                 .autoReset(autoReset)
                 .user(user)
+                .changeVersion(changeVersions.next(user.getId()))
                 .build();
 
         // Ensure dates are initialized
         budget.calculateNextResetDate();
+        // Expenses already made this period count from the start
+        budgetSpendLedger.recompute(budget);
 
-        return budgetRepository.save(budget);
+        Budget saved = budgetRepository.save(budget);
+        saved.setSpentAmount(saved.getRecordedSpent());
+        saved.setOwned(true);
+        return saved;
     }
 
+    /**
+     * The budgets the user owns and the shared budgets they are a member of. Read only:
+     * {@link BudgetRolloverSweep} rolls ended periods over and repairs legacy rows.
+     */
+    @Transactional(readOnly = true)
     public List<Budget> getUserBudgets(User user) {
-        List<Budget> budgets = budgetRepository.findByUser(user);
-
-        // Normalize legacy/dirty rows to prevent NPEs later
-        for (Budget b : budgets) {
-            boolean changed = false;
+        List<Budget> budgets = budgetRepository.findAccessibleByUserId(user.getId());
+        for (Budget budget : budgets) {
+            budget.setSpentAmount(budget.getRecordedSpent() == null && hasPeriod(budget)
+                    // Not repaired yet: worked out from the expenses instead
+                    ? calculateSpentAmountForPeriod(budget)
+                    : budgetSpendLedger.spent(budget));
+            budget.setOwned(Objects.equals(budget.getUser().getId(), user.getId()));
+        }
+        return budgets;
+    }
 
-            if (b.getAutoReset() == null) {
-                b.setAutoReset(Boolean.TRUE); // choose your default
-                changed = true;
+    /**
+     * Fills in the columns a budget written by an older version may lack, under the row
+     * lock. Called by {@link BudgetRolloverSweep}.
+     */
+    @Transactional
+    public void repair(Long budgetId) {
+        budgetRepository.findByIdForUpdate(budgetId).ifPresent(budget -> {
+            if (budget.getAutoReset() == null) {
+                budget.setAutoReset(Boolean.TRUE);
             }
-            if (b.getPeriodType() == null || b.getPeriodType().isBlank()) {
-                b.setPeriodType("MONTHLY");
-                changed = true;
+            if (budget.getPeriodType() == null || budget.getPeriodType().isBlank()) {
+                budget.setPeriodType("MONTHLY");
             }
-            if (b.getCurrentPeriodStart() == null) {
-                b.setCurrentPeriodStart(LocalDate.now());
-                changed = true;
+            if (budget.getCurrentPeriodStart() == null) {
+                budget.setCurrentPeriodStart(LocalDate.now());
             }
-            if (b.getNextResetDate() == null) {
-                b.calculateNextResetDate();
-                changed = true;
+            if (budget.getNextResetDate() == null) {
+                budget.calculateNextResetDate();
             }
-            if (changed) {
-                budgetRepository.save(b);
+            if (budget.getRecordedSpent() == null) {
+                budgetSpendLedger.recompute(budget);
             }
-        }
-
-        // Check if any budgets need to be reset (null-safe inside)
-        budgets.forEach(this::checkAndResetBudget);
-
-        return budgets;
+            budget.setChangeVersion(changeVersions.next(budget.getUser().getId()));
+            budgetRepository.save(budget);
+        });
     }
 
+    @Transactional
     public void deleteBudget(Long budgetId, User user) {
-        Budget budget = budgetRepository.findById(budgetId)
-                .orElseThrow(() -> new RuntimeException("Budget not found"));
-
-        if (!budget.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Not authorized to delete this budget");
+        long version = changeVersions.next(user.getId());
+        if (budgetRepository.softDeleteByIdAndUserId(budgetId, user.getId(), version) == 0) {
+            throw new RuntimeException("Budget not found");
         }
-
-        budgetRepository.delete(budget);
     }
 
+    @Transactional
     public Budget updateBudget(Long budgetId, BudgetRequest request, User user) {
-        Budget budget = budgetRepository.findById(budgetId)
+        Budget budget = budgetRepository.findByIdAndUserId(budgetId, user.getId())
                 .orElseThrow(() -> new RuntimeException("Budget not found"));
-
-        if (!budget.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Not authorized to update this budget");
-        }
+        String previousPeriodType = budget.getPeriodType();
 
         // Apply updates with null-safe defaults
         if (request.getAmount() != null) {
@@ -117,60 +137,135 @@ public class BudgetService {
             // Recalculate on update to keep schedule aligned with new period type
             budget.calculateNextResetDate();
         }
+        if (!Objects.equals(previousPeriodType, budget.getPeriodType())) {
+            // A different period end covers different expenses
+            budgetSpendLedger.recompute(budget);
+        }
 
-        return budgetRepository.save(budget);
+        budget.setChangeVersion(changeVersions.next(user.getId()));
+        Budget saved = budgetRepository.save(budget);
+        saved.setSpentAmount(budgetSpendLedger.spent(saved));
+        saved.setOwned(true);
+        return saved;
     }
 
-    private void checkAndResetBudget(Budget budget) {
-        LocalDate today = LocalDate.now();
+    @Transactional(readOnly = true)
+    public List<BudgetMemberView> getBudgetMembers(Long budgetId, User user) {
+        budgetRepository.findAccessibleByIdAndUserId(budgetId, user.getId())
+                .orElseThrow(() -> new RuntimeException("Budget not found"));
+        return budgetMemberRepository.findViewsByBudgetId(budgetId);
+    }
+
+    /**
+     * Shares the budget with another user; only the owner can add members.
+     */
+    @Transactional
+    public List<BudgetMemberView> addBudgetMember(Long budgetId, BudgetMemberRequest request, User user) {
+        Budget budget = budgetRepository.findByIdAndUserId(budgetId, user.getId())
+                .orElseThrow(() -> new RuntimeException("Budget not found"));
+        User member = userRepository.findByEmail(request.getEmail())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        if (member.getId().equals(user.getId())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The owner cannot be added as a member");
+        }
+        if (budgetMemberRepository.existsByBudgetIdAndUserId(budgetId, member.getId())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "User is already a member of this budget");
+        }
 
+        budgetMemberRepository.save(BudgetMember.builder().budget(budget).user(member).build());
+        // The new member's expenses this period now count
+        budgetSpendLedger.recompute(budget);
+        budget.setChangeVersion(changeVersions.next(user.getId()));
+        return budgetMemberRepository.findViewsByBudgetId(budgetId);
+    }
+
+    /**
+     * Removes a member; the owner can remove anyone, a member only themselves.
+     */
+    @Transactional
+    public void removeBudgetMember(Long budgetId, Integer memberId, User user) {
+        Budget budget = budgetRepository.findAccessibleByIdAndUserId(budgetId, user.getId())
+                .orElseThrow(() -> new RuntimeException("Budget not found"));
+        Integer ownerId = budget.getUser().getId();
+        if (!ownerId.equals(user.getId()) && !memberId.equals(user.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only the owner can remove other members");
+        }
+        if (budgetMemberRepository.deleteByBudgetIdAndUserId(budgetId, memberId) == 0) {
+            throw new RuntimeException("Member not found");
+        }
+
+        budgetSpendLedger.recompute(budget);
+        budget.setChangeVersion(changeVersions.next(ownerId));
+    }
+
+    /**
+     * Rolls the budget over if its period has ended. Called by {@link BudgetRolloverSweep}
+     * so that periods roll over (and alert) even when nobody opens the budget list.
+     */
+    @Transactional
+    public void rollOverIfDue(Long budgetId) {
+        // Locked before the due check, so two nodes' sweeps never both roll the same period
+        budgetRepository.findByIdForUpdate(budgetId)
+                .filter(this::isDue)
+                .ifPresent(this::rollOver);
+    }
+
+    private static boolean hasPeriod(Budget budget) {
+        return budget.getCurrentPeriodStart() != null && budget.getNextResetDate() != null;
+    }
+
+    private boolean isDue(Budget budget) {
         // Null-safe autoReset check (prevents NPE from Boolean unboxing)
-        if (Boolean.TRUE.equals(budget.getAutoReset())
+        return Boolean.TRUE.equals(budget.getAutoReset())
                 && budget.getNextResetDate() != null
-                && !today.isBefore(budget.getNextResetDate())) {
-
-            // Calculate spent amount for the period
-            Double spentAmount = calculateSpentAmountForPeriod(budget);
-
-            // Create history record
-            BudgetHistory history = BudgetHistory.builder()
-                    .category(budget.getCategory())
-                    .budgetAmount(budget.getAmount())
-                    .spentAmount(spentAmount)
-                    .periodStart(budget.getCurrentPeriodStart())
-                    .periodEnd(budget.getNextResetDate().minusDays(1))
-                    .periodType(budget.getPeriodType())
-                    .user(budget.getUser())
-                    .budget(budget)
-                    .build();
-
-            budgetHistoryRepository.save(history);
-
-            // Reset the budget period
-            budget.setCurrentPeriodStart(today);
-            budget.calculateNextResetDate();
-            budgetRepository.save(budget);
-        }
+                && !LocalDate.now().isBefore(budget.getNextResetDate());
+    }
+
+    private void rollOver(Budget budget) {
+        long version = changeVersions.next(budget.getUser().getId());
+        // Calculate spent amount for the period
+        Double spentAmount = calculateSpentAmountForPeriod(budget);
+
+        // Create history record; it belongs to the owner even when a member triggers the rollover
+        BudgetHistory history = BudgetHistory.builder()
+                .category(budget.getCategory())
+                .budgetAmount(budget.getAmount())
+                .spentAmount(spentAmount)
+                .periodStart(budget.getCurrentPeriodStart())
+                .periodEnd(budget.getNextResetDate().minusDays(1))
+                .periodType(budget.getPeriodType())
+                .user(budget.getUser())
+                .budget(budget)
+                .changeVersion(version)
+                .build();
+
+        budgetHistoryRepository.save(history);
+        budgetAlertService.publishRollover(budget, history);
+
+        // Reset the budget period
+        budget.setCurrentPeriodStart(LocalDate.now());
+        budget.calculateNextResetDate();
+        budgetSpendLedger.recompute(budget);
+        budget.setChangeVersion(version);
+        budgetRepository.save(budget);
     }
 
-    private Double calculateSpentAmountForPeriod(Budget budget) {
+    Double calculateSpentAmountForPeriod(Budget budget) {
         LocalDate startDate = budget.getCurrentPeriodStart();
         LocalDate endDate = budget.getNextResetDate().minusDays(1);
 
-        return expenseRepository.findByUserAndDateBetweenOrderByDateDesc(
-                budget.getUser(), startDate, endDate)
-                .stream()
-                .filter(expense -> expense.getCategory().equals(budget.getCategory()))
-                .mapToDouble(expense -> expense.getAmount())
-                .sum();
+        return budgetRepository.sumSpent(budget.getId(), budget.getUser().getId(), budget.getCategory(),
+                startDate, endDate);
     }
 
-    public List<BudgetHistory> getUserBudgetHistory(User user) {
-        return budgetHistoryRepository.findByUserOrderByPeriodStartDesc(user);
+    @Transactional(readOnly = true)
+    public List<BudgetHistoryView> getUserBudgetHistory(User user) {
+        return budgetHistoryRepository.findViewsByUserId(user.getId());
     }
 
-    public List<BudgetHistory> getBudgetHistoryByCategory(User user, String category) {
-        return budgetHistoryRepository.findByUserAndCategoryOrderByPeriodStartDesc(user, category);
+    @Transactional(readOnly = true)
+    public List<BudgetHistoryView> getBudgetHistoryByCategory(User user, String category) {
+        return budgetHistoryRepository.findViewsByUserIdAndCategory(user.getId(), category);
     }
     
 }
@@ -0,0 +1,48 @@
+package com.xpenseai.budget;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Spend not yet folded into {@link Budget#getRecordedSpent()}: one row per budget an
+ * expense change counts towards, inserted by {@link BudgetSpendLedger} in the transaction
+ * that writes the expense. Rows are only ever inserted and deleted, so members posting at
+ * the same moment never update the same row.
+ *
+ * The expense's owner, category and date are kept so that the row only counts while it
+ * still matches the budget, the same way the expense itself would in a recomputation.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "budget_spend_deltas")
+public class BudgetSpendDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain ids rather than relations, so recording a delta loads nothing
+    @Column(name = "budget_id", nullable = false)
+    private Long budgetId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Column(name = "expense_date", nullable = false)
+    private LocalDate expenseDate;
+
+    // Negative for a deleted expense
+    @Column(nullable = false)
+    private Long cents;
+}
@@ -0,0 +1,14 @@
+package com.xpenseai.budget;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
+
+public interface BudgetSpendDeltaRepository extends JpaRepository<BudgetSpendDelta, Long> {
+
+    @Query("SELECT DISTINCT d.budgetId FROM BudgetSpendDelta d")
+    List<Long> findBudgetIds();
+
+    @Query("SELECT d FROM BudgetSpendDelta d WHERE d.budgetId = ?1 ORDER BY d.id")
+    List<BudgetSpendDelta> findByBudgetId(Long budgetId);
+}
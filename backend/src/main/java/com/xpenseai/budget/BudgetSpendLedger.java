@@ -0,0 +1,206 @@
+package com.xpenseai.budget;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.xpenseai.expense.Expense;
+import com.xpenseai.expense.ExpenseChangedEvent;
+import com.xpenseai.expense.ExpensesBulkChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Running spend of every budget in its current period, kept without a SUM over expenses
+ * per write and without all of a shared budget's members updating the same row.
+ *
+ * Each expense change inserts a {@link BudgetSpendDelta} for every budget it counts
+ * towards, in the transaction that writes the expense, so a delta exists exactly when its
+ * expense change has committed. A scheduled flush, on any node, takes the budget's row
+ * lock, adds the deltas that still match the budget to {@link Budget#getRecordedSpent()}
+ * with a single UPDATE and deletes the deltas it read. That update does not touch
+ * {@link Budget#getVersion()}, so flushing never makes the owner's edits fail. Readers
+ * see the recorded spend plus the pending deltas, summed in the same SELECT as the budget.
+ *
+ * Whenever the recorded spend is recomputed from the expenses (period rollover, a member
+ * joining or leaving, bulk changes), it is set to the expenses' sum less the pending
+ * deltas, both read by one statement. An expense committed before that statement is in
+ * the sum and its delta is subtracted; one committed after it is in neither. Either way
+ * the flush that later folds the delta in counts the expense exactly once.
+ */
+@Slf4j
+@Component
+public class BudgetSpendLedger {
+
+    private final BudgetRepository budgetRepository;
+    private final BudgetSpendDeltaRepository budgetSpendDeltaRepository;
+    private final BudgetMemberRepository budgetMemberRepository;
+    private final BudgetAlertService budgetAlertService;
+    private final TransactionTemplate transactionTemplate;
+
+    public BudgetSpendLedger(BudgetRepository budgetRepository, BudgetSpendDeltaRepository budgetSpendDeltaRepository,
+            BudgetMemberRepository budgetMemberRepository, BudgetAlertService budgetAlertService,
+            PlatformTransactionManager transactionManager) {
+        this.budgetRepository = budgetRepository;
+        this.budgetSpendDeltaRepository = budgetSpendDeltaRepository;
+        this.budgetMemberRepository = budgetMemberRepository;
+        this.budgetAlertService = budgetAlertService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Recorded plus pending spend in the budget's current period, as of when it was read.
+     */
+    public double spent(Budget budget) {
+        double recorded = budget.getRecordedSpent() != null ? budget.getRecordedSpent() : 0;
+        long pending = budget.getPendingSpentCents() != null ? budget.getPendingSpentCents() : 0;
+        return round(recorded + pending / 100.0);
+    }
+
+    // Runs in the transaction that writes the expense
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        Expense expense = event.getExpense();
+        if (expense.getCategory() == null) {
+            return;
+        }
+        long cents = Math.round(expense.getAmount() * 100);
+        if (event.getType() == ExpenseChangedEvent.Type.DELETED) {
+            cents = -cents;
+        }
+
+        List<Budget> counted = new ArrayList<>();
+        for (Budget budget : budgetRepository.findAccessibleByUserIdAndCategory(event.getUser().getId(),
+                expense.getCategory())) {
+            // Earlier periods never come back; a later date counts if the budget rolls over before the flush
+            if (budget.getCurrentPeriodStart() == null || expense.getDate().isBefore(budget.getCurrentPeriodStart())) {
+                continue;
+            }
+            budgetSpendDeltaRepository.save(BudgetSpendDelta.builder()
+                    .budgetId(budget.getId())
+                    .userId(event.getUser().getId())
+                    .category(expense.getCategory())
+                    .expenseDate(expense.getDate())
+                    .cents(cents)
+                    .build());
+            if (inCurrentPeriod(budget, expense.getDate())) {
+                counted.add(budget);
+            }
+        }
+        if (!counted.isEmpty()) {
+            afterCommit(counted, cents);
+        }
+    }
+
+    // Runs in the transaction that changed the expenses, which the recomputed sums therefore include
+    @EventListener
+    public void onExpensesBulkChanged(ExpensesBulkChangedEvent event) {
+        if (event.getAffected() == 0) {
+            return;
+        }
+        // Which categories and periods were touched is unknown, so recompute all of the user's budgets
+        budgetRepository.findAccessibleByUserId(event.getUser().getId()).forEach(this::recompute);
+    }
+
+    /**
+     * Sets the budget's recorded spend from the expenses of its owner and members in the
+     * current period, less whatever is pending for them. Holds the budget's row lock until
+     * the caller's transaction ends.
+     */
+    void recompute(Budget budget) {
+        if (budget.getId() != null) {
+            budgetRepository.findByIdForUpdate(budget.getId());
+        }
+        double spent = 0.0;
+        if (budget.getCurrentPeriodStart() != null && budget.getNextResetDate() != null) {
+            spent = budgetRepository.sumSpentLessPending(budget.getId(), budget.getUser().getId(),
+                    budget.getCategory(), budget.getCurrentPeriodStart(), budget.getNextResetDate().minusDays(1));
+        }
+        budget.setRecordedSpent(spent);
+        if (budget.getId() != null) {
+            budgetRepository.setRecordedSpent(budget.getId(), spent);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${xpenseai.budget-spend.flush-interval-ms:1000}")
+    public void flush() {
+        for (Long budgetId : budgetSpendDeltaRepository.findBudgetIds()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> flush(budgetId));
+            } catch (RuntimeException e) {
+                // Nothing was deleted; try again on the next flush
+                log.warn("Flushing the spend of budget {} failed", budgetId, e);
+            }
+        }
+    }
+
+    private void flush(Long budgetId) {
+        // Read under the lock: a flush or recomputation on another node that committed meanwhile is visible
+        Budget budget = budgetRepository.findByIdForUpdate(budgetId).orElse(null);
+        List<BudgetSpendDelta> deltas = budgetSpendDeltaRepository.findByBudgetId(budgetId);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Not yet initialized, the recomputation that initializes it sums the expenses themselves
+        if (budget != null && budget.getRecordedSpent() != null) {
+            Set<Integer> spenders = new HashSet<>(budgetMemberRepository.findUserIdsByBudgetId(budgetId));
+            spenders.add(budget.getUser().getId());
+            long cents = deltas.stream()
+                    .filter(delta -> counts(budget, spenders, delta))
+                    .mapToLong(BudgetSpendDelta::getCents)
+                    .sum();
+            if (cents != 0) {
+                budgetRepository.addRecordedSpent(budgetId, cents / 100.0);
+            }
+        }
+        // By id, so deltas committed after the read above wait for the next flush
+        budgetSpendDeltaRepository.deleteAllByIdInBatch(deltas.stream().map(BudgetSpendDelta::getId).toList());
+    }
+
+    private void afterCommit(List<Budget> budgets, long cents) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishThresholdCrossings(budgets, cents);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publishThresholdCrossings(budgets, cents);
+            }
+        });
+    }
+
+    private void publishThresholdCrossings(List<Budget> budgets, long cents) {
+        for (Budget budget : budgets) {
+            // Measured after committing, so of two concurrent writes only the one that crosses alerts
+            budgetRepository.findSpentById(budget.getId()).ifPresent(spent -> {
+                double after = round(spent);
+                budgetAlertService.publishThresholdCrossing(budget, round(after - cents / 100.0), after);
+            });
+        }
+    }
+
+    private static boolean counts(Budget budget, Set<Integer> spenders, BudgetSpendDelta delta) {
+        return budget.getCategory().equals(delta.getCategory()) && spenders.contains(delta.getUserId())
+                && inCurrentPeriod(budget, delta.getExpenseDate());
+    }
+
+    private static boolean inCurrentPeriod(Budget budget, LocalDate date) {
+        return budget.getCurrentPeriodStart() != null && budget.getNextResetDate() != null
+                && !date.isBefore(budget.getCurrentPeriodStart()) && date.isBefore(budget.getNextResetDate());
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+}
@@ -0,0 +1,191 @@
+package com.xpenseai.config;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+
+/**
+ * A list of rows turned sideways: one array per field instead of one object per row, so
+ * each field name is sent once. String, date and enum columns with few distinct values
+ * (categories, period types, dates shared by many rows) are dictionary-encoded: the
+ * column holds indexes into {@code dictionaries[field]}.
+ *
+ * Columns are written straight from the rows by the property writers of the row type's
+ * Jackson serializer, so field names, ignored properties and value formats are exactly
+ * those of the plain JSON encoding, without serializing the rows twice.
+ */
+final class ColumnarTable implements JsonSerializable {
+
+    private final List<?> rows;
+    private final List<BeanPropertyWriter> columns;
+    // For each dictionary-encoded column: each row's index into the dictionary (-1 for null)
+    // and, per dictionary entry, the first row holding that value
+    private final Map<String, int[]> codes;
+    private final Map<String, List<Object>> dictionaryRows;
+
+    private ColumnarTable(List<?> rows, List<BeanPropertyWriter> columns, Map<String, int[]> codes,
+            Map<String, List<Object>> dictionaryRows) {
+        this.rows = rows;
+        this.columns = columns;
+        this.codes = codes;
+        this.dictionaryRows = dictionaryRows;
+    }
+
+    /**
+     * Returns null unless every element is of one type that Jackson serializes as a bean.
+     */
+    static ColumnarTable of(Collection<?> values, Set<String> fields, ObjectMapper objectMapper) {
+        List<?> rows = new ArrayList<>(values);
+        Class<?> type = rows.isEmpty() || rows.get(0) == null ? null : rows.get(0).getClass();
+        for (Object row : rows) {
+            if (row == null || row.getClass() != type) {
+                return null;
+            }
+        }
+
+        List<BeanPropertyWriter> columns = new ArrayList<>();
+        if (type != null) {
+            JsonSerializer<Object> serializer;
+            try {
+                serializer = objectMapper.getSerializerProviderInstance().findTypedValueSerializer(type, true, null);
+            } catch (JsonMappingException e) {
+                return null;
+            }
+            if (!(serializer instanceof BeanSerializerBase bean)) {
+                return null;
+            }
+            for (Iterator<PropertyWriter> properties = bean.properties(); properties.hasNext();) {
+                if (properties.next() instanceof BeanPropertyWriter writer
+                        && (fields == null || fields.contains(writer.getName()))) {
+                    columns.add(writer);
+                }
+            }
+        }
+
+        Map<String, int[]> codes = new HashMap<>();
+        Map<String, List<Object>> dictionaryRows = new LinkedHashMap<>();
+        for (BeanPropertyWriter column : columns) {
+            if (isDictionaryCandidate(column.getType().getRawClass())) {
+                dictionaryEncode(column, rows, codes, dictionaryRows);
+            }
+        }
+        return new ColumnarTable(rows, columns, codes, dictionaryRows);
+    }
+
+    private static boolean isDictionaryCandidate(Class<?> type) {
+        return type == String.class || type == LocalDate.class || type.isEnum();
+    }
+
+    /**
+     * Records dictionary codes for the column if at most every other row has a value of
+     * its own; otherwise leaves it to be written as plain values.
+     */
+    private static void dictionaryEncode(BeanPropertyWriter column, List<?> rows, Map<String, int[]> codes,
+            Map<String, List<Object>> dictionaryRows) {
+        Map<Object, Integer> indexes = new HashMap<>();
+        List<Object> firstRows = new ArrayList<>();
+        int[] rowCodes = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Object value = get(column, rows.get(i));
+            if (value == null) {
+                rowCodes[i] = -1;
+                continue;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = indexes.size();
+                indexes.put(value, index);
+                firstRows.add(rows.get(i));
+                if (indexes.size() * 2 > rows.size()) {
+                    return;
+                }
+            }
+            rowCodes[i] = index;
+        }
+        codes.put(column.getName(), rowCodes);
+        dictionaryRows.put(column.getName(), firstRows);
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("rows", rows.size());
+
+        gen.writeObjectFieldStart("columns");
+        for (BeanPropertyWriter column : columns) {
+            gen.writeArrayFieldStart(column.getName());
+            int[] rowCodes = codes.get(column.getName());
+            for (int i = 0; i < rows.size(); i++) {
+                if (rowCodes == null) {
+                    writeValue(column, rows.get(i), gen, provider);
+                } else if (rowCodes[i] < 0) {
+                    gen.writeNull();
+                } else {
+                    gen.writeNumber(rowCodes[i]);
+                }
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+
+        gen.writeObjectFieldStart("dictionaries");
+        for (BeanPropertyWriter column : columns) {
+            List<Object> firstRows = dictionaryRows.get(column.getName());
+            if (firstRows == null) {
+                continue;
+            }
+            gen.writeArrayFieldStart(column.getName());
+            for (Object row : firstRows) {
+                writeValue(column, row, gen, provider);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, provider);
+    }
+
+    // Writes the row's value for the column as it would appear in the row's JSON object
+    private static void writeValue(BeanPropertyWriter column, Object row, JsonGenerator gen,
+            SerializerProvider provider) throws IOException {
+        try {
+            column.serializeAsElement(row, gen, provider);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw JsonMappingException.from(gen, "Could not write " + column.getName(), e);
+        }
+    }
+
+    private static Object get(BeanPropertyWriter column, Object row) {
+        try {
+            return column.get(row);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not read " + column.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.xpenseai.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Wraps controllers, services, repositories and the password encoder in Micrometer
+ * observations. Each observation yields a timer (with a percentile histogram, see
+ * {@code management.metrics.distribution}) and, with the tracing bridge on the classpath,
+ * a span nested under the HTTP request span, so a slow request can be broken down into
+ * JWT, BCrypt, service and database time.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class HotPathObservationAspect {
+
+    private final ObservationRegistry observationRegistry;
+
+    @Pointcut("within(com.xpenseai.expense..*) || within(com.xpenseai.budget..*)"
+            + " || within(com.xpenseai.auth..*) || within(com.xpenseai.config..*)")
+    void hotPathPackages() {
+    }
+
+    @Pointcut("@within(org.springframework.web.bind.annotation.RestController)")
+    void controller() {
+    }
+
+    @Pointcut("@within(org.springframework.stereotype.Service)")
+    void service() {
+    }
+
+    @Pointcut("execution(* org.springframework.data.repository.Repository+.*(..))")
+    void repository() {
+    }
+
+    @Pointcut("bean(passwordEncoder)")
+    void passwordEncoder() {
+    }
+
+    @Around("hotPathPackages() && controller()")
+    public Object observeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("xpenseai.controller", joinPoint);
+    }
+
+    @Around("hotPathPackages() && service()")
+    public Object observeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("xpenseai.service", joinPoint);
+    }
+
+    @Around("repository()")
+    public Object observeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("xpenseai.repository", joinPoint);
+    }
+
+    @Around("passwordEncoder()")
+    public Object observePasswordEncoder(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("xpenseai.password.encoder", joinPoint);
+    }
+
+    private Object observe(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        String component = componentName(joinPoint);
+        String operation = ((MethodSignature) joinPoint.getSignature()).getMethod().getName();
+
+        Observation observation = Observation.createNotStarted(name, observationRegistry)
+                .contextualName(component + "." + operation)
+                .lowCardinalityKeyValue("component", component)
+                .lowCardinalityKeyValue("operation", operation)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            Object result = joinPoint.proceed();
+            observation.lowCardinalityKeyValue("outcome", "SUCCESS");
+            return result;
+        } catch (Throwable e) {
+            observation.lowCardinalityKeyValue("outcome", "ERROR");
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private static String componentName(ProceedingJoinPoint joinPoint) {
+        // Repository beans are JDK proxies; name them after the repository interface instead
+        Class<?> type = AopUtils.getTargetClass(joinPoint.getThis());
+        for (Class<?> candidate : type.getInterfaces()) {
+            if (candidate.getName().startsWith("com.xpenseai.")) {
+                return candidate.getSimpleName();
+            }
+        }
+        return type.getSimpleName();
+    }
+}
@@ -0,0 +1,54 @@
+package com.xpenseai.config;
+
+import java.util.stream.Stream;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Reflection the AOT engine cannot see on its own, for GraalVM native images. On the JVM
+ * these hints are unused.
+ *
+ * jjwt 0.11 creates its builder, parser, claims and codecs by class name and finds its JSON
+ * (de)serializer through {@code ServiceLoader}. Hibernate calls the constructors of the
+ * DTOs that JPQL selects into ({@code select new ...} and the statement job's row records)
+ * reflectively; entities and repository projections are covered by Spring Data's AOT support.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String[] JJWT_TYPES = {
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+            "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+
+    private static final String[] JPQL_RESULT_TYPES = {
+            "com.xpenseai.budget.BudgetHistoryView",
+            "com.xpenseai.budget.BudgetMemberView",
+            "com.xpenseai.statement.StatementQueries$UserRow",
+            "com.xpenseai.statement.StatementQueries$ExpenseRow",
+            "com.xpenseai.statement.StatementQueries$CategoryTotal",
+            "com.xpenseai.statement.StatementQueries$BudgetRow"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        Stream.concat(Stream.of(JJWT_TYPES), Stream.of(JPQL_RESULT_TYPES)).forEach(type ->
+                hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS));
+        hints.resources()
+                .registerPattern("META-INF/services/io.jsonwebtoken.io.Serializer")
+                .registerPattern("META-INF/services/io.jsonwebtoken.io.Deserializer")
+                .registerPattern("META-INF/services/io.jsonwebtoken.CompressionCodec");
+    }
+}
@@ -0,0 +1,128 @@
+package com.xpenseai.config;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.xpenseai.user.User;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-user token-bucket rate limiting, so one user's script cannot saturate the database for
+ * everyone else. Endpoints that load a user's whole ledger, search it or write in bulk draw
+ * from a small "expensive" bucket; every other authenticated request draws from a larger
+ * "cheap" one. Rejected requests get 429 with {@code Retry-After}.
+ */
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final RateLimiter cheap;
+    private final RateLimiter expensive;
+
+    @Value("${xpenseai.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    public RateLimitFilter(MeterRegistry meterRegistry,
+            @Value("${xpenseai.rate-limit.cheap.capacity:100}") int cheapCapacity,
+            @Value("${xpenseai.rate-limit.cheap.refill-per-second:20}") double cheapRefill,
+            @Value("${xpenseai.rate-limit.expensive.capacity:10}") int expensiveCapacity,
+            @Value("${xpenseai.rate-limit.expensive.refill-per-second:1}") double expensiveRefill,
+            @Value("${xpenseai.rate-limit.idle-seconds:600}") long idleSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.cheap = new RateLimiter("cheap", cheapCapacity, cheapRefill, idleSeconds);
+        this.expensive = new RateLimiter("expensive", expensiveCapacity, expensiveRefill, idleSeconds);
+        for (RateLimiter limiter : new RateLimiter[] { cheap, expensive }) {
+            Gauge.builder("xpenseai.ratelimit.buckets", limiter, RateLimiter::size)
+                    .tag("class", limiter.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimiter limiter = isExpensive(request) ? expensive : cheap;
+        RateLimiter.Decision decision = limiter.tryAcquire(user.getId());
+        response.setHeader("X-RateLimit-Limit", String.valueOf(limiter.getCapacity()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        meterRegistry.counter("xpenseai.ratelimit.rejected", "class", limiter.getName()).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(decision.retryAfterNanos() + 999_999_999));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":429,\"error\":\"Too many requests\",\"retryAfterSeconds\":"
+                + retryAfterSeconds + "}");
+    }
+
+    /**
+     * Full-ledger reads, search, bulk writes and image uploads; these scale with the size of
+     * the user's data or request.
+     */
+    private static boolean isExpensive(HttpServletRequest request) {
+        String method = request.getMethod();
+        String uri = request.getRequestURI();
+        if ("GET".equals(method)) {
+            return uri.equals("/api/v1/expenses")
+                    || uri.startsWith("/api/v1/expenses/categories/")
+                    || uri.startsWith("/api/v1/expenses/search")
+                    || uri.equals("/api/v1/expenses/debug")
+                    || uri.startsWith("/api/v1/budgets/history")
+                    // A sync from scratch returns the whole ledger; deltas are cheap
+                    || (uri.equals("/api/v1/sync") && isFullSync(request.getParameter("since")));
+        }
+        return "POST".equals(method)
+                && (uri.equals("/api/v1/expenses/batch") || uri.startsWith("/api/v1/expenses/bulk-")
+                        || uri.equals("/api/v1/expenses/search/reindex") || uri.equals("/api/v1/receipts"));
+    }
+
+    private static boolean isFullSync(String since) {
+        return since == null || since.isBlank() || since.trim().equals("0");
+    }
+
+    @Scheduled(fixedDelayString = "${xpenseai.rate-limit.evict-interval-ms:60000}")
+    void evictIdleBuckets() {
+        if (!enabled) {
+            return;
+        }
+        int evicted = cheap.evictIdle() + expensive.evictIdle();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate-limit buckets", evicted);
+        }
+    }
+}
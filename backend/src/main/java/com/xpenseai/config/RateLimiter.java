@@ -0,0 +1,110 @@
+package com.xpenseai.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token buckets for one class of endpoints.
+ *
+ * Each bucket is a single {@link AtomicLong}: the time at which it will be full again
+ * (the generic cell rate algorithm). A request takes a token by moving that time forward
+ * one refill interval with a CAS, which is allowed as long as it stays within
+ * {@code capacity} intervals of now. So acquiring never locks, and a bucket holds no other
+ * state.
+ *
+ * Buckets live in a fixed number of independently swept stripes. A bucket whose full time
+ * has passed is indistinguishable from a new one, so {@link #evictIdle} can drop it without
+ * giving its user extra tokens.
+ */
+final class RateLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final String name;
+    private final int capacity;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final long idleNanos;
+    private final ConcurrentHashMap<Integer, AtomicLong>[] stripes;
+    private final LongSupplier nanoClock;
+
+    RateLimiter(String name, int capacity, double refillPerSecond, long idleSeconds) {
+        this(name, capacity, refillPerSecond, idleSeconds, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    RateLimiter(String name, int capacity, double refillPerSecond, long idleSeconds, LongSupplier nanoClock) {
+        this.name = name;
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.burstNanos = intervalNanos * capacity;
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Outcome of one acquire: {@code retryAfterNanos} is zero when the request was allowed.
+     */
+    record Decision(boolean allowed, long remaining, long retryAfterNanos) {
+    }
+
+    Decision tryAcquire(Integer key) {
+        AtomicLong bucket = stripe(key).computeIfAbsent(key, k -> new AtomicLong(nanoClock.getAsLong()));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long fullAt = bucket.get();
+            long next = (fullAt - now > 0 ? fullAt : now) + intervalNanos;
+            long wait = next - burstNanos - now;
+            if (wait > 0) {
+                return new Decision(false, 0, wait);
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return new Decision(true, (now + burstNanos - next) / intervalNanos, 0);
+            }
+        }
+    }
+
+    /**
+     * Removes buckets that have refilled completely and stayed untouched for the idle period.
+     */
+    int evictIdle() {
+        long cutoff = nanoClock.getAsLong() - idleNanos;
+        int evicted = 0;
+        for (ConcurrentHashMap<Integer, AtomicLong> stripe : stripes) {
+            for (var entry : stripe.entrySet()) {
+                // A request racing with the removal gets at most one token for free
+                if (entry.getValue().get() - cutoff < 0 && stripe.remove(entry.getKey(), entry.getValue())) {
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    int size() {
+        int size = 0;
+        for (ConcurrentHashMap<Integer, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    private ConcurrentHashMap<Integer, AtomicLong> stripe(Integer key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,47 @@
+package com.xpenseai.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Read replicas under {@code xpenseai.datasource}. Routing is only enabled when at least one
+ * replica URL is configured; the primary is always {@code spring.datasource}.
+ */
+@Data
+@ConfigurationProperties(prefix = "xpenseai.datasource")
+public class ReadReplicaProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // Replicas further behind than this are skipped until they catch up
+    private long maxLagMs = 5000;
+
+    // After a user's own write, their reads stay on the primary for this long
+    private long readYourWritesMs = 5000;
+
+    private long lagCheckIntervalMs = 2000;
+
+    // Must return the replica's lag in milliseconds; the default is for Postgres streaming
+    // replication and reports 0 when all received WAL has been replayed, so an idle primary
+    // does not look like lag
+    private String lagQuery = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+            + "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end";
+
+    // Only read-only transactions started by these classes go to a replica; read-only
+    // repository calls made elsewhere (e.g. the JWT filter's user lookup) stay on the primary
+    private List<String> replicaReaders = new ArrayList<>(List.of(
+            "com.xpenseai.expense.ExpenseService",
+            "com.xpenseai.budget.BudgetService"));
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
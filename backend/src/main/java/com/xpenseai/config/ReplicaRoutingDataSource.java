@@ -0,0 +1,176 @@
+package com.xpenseai.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.xpenseai.user.User;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends read-only transactions of the configured reader services to a replica and
+ * everything else to the primary.
+ *
+ * A replica is used only while its last lag probe succeeded and reported less than
+ * {@code maxLagMs}; otherwise reads fall back to the primary. A user's reads also stay on
+ * the primary for {@code readYourWritesMs} after a transaction of theirs wrote, so they
+ * always see their own changes. Must sit behind a LazyConnectionDataSourceProxy: the
+ * transaction's read-only flag is only known once it has begun, after the transaction
+ * manager would otherwise have fetched a connection.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReadReplicaProperties properties;
+    private final List<ReplicaState> replicas = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<Integer, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicaDataSources,
+            ReadReplicaProperties properties) {
+        this.properties = properties;
+        Map<Object, Object> targets = new HashMap<>(replicaDataSources);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        replicaDataSources.forEach((key, dataSource) -> replicas.add(new ReplicaState(key, dataSource)));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicaLag();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                recordWrite(currentUserId());
+            }
+            return PRIMARY;
+        }
+        if (!isReplicaReader(TransactionSynchronizationManager.getCurrentTransactionName())) {
+            return PRIMARY;
+        }
+        Integer userId = currentUserId();
+        if (userId != null) {
+            Long lastWrite = lastWriteByUser.get(userId);
+            if (lastWrite != null && System.currentTimeMillis() - lastWrite < properties.getReadYourWritesMs()) {
+                return PRIMARY;
+            }
+        }
+
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaState replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica.key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Probes every replica's lag and prunes expired read-your-writes entries.
+     */
+    @Scheduled(fixedDelayString = "${xpenseai.datasource.lag-check-interval-ms:2000}")
+    public void checkReplicaLag() {
+        for (ReplicaState replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet result = statement.executeQuery(properties.getLagQuery())) {
+                replica.lagMs = result.next() ? result.getLong(1) : Long.MAX_VALUE;
+                replica.healthy = replica.lagMs <= properties.getMaxLagMs();
+            } catch (Exception e) {
+                replica.lagMs = Long.MAX_VALUE;
+                replica.healthy = false;
+                if (wasHealthy) {
+                    log.warn("Replica {} lag check failed, reading from primary: {}", replica.key, e.getMessage());
+                }
+            }
+            if (wasHealthy && !replica.healthy && replica.lagMs != Long.MAX_VALUE) {
+                log.warn("Replica {} is {} ms behind, reading from primary", replica.key, replica.lagMs);
+            } else if (!wasHealthy && replica.healthy) {
+                log.info("Replica {} is available ({} ms behind)", replica.key, replica.lagMs);
+            }
+        }
+
+        long cutoff = System.currentTimeMillis() - properties.getReadYourWritesMs();
+        lastWriteByUser.values().removeIf(lastWrite -> lastWrite < cutoff);
+    }
+
+    /**
+     * Closes the replica pools; the primary is a bean of its own and closed by the container.
+     */
+    public void close() throws Exception {
+        for (ReplicaState replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void recordWrite(Integer userId) {
+        if (userId == null) {
+            return;
+        }
+        lastWriteByUser.put(userId, System.currentTimeMillis());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Restart the window at commit, in case the transaction ran for a while
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastWriteByUser.put(userId, System.currentTimeMillis());
+                }
+            });
+        }
+    }
+
+    private boolean isReplicaReader(String transactionName) {
+        if (transactionName == null) {
+            return false;
+        }
+        int lastDot = transactionName.lastIndexOf('.');
+        return lastDot > 0 && properties.getReplicaReaders().contains(transactionName.substring(0, lastDot));
+    }
+
+    private static Integer currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    private static final class ReplicaState {
+        final String key;
+        final DataSource dataSource;
+        volatile boolean healthy;
+        volatile long lagMs = Long.MAX_VALUE;
+
+        ReplicaState(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.xpenseai.config;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Shapes list responses written by any of the Jackson converters (JSON, CBOR, Smile):
+ * {@code ?fields=id,amount,date} keeps only the named properties of each row, and a
+ * request that accepts {@link #COLUMNAR_JSON} gets the list as a {@link ColumnarTable}.
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class ResponseEncodingAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    public static final MediaType COLUMNAR_JSON = MediaType.parseMediaType("application/vnd.xpenseai.columnar+json");
+
+    static final String FIELDS_FILTER = "fields";
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+            MethodParameter returnType, ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(bodyContainer.getValue() instanceof Collection<?> rows)) {
+            return;
+        }
+
+        Set<String> fields = fields(request);
+        if (COLUMNAR_JSON.equalsTypeAndSubtype(contentType)) {
+            ColumnarTable table = ColumnarTable.of(rows, fields, objectMapper);
+            if (table != null) {
+                bodyContainer.setValue(table);
+                return;
+            }
+        }
+        if (fields != null) {
+            bodyContainer.setFilters(new SimpleFilterProvider()
+                    .addFilter(FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        }
+    }
+
+    private static Set<String> fields(ServerHttpRequest request) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return null;
+        }
+        String fields = servletRequest.getServletRequest().getParameter("fields");
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -0,0 +1,53 @@
+package com.xpenseai.config;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.xpenseai.budget.Budget;
+import com.xpenseai.budget.BudgetHistoryView;
+import com.xpenseai.expense.Expense;
+
+/**
+ * Binary encodings for API responses, selected with the Accept header:
+ * {@code application/cbor} and {@code application/x-jackson-smile}. Both are built from
+ * the same Jackson configuration as the JSON converter, so they carry the same fields and
+ * honour {@code ?fields=} (see {@link ResponseEncodingAdvice}).
+ */
+@Configuration
+public class ResponseEncodingConfiguration {
+
+    /**
+     * Marks the row types that {@code ?fields=} applies to. Without a filter for the
+     * request, every property is written.
+     */
+    @JsonFilter(ResponseEncodingAdvice.FIELDS_FILTER)
+    interface FieldSelectable {
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSelectionCustomizer() {
+        return builder -> builder
+                .mixIn(Expense.class, FieldSelectable.class)
+                .mixIn(Budget.class, FieldSelectable.class)
+                .mixIn(BudgetHistoryView.class, FieldSelectable.class)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,31 @@
+package com.xpenseai.config;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ends a run with the {@code migrate} profile once the context is up, i.e. once Flyway has
+ * migrated the schema and Hibernate has validated the mappings against it. Serving pods
+ * then skip both steps at boot.
+ */
+@Slf4j
+@Component
+@Profile("migrate")
+@RequiredArgsConstructor
+public class SchemaMigrationRunner implements ApplicationRunner {
+
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Schema migrated and validated; exiting");
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -2,6 +2,7 @@ package com.xpenseai.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -12,6 +13,11 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.xpenseai.idempotency.IdempotencyFilter;
+import com.xpenseai.user.Role;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import java.util.Arrays;
 
@@ -21,7 +27,11 @@ import java.util.Arrays;
 public class SecurityConfiguration {
 
         private final JwtAuthenticationFilter jwtAuthFilter;
+        private final SlowRequestSamplingFilter slowRequestSamplingFilter;
+        private final RateLimitFilter rateLimitFilter;
+        private final IdempotencyFilter idempotencyFilter;
         private final AuthenticationProvider authenticationProvider;
+        private final Environment environment;
 
         @Bean
         public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -31,15 +41,34 @@ public class SecurityConfiguration {
                                 .authorizeHttpRequests(authz -> authz
                                                 .requestMatchers("/api/v1/auth/**").permitAll() // Allow all auth
                                                                                                 // endpoints
+                                                .requestMatchers("/actuator/health").permitAll()
+                                                // Scrapers reach /actuator/prometheus on the internal management port
+                                                .requestMatchers(this::onManagementPort).permitAll()
+                                                // Metrics expose per-endpoint traffic; elsewhere only admins see them
+                                                .requestMatchers("/actuator/**").hasAuthority(Role.ADMIN.name())
+                                                // Re-dispatches of already-authorized async (SSE) requests
+                                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                                 .anyRequest().authenticated())
                                 .sessionManagement(session -> session
                                                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                                 .authenticationProvider(authenticationProvider)
-                                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                                // Outside the JWT filter so token verification counts towards request time
+                                .addFilterBefore(slowRequestSamplingFilter, JwtAuthenticationFilter.class)
+                                // Buckets are per user, so this needs the authenticated user
+                                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
+                                // Needs the authenticated user: stored responses are scoped per user
+                                .addFilterAfter(idempotencyFilter, RateLimitFilter.class);
 
                 return http.build();
         }
 
+        // Only set when actuator runs on a port of its own (management.server.port, as in prod)
+        private boolean onManagementPort(HttpServletRequest request) {
+                Integer port = environment.getProperty("local.management.port", Integer.class);
+                return port != null && port == request.getLocalPort();
+        }
+
         @Bean
         public CorsConfigurationSource corsConfigurationSource() {
                 CorsConfiguration configuration = new CorsConfiguration();
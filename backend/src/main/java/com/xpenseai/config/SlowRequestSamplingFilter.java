@@ -0,0 +1,94 @@
+package com.xpenseai.config;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.xpenseai.user.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts requests slower than {@code xpenseai.metrics.slow-request-ms} and logs a sample of
+ * them, at most one per user per sampling window, so a single noisy user cannot flood the log.
+ * The log line carries the trace id, which links it to the per-layer spans. Users whose
+ * window has passed are evicted periodically, so the map only holds recently slow users.
+ */
+@Slf4j
+@Component
+public class SlowRequestSamplingFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Integer, Long> lastSampleByUser = new ConcurrentHashMap<>();
+
+    @Value("${xpenseai.metrics.slow-request-ms:500}")
+    private long slowRequestMs;
+
+    @Value("${xpenseai.metrics.slow-request-sample-window-ms:10000}")
+    private long sampleWindowMs;
+
+    public SlowRequestSamplingFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMs >= slowRequestMs) {
+                recordSlowRequest(request, response, elapsedMs);
+            }
+        }
+    }
+
+    private void recordSlowRequest(HttpServletRequest request, HttpServletResponse response, long elapsedMs) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        meterRegistry.counter("xpenseai.http.slow.requests", "method", request.getMethod(), "uri", uri).increment();
+
+        // Still populated: the security context is only cleared once the whole filter chain unwinds
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Integer userId = authentication != null && authentication.getPrincipal() instanceof User user
+                ? user.getId()
+                : null;
+
+        long now = System.currentTimeMillis();
+        if (userId != null) {
+            Long previous = lastSampleByUser.get(userId);
+            if (previous != null && now - previous < sampleWindowMs) {
+                return;
+            }
+            lastSampleByUser.put(userId, now);
+        }
+
+        log.warn("Slow request: {} {} took {} ms (status={}, user={})",
+                request.getMethod(), uri, elapsedMs, response.getStatus(), userId);
+    }
+
+    // An entry older than the window no longer suppresses anything, so dropping it changes nothing
+    @Scheduled(fixedDelayString = "${xpenseai.metrics.slow-request-evict-interval-ms:60000}")
+    void evictStaleSamples() {
+        long cutoff = System.currentTimeMillis() - sampleWindowMs;
+        lastSampleByUser.values().removeIf(sampledAt -> sampledAt < cutoff);
+    }
+}
@@ -0,0 +1,37 @@
+package com.xpenseai.expense;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The latest change to an expense that lives in the {@link ExpenseArchive}. Archived rows
+ * have no change version or tombstone of their own, so delta sync reads their updates and
+ * deletes from here.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "expense_archive_changes")
+public class ArchivedExpenseChange {
+
+    @Id
+    @Column(name = "expense_id")
+    private Long expenseId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion;
+
+    @Column(nullable = false)
+    private boolean deleted;
+}
@@ -0,0 +1,13 @@
+package com.xpenseai.expense;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface ArchivedExpenseChangeRepository extends JpaRepository<ArchivedExpenseChange, Long> {
+
+    @Query("SELECT c FROM ArchivedExpenseChange c WHERE c.userId = ?1 AND c.changeVersion > ?2 "
+            + "AND c.changeVersion <= ?3 ORDER BY c.expenseId")
+    List<ArchivedExpenseChange> findChangedByUserId(Integer userId, long afterVersion, long upToVersion);
+}
@@ -7,6 +7,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.xpenseai.user.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -16,7 +18,8 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "expenses")
+@SQLRestriction("deleted = false")
+@Table(name = "expenses", uniqueConstraints = @UniqueConstraint(columnNames = { "user_id", "ingest_key" }))
 public class Expense {
 
     @Id
@@ -37,6 +40,29 @@ public class Expense {
     @Column(name = "created_at")
     private LocalDateTime createdAt; // This is when the record was created in the system
 
+    // Client-supplied idempotency key for expenses that came in through the async ingest log
+    @Column(name = "ingest_key", length = 64)
+    @JsonIgnore
+    private String ingestKey;
+
+    // Per-user change version of the last write to this row (see ChangeVersions)
+    @Column(name = "change_version", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    @JsonIgnore
+    private Long changeVersion = 0L;
+
+    // Deleted rows stay behind as tombstones so clients syncing by version see the delete
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    @Builder.Default
+    @JsonIgnore
+    private boolean deleted = false;
+
+    // Receipt image this expense was scanned from, if any (see ReceiptStore)
+    @Column(name = "receipt_id")
+    private Long receiptId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
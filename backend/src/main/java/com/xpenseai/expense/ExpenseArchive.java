@@ -0,0 +1,501 @@
+package com.xpenseai.expense;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.xpenseai.user.User;
+import com.xpenseai.user.UserRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cold tier for expenses: per user and year, {@link ExpenseSegment}s under
+ * {@code xpenseai.archive.directory}. The compaction job moves whole years that are older
+ * than the configured horizon out of the {@code expenses} table into segments; readers
+ * merge segment rows with the hot rows from the database. Updates and deletes of archived
+ * rows are stamped in {@link ArchivedExpenseChange} so delta sync sees them.
+ *
+ * The directory must be storage that every node mounts. Each rewrite of a user's archive
+ * bumps {@link User#getArchiveGeneration()} in the transaction that makes it (for
+ * compaction, the one that deletes the hot rows), under that row's lock, so rewrites of
+ * one user are ordered across nodes. It writes the changed years as new files named
+ * {@code <year>.<generation>.seg}, fsyncs them and a {@code <generation>.gen} marker, and
+ * only then lets the transaction commit. A node whose copy of a user's archive is older
+ * than the generation on the user row reloads it, taking the newest file of each year up
+ * to that generation. If the marker is missing, the directory is not shared and the read
+ * fails instead of silently leaving rows out. Superseded files are pruned by the
+ * compaction job once they have been superseded for an hour.
+ */
+@Slf4j
+@Component
+public class ExpenseArchive {
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+    private static final long PRUNE_AFTER_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final Pattern SEGMENT_FILE = Pattern.compile("(\\d+)\\.(\\d+)\\.seg");
+    private static final Pattern MARKER_FILE = Pattern.compile("(\\d+)\\.gen");
+
+    private final ExpenseRepository expenseRepository;
+    private final ArchivedExpenseChangeRepository archivedExpenseChangeRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${xpenseai.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${xpenseai.archive.directory:./data/archive}")
+    private String directory;
+
+    @Value("${xpenseai.archive.horizon-months:24}")
+    private int horizonMonths;
+
+    // userId -> the user's segments as of one generation; users never archived are not looked up on disk at all
+    private final Map<Integer, UserArchive> archives = new ConcurrentHashMap<>();
+    private final Map<Integer, Object> userLocks = new ConcurrentHashMap<>();
+
+    public ExpenseArchive(ExpenseRepository expenseRepository,
+            ArchivedExpenseChangeRepository archivedExpenseChangeRepository, UserRepository userRepository,
+            PlatformTransactionManager transactionManager) {
+        this.expenseRepository = expenseRepository;
+        this.archivedExpenseChangeRepository = archivedExpenseChangeRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean hasArchivedExpenses(User user) {
+        return !segments(user).isEmpty();
+    }
+
+    /**
+     * Archived expenses for the user, optionally limited to a date range and category.
+     */
+    public List<Expense> findExpenses(User user, LocalDate startDate, LocalDate endDate, String category) {
+        NavigableMap<Integer, ExpenseSegment> userSegments = segments(user);
+        if (userSegments.isEmpty()) {
+            return List.of();
+        }
+
+        Collection<ExpenseSegment> candidates = userSegments.subMap(
+                startDate != null ? startDate.getYear() : Integer.MIN_VALUE, true,
+                endDate != null ? endDate.getYear() : Integer.MAX_VALUE, true).values();
+
+        List<Expense> result = new ArrayList<>();
+        for (ExpenseSegment segment : candidates) {
+            for (Expense expense : segment.readAll()) {
+                if ((startDate == null || !expense.getDate().isBefore(startDate))
+                        && (endDate == null || !expense.getDate().isAfter(endDate))
+                        && (category == null || category.equals(expense.getCategory()))) {
+                    result.add(expense);
+                }
+            }
+        }
+        return result;
+    }
+
+    public List<Expense> findExpensesByIds(User user, Set<Long> ids) {
+        if (ids.isEmpty() || !hasArchivedExpenses(user)) {
+            return List.of();
+        }
+        return findExpenses(user, null, null, null).stream()
+                .filter(expense -> ids.contains(expense.getId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Per-category totals for archived expenses dated within the range, computed from the
+     * date, amount and category columns only.
+     */
+    public Map<String, Double> sumByCategory(User user, LocalDate startDate, LocalDate endDate) {
+        Map<String, Double> totals = new HashMap<>();
+        for (ExpenseSegment segment : segments(user).subMap(startDate.getYear(), true, endDate.getYear(), true)
+                .values()) {
+            segment.sumByCategory(startDate.toEpochDay(), endDate.toEpochDay())
+                    .forEach((category, sum) -> totals.merge(category, sum, Double::sum));
+        }
+        return totals;
+    }
+
+    /**
+     * Visits every archived expense of every user; used to rebuild derived in-memory views.
+     */
+    public void forEachExpense(BiConsumer<Integer, Expense> consumer) {
+        for (User user : userRepository.findWithArchive()) {
+            segments(user).values()
+                    .forEach(segment -> segment.readAll().forEach(expense -> consumer.accept(user.getId(), expense)));
+        }
+    }
+
+    /**
+     * Removes an archived expense by rewriting its segment without it, leaving a tombstone
+     * at {@code changeVersion}. Must run in the caller's transaction.
+     */
+    public Optional<Expense> deleteExpense(User user, Long expenseId, long changeVersion) {
+        if (!hasArchivedExpenses(user)) {
+            return Optional.empty();
+        }
+        Rewrite rewrite = beginRewrite(user.getId());
+        for (Map.Entry<Integer, ExpenseSegment> entry : rewrite.segments.entrySet()) {
+            List<Expense> rows = entry.getValue().readAll();
+            Optional<Expense> match = rows.stream().filter(e -> e.getId().equals(expenseId)).findFirst();
+            if (match.isPresent()) {
+                rows.remove(match.get());
+                rewrite.replace(entry.getKey(), rows);
+                rewrite.finish();
+                recordChanges(user.getId(), List.of(expenseId), changeVersion, true);
+                return match;
+            }
+        }
+        rewrite.finish();
+        return Optional.empty();
+    }
+
+    /**
+     * Removes every archived expense of the user that matches, rewriting only the segments
+     * that contain one and leaving tombstones at {@code changeVersion}. Returns the number
+     * removed. Must run in the caller's transaction.
+     */
+    public int deleteMatching(User user, Predicate<Expense> filter, long changeVersion) {
+        return rewriteMatching(user, filter, null, changeVersion);
+    }
+
+    /**
+     * Applies {@code change} to every archived expense of the user that matches, stamping
+     * them with {@code changeVersion}. Returns the number changed. Must run in the caller's
+     * transaction.
+     */
+    public int updateMatching(User user, Predicate<Expense> filter, Consumer<Expense> change,
+            long changeVersion) {
+        return rewriteMatching(user, filter, change, changeVersion);
+    }
+
+    private int rewriteMatching(User user, Predicate<Expense> filter, Consumer<Expense> change,
+            long changeVersion) {
+        if (!hasArchivedExpenses(user)) {
+            return 0;
+        }
+        Rewrite rewrite = beginRewrite(user.getId());
+        List<Long> affected = new ArrayList<>();
+        for (Map.Entry<Integer, ExpenseSegment> entry : new ArrayList<>(rewrite.segments.entrySet())) {
+            List<Expense> rows = entry.getValue().readAll();
+            List<Expense> kept = new ArrayList<>(rows.size());
+            List<Long> matched = new ArrayList<>();
+            for (Expense expense : rows) {
+                if (!filter.test(expense)) {
+                    kept.add(expense);
+                    continue;
+                }
+                matched.add(expense.getId());
+                if (change != null) {
+                    change.accept(expense);
+                    kept.add(expense);
+                }
+            }
+            if (!matched.isEmpty()) {
+                rewrite.replace(entry.getKey(), kept);
+                affected.addAll(matched);
+            }
+        }
+        rewrite.finish();
+        recordChanges(user.getId(), affected, changeVersion, change == null);
+        return affected.size();
+    }
+
+    @Scheduled(cron = "${xpenseai.archive.cron:0 0 3 * * *}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        // Only whole years are archived so a year's segment is written once and rarely rewritten
+        LocalDate cutoff = LocalDate.now().minusMonths(Math.max(horizonMonths, 12)).withDayOfYear(1);
+        for (Integer userId : expenseRepository.findUserIdsWithExpensesBefore(cutoff)) {
+            compactUser(userId, cutoff);
+        }
+        for (User user : userRepository.findWithArchive()) {
+            prune(user.getId(), user.getArchiveGeneration());
+        }
+    }
+
+    /**
+     * Moves the user's hot rows dated before the cutoff into segments and deletes them, in
+     * one transaction. Runs on whichever node's schedule fires; a node that gets the user's
+     * lock after another has compacted it finds no hot rows left.
+     */
+    void compactUser(Integer userId, LocalDate cutoff) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Rewrite rewrite = beginRewrite(userId);
+            Map<Integer, List<Expense>> hotByYear = expenseRepository.findByUserIdAndDateBefore(userId, cutoff)
+                    .stream()
+                    .collect(Collectors.groupingBy(expense -> expense.getDate().getYear()));
+
+            List<Long> ids = new ArrayList<>();
+            hotByYear.forEach((year, hot) -> {
+                // Merge with what is already archived; hot rows win, as they are the ones being moved
+                Set<Long> hotIds = hot.stream().map(Expense::getId).collect(Collectors.toSet());
+                List<Expense> merged = new ArrayList<>(hot);
+                ExpenseSegment existing = rewrite.segments.get(year);
+                if (existing != null) {
+                    existing.readAll().stream().filter(e -> !hotIds.contains(e.getId())).forEach(merged::add);
+                }
+                rewrite.replace(year, merged);
+                ids.addAll(hotIds);
+            });
+            // Durable where every node reads before any hot row goes away
+            rewrite.finish();
+
+            for (int i = 0; i < ids.size(); i += DELETE_BATCH_SIZE) {
+                expenseRepository.deleteAllByIdInBatch(ids.subList(i, Math.min(i + DELETE_BATCH_SIZE, ids.size())));
+            }
+        });
+    }
+
+    private void recordChanges(Integer userId, List<Long> expenseIds, long changeVersion, boolean deleted) {
+        archivedExpenseChangeRepository.saveAll(expenseIds.stream()
+                .map(id -> ArchivedExpenseChange.builder()
+                        .expenseId(id)
+                        .userId(userId)
+                        .changeVersion(changeVersion)
+                        .deleted(deleted)
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    private NavigableMap<Integer, ExpenseSegment> segments(User user) {
+        return segments(user.getId(), user.getArchiveGeneration() != null ? user.getArchiveGeneration() : 0);
+    }
+
+    /**
+     * The user's segments as of at least {@code generation}, reloaded from the directory if
+     * this node has only seen an older one.
+     */
+    private NavigableMap<Integer, ExpenseSegment> segments(Integer userId, long generation) {
+        UserArchive archive = archives.get(userId);
+        if (archive != null && archive.generation() >= generation) {
+            return archive.segments();
+        }
+        if (generation == 0) {
+            return Collections.emptyNavigableMap();
+        }
+        synchronized (userLock(userId)) {
+            archive = archives.get(userId);
+            if (archive == null || archive.generation() < generation) {
+                archive = install(userId, load(userId, generation));
+            }
+            return archive.segments();
+        }
+    }
+
+    private UserArchive load(Integer userId, long generation) {
+        Path userDir = userDirectory(userId);
+        if (!Files.exists(userDir.resolve(generation + ".gen"))) {
+            throw new IllegalStateException("Archive generation " + generation + " of user " + userId
+                    + " is not in " + userDir + "; xpenseai.archive.directory must be shared by every node");
+        }
+        Map<Integer, Path> newest = new HashMap<>();
+        Map<Integer, Long> newestGeneration = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(userDir, "*.seg")) {
+            for (Path file : files) {
+                Matcher name = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (!name.matches() || Long.parseLong(name.group(2)) > generation) {
+                    continue;
+                }
+                Integer year = Integer.valueOf(name.group(1));
+                long fileGeneration = Long.parseLong(name.group(2));
+                if (fileGeneration > newestGeneration.getOrDefault(year, -1L)) {
+                    newest.put(year, file);
+                    newestGeneration.put(year, fileGeneration);
+                }
+            }
+            NavigableMap<Integer, ExpenseSegment> segments = new TreeMap<>();
+            for (Map.Entry<Integer, Path> entry : newest.entrySet()) {
+                ExpenseSegment segment = ExpenseSegment.open(entry.getValue());
+                // An empty file stands for a year whose rows were all deleted
+                if (segment.getRowCount() > 0) {
+                    segments.put(entry.getKey(), segment);
+                }
+            }
+            return new UserArchive(generation, Collections.unmodifiableNavigableMap(segments));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load the archive of user " + userId, e);
+        }
+    }
+
+    // Keeps whichever of the installed and the given archive is newer
+    private UserArchive install(Integer userId, UserArchive archive) {
+        return archives.merge(userId, archive, (current, given) ->
+                given.generation() > current.generation() ? given : current);
+    }
+
+    /**
+     * Bumps the user's archive generation, which locks the user's row until the caller's
+     * transaction ends, and starts from their segments as of the previous generation.
+     */
+    private Rewrite beginRewrite(Integer userId) {
+        userRepository.incrementArchiveGeneration(userId);
+        long generation = userRepository.findArchiveGeneration(userId);
+        Rewrite rewrite = new Rewrite(userId, generation, new TreeMap<>(segments(userId, generation - 1)));
+        // Left behind by a rewrite at this generation that rolled back
+        deleteFiles(userId, file -> file.equals(generation + ".gen") || file.endsWith("." + generation + ".seg"));
+        return rewrite;
+    }
+
+    /**
+     * Deletes files of generations that have been superseded for a while; a node still
+     * reading one has it mapped, which keeps its contents readable.
+     */
+    private void prune(Integer userId, long generation) {
+        Map<Integer, TreeMap<Long, Path>> byYear = new HashMap<>();
+        List<Path> markers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(userDirectory(userId))) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher segment = SEGMENT_FILE.matcher(name);
+                Matcher marker = MARKER_FILE.matcher(name);
+                if (segment.matches() && Long.parseLong(segment.group(2)) <= generation) {
+                    byYear.computeIfAbsent(Integer.valueOf(segment.group(1)), year -> new TreeMap<>())
+                            .put(Long.parseLong(segment.group(2)), file);
+                } else if (marker.matches() && Long.parseLong(marker.group(1)) < generation) {
+                    markers.add(file);
+                }
+            }
+            long cutoff = System.currentTimeMillis() - PRUNE_AFTER_MILLIS;
+            for (TreeMap<Long, Path> generations : byYear.values()) {
+                Path newest = generations.lastEntry().getValue();
+                if (Files.getLastModifiedTime(newest).toMillis() >= cutoff) {
+                    continue;
+                }
+                for (Path superseded : generations.headMap(generations.lastKey()).values()) {
+                    Files.deleteIfExists(superseded);
+                }
+                if (ExpenseSegment.open(newest).getRowCount() == 0) {
+                    Files.deleteIfExists(newest);
+                }
+            }
+            for (Path marker : markers) {
+                if (Files.getLastModifiedTime(marker).toMillis() < cutoff) {
+                    Files.deleteIfExists(marker);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Nothing written on this storage yet
+        } catch (IOException e) {
+            log.warn("Pruning the archive of user {} failed", userId, e);
+        }
+    }
+
+    private void deleteFiles(Integer userId, Predicate<String> names) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(userDirectory(userId),
+                file -> names.test(file.getFileName().toString()))) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (NoSuchFileException e) {
+            // No directory, so nothing to delete
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clean up the archive of user " + userId, e);
+        }
+    }
+
+    private Path userDirectory(Integer userId) {
+        return Paths.get(directory, String.valueOf(userId));
+    }
+
+    private Object userLock(Integer userId) {
+        return userLocks.computeIfAbsent(userId, id -> new Object());
+    }
+
+    private record UserArchive(long generation, NavigableMap<Integer, ExpenseSegment> segments) {
+    }
+
+    /**
+     * One generation of a user's archive being written. Nothing is visible to readers until
+     * {@link #finish} has made the files durable and the caller's transaction commits.
+     */
+    private final class Rewrite {
+
+        private final Integer userId;
+        private final long generation;
+        private final NavigableMap<Integer, ExpenseSegment> segments;
+
+        private Rewrite(Integer userId, long generation, NavigableMap<Integer, ExpenseSegment> segments) {
+            this.userId = userId;
+            this.generation = generation;
+            this.segments = segments;
+        }
+
+        private void replace(Integer year, List<Expense> rows) {
+            Path path = userDirectory(userId).resolve(year + "." + generation + ".seg");
+            try {
+                Files.createDirectories(path.getParent());
+                ExpenseSegment.write(path, rows);
+                if (rows.isEmpty()) {
+                    segments.remove(year);
+                } else {
+                    segments.put(year, ExpenseSegment.open(path));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write expense segment " + path, e);
+            }
+        }
+
+        private void finish() {
+            Path userDir = userDirectory(userId);
+            try {
+                Files.createDirectories(userDir);
+                Path marker = userDir.resolve(generation + ".gen");
+                Files.deleteIfExists(marker);
+                Files.createFile(marker);
+                // Makes the new names, and the marker last of all, durable
+                try (FileChannel channel = FileChannel.open(userDir, StandardOpenOption.READ)) {
+                    channel.force(true);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write archive generation " + generation, e);
+            }
+            UserArchive archive = new UserArchive(generation, Collections.unmodifiableNavigableMap(segments));
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        install(userId, archive);
+                    }
+                });
+            } else {
+                install(userId, archive);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.xpenseai.expense;
+
+/**
+ * Set-based statements over a user's expenses, selected by an {@link ExpenseBulkRequest}.
+ */
+public interface ExpenseBulkRepository {
+
+    /**
+     * Turns the matching expenses into tombstones stamped with {@code changeVersion}.
+     */
+    int deleteMatching(Integer userId, ExpenseBulkRequest filter, long changeVersion);
+
+    int updateCategoryMatching(Integer userId, ExpenseBulkRequest filter, String category, long changeVersion);
+}
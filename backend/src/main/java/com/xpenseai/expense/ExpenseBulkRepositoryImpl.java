@@ -0,0 +1,73 @@
+package com.xpenseai.expense;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Builds one UPDATE per call with the Criteria API, so the statement only contains the
+ * criteria that were actually given. Rows are never loaded. Deletes are soft: they mark
+ * the rows as tombstones for delta sync.
+ */
+class ExpenseBulkRepositoryImpl implements ExpenseBulkRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int deleteMatching(Integer userId, ExpenseBulkRequest filter, long changeVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Expense> update = cb.createCriteriaUpdate(Expense.class);
+        Root<Expense> root = update.from(Expense.class);
+        update.set(root.<Boolean>get("deleted"), true);
+        update.set(root.<Long>get("changeVersion"), changeVersion);
+        update.where(predicates(cb, root, userId, filter));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int updateCategoryMatching(Integer userId, ExpenseBulkRequest filter, String category,
+            long changeVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Expense> update = cb.createCriteriaUpdate(Expense.class);
+        Root<Expense> root = update.from(Expense.class);
+        update.set(root.<String>get("category"), category);
+        update.set(root.<Long>get("changeVersion"), changeVersion);
+        update.where(predicates(cb, root, userId, filter));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder cb, Root<Expense> root, Integer userId,
+            ExpenseBulkRequest filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("user").get("id"), userId));
+        predicates.add(cb.isFalse(root.get("deleted")));
+        if (filter.getIds() != null && !filter.getIds().isEmpty()) {
+            predicates.add(root.get("id").in(filter.getIds()));
+        }
+        if (filter.getDescriptionContains() != null && !filter.getDescriptionContains().isBlank()) {
+            String pattern = "%" + escapeLike(filter.getDescriptionContains().toLowerCase()) + "%";
+            predicates.add(cb.like(cb.lower(root.get("description")), pattern, '\\'));
+        }
+        if (filter.getStartDate() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("date"), filter.getStartDate()));
+        }
+        if (filter.getEndDate() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("date"), filter.getEndDate()));
+        }
+        if (filter.getCategory() != null) {
+            predicates.add(cb.equal(root.get("category"), filter.getCategory()));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
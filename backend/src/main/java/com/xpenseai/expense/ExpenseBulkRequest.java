@@ -0,0 +1,47 @@
+package com.xpenseai.expense;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Selects a set of the user's expenses for a bulk operation. All given criteria must
+ * match; at least one is required. {@code newCategory} is only used by re-categorize.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExpenseBulkRequest {
+    private List<Long> ids;
+    private String descriptionContains;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String category;
+    private String newCategory;
+
+    public boolean hasCriteria() {
+        return (ids != null && !ids.isEmpty())
+                || (descriptionContains != null && !descriptionContains.isBlank())
+                || startDate != null
+                || endDate != null
+                || category != null;
+    }
+
+    /**
+     * Same semantics as the SQL predicate, for rows held outside the database (the archive).
+     */
+    public boolean matches(Expense expense) {
+        return (ids == null || ids.isEmpty() || ids.contains(expense.getId()))
+                && (descriptionContains == null || descriptionContains.isBlank()
+                        || (expense.getDescription() != null && expense.getDescription().toLowerCase()
+                                .contains(descriptionContains.toLowerCase())))
+                && (startDate == null || !expense.getDate().isBefore(startDate))
+                && (endDate == null || !expense.getDate().isAfter(endDate))
+                && (category == null || category.equals(expense.getCategory()));
+    }
+}
@@ -0,0 +1,23 @@
+package com.xpenseai.expense;
+
+import com.xpenseai.user.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by {@link ExpenseService} after an expense row has been written or removed,
+ * so that derived views (budget alerts, indexes, ...) can update without polling.
+ */
+@Data
+@AllArgsConstructor
+public class ExpenseChangedEvent {
+
+    public enum Type {
+        CREATED,
+        DELETED
+    }
+
+    private Type type;
+    private Expense expense;
+    private User user;
+}
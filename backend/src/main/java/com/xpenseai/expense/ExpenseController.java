@@ -5,6 +5,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import com.xpenseai.user.User;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -12,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/v1/expenses")
 @RequiredArgsConstructor
@@ -19,16 +21,50 @@ import java.util.stream.Collectors;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final ExpenseIngestService expenseIngestService;
 
+    /**
+     * With async ingestion enabled, a request carrying an Idempotency-Key is only appended
+     * to the ingest log and answered with 202 Accepted; the expense is stored shortly after.
+     */
     @PostMapping
-    public ResponseEntity<Expense> createExpense(
+    public ResponseEntity<?> createExpense(
             @RequestBody ExpenseRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) {
         User user = (User) authentication.getPrincipal();
+        if (idempotencyKey != null && expenseIngestService.isEnabled()) {
+            expenseIngestService.submit(idempotencyKey, request, user);
+            return ResponseEntity.accepted().body(Map.of("idempotencyKey", idempotencyKey, "status", "ACCEPTED"));
+        }
         Expense expense = expenseService.createExpense(request, user);
         return ResponseEntity.ok(expense);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<Expense>> createExpenses(
+            @RequestBody List<ExpenseRequest> requests,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(expenseService.createExpenses(requests, user));
+    }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<Map<String, Integer>> bulkDeleteExpenses(
+            @RequestBody ExpenseBulkRequest request,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(Map.of("affected", expenseService.bulkDeleteExpenses(request, user)));
+    }
+
+    @PostMapping("/bulk-recategorize")
+    public ResponseEntity<Map<String, Integer>> bulkRecategorizeExpenses(
+            @RequestBody ExpenseBulkRequest request,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(Map.of("affected", expenseService.bulkRecategorizeExpenses(request, user)));
+    }
+
     @GetMapping
     public ResponseEntity<List<Expense>> getUserExpenses(
             @RequestParam(required = false) String period,
@@ -36,33 +72,54 @@ public class ExpenseController {
             @RequestParam(required = false) String endDate,
             Authentication authentication) {
 
-        System.out.println("🔵 getUserExpenses called with period: " + period);
-        System.out.println("🔵 startDate: " + startDate + ", endDate: " + endDate);
-
         User user = (User) authentication.getPrincipal();
-        System.out.println("🔵 User: " + user.getEmail());
-
-        try {
-            if (period != null) {
-                List<Expense> expenses = expenseService.getUserExpensesByPeriod(user, period);
-                System.out.println("✅ Found " + expenses.size() + " expenses for period " + period);
-                return ResponseEntity.ok(expenses);
-            } else if (startDate != null && endDate != null) {
-                LocalDate start = LocalDate.parse(startDate);
-                LocalDate end = LocalDate.parse(endDate);
-                List<Expense> expenses = expenseService.getUserExpensesByDateRange(user, start, end);
-                System.out.println("✅ Found " + expenses.size() + " expenses for date range");
-                return ResponseEntity.ok(expenses);
-            } else {
-                List<Expense> expenses = expenseService.getUserExpenses(user);
-                System.out.println("✅ Found " + expenses.size() + " total expenses");
-                return ResponseEntity.ok(expenses);
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error in getUserExpenses: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
+        log.debug("getUserExpenses user={} period={} startDate={} endDate={}", user.getId(), period, startDate, endDate);
+
+        List<Expense> expenses;
+        if (period != null) {
+            expenses = expenseService.getUserExpensesByPeriod(user, period);
+        } else if (startDate != null && endDate != null) {
+            LocalDate start = LocalDate.parse(startDate);
+            LocalDate end = LocalDate.parse(endDate);
+            expenses = expenseService.getUserExpensesByDateRange(user, start, end);
+        } else {
+            expenses = expenseService.getUserExpenses(user);
         }
+
+        log.debug("getUserExpenses user={} returned {} expenses", user.getId(), expenses.size());
+        return ResponseEntity.ok(expenses);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<Expense>> searchExpenses(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minAmount,
+            @RequestParam(required = false) Double maxAmount,
+            @RequestParam(defaultValue = "true") Boolean fuzzy,
+            @RequestParam(defaultValue = "50") Integer limit,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        ExpenseSearchRequest request = ExpenseSearchRequest.builder()
+                .query(q)
+                .startDate(startDate != null ? LocalDate.parse(startDate) : null)
+                .endDate(endDate != null ? LocalDate.parse(endDate) : null)
+                .category(category)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .fuzzy(fuzzy)
+                .limit(limit)
+                .build();
+        return ResponseEntity.ok(expenseService.searchExpenses(request, user));
+    }
+
+    @PostMapping("/search/reindex")
+    public ResponseEntity<Void> reindexExpenses(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        expenseService.reindexUserExpenses(user);
+        return ResponseEntity.ok().build();
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,262 @@
+package com.xpenseai.expense;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped log of accepted-but-not-yet-committed writes.
+ *
+ * The log is a sequence of fixed-size segment files ({@code <sequence>.wal}). Each record is
+ * {@code [int length][int crc32][payload]}; a zero length marks the end of the written part
+ * of a segment. Appends only write into the mapping; {@link #force()} makes everything
+ * appended so far durable, so many appends share one fsync. Readers only see records up to
+ * the last forced position.
+ *
+ * A checkpoint file records the position up to which records have been committed to the
+ * database. Segments entirely before it are deleted. After a restart, appends go to a
+ * fresh segment and reading resumes at the checkpoint; a torn record at the end of an old
+ * segment (crash mid-append, never acknowledged) ends that segment.
+ *
+ * Records the committer gives up on are appended, one per line, to a dead-letter file kept
+ * next to the segments for inspection.
+ */
+final class ExpenseIngestLog {
+
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String DEAD_LETTER_FILE = "dead-letters";
+
+    record Position(long segment, int offset) implements Comparable<Position> {
+        @Override
+        public int compareTo(Position other) {
+            int bySegment = Long.compare(segment, other.segment);
+            return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+        }
+    }
+
+    record Entry(byte[] payload, Position next) {
+    }
+
+    record Batch(List<Entry> entries, Position next) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final NavigableMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+
+    // Writer state, guarded by this
+    private long activeSegment;
+    private MappedByteBuffer activeBuffer;
+    private int writeOffset;
+
+    private final Object durableLock = new Object();
+    private volatile Position durable;
+
+    private ExpenseIngestLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    static ExpenseIngestLog open(Path directory, int segmentSize) throws IOException {
+        Files.createDirectories(directory);
+        ExpenseIngestLog log = new ExpenseIngestLog(directory, segmentSize);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                long sequence = Long.parseLong(file.getFileName().toString().replace(SEGMENT_SUFFIX, ""));
+                log.segments.put(sequence, map(file, Files.size(file)));
+            }
+        }
+        log.activeSegment = log.segments.isEmpty() ? 1 : log.segments.lastKey() + 1;
+        log.activeBuffer = map(log.segmentPath(log.activeSegment), segmentSize);
+        log.segments.put(log.activeSegment, log.activeBuffer);
+        log.durable = new Position(log.activeSegment, 0);
+        return log;
+    }
+
+    /**
+     * Appends one record and returns the position just after it; the record is durable
+     * once {@link #awaitDurable} for that position returns.
+     */
+    synchronized Position append(byte[] payload) throws IOException {
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the segment size");
+        }
+        if (writeOffset + recordSize > segmentSize) {
+            roll();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        activeBuffer.put(writeOffset + RECORD_HEADER_SIZE, payload);
+        activeBuffer.putInt(writeOffset + 4, (int) crc.getValue());
+        // Length last: a record with a non-zero length is complete
+        activeBuffer.putInt(writeOffset, payload.length);
+        writeOffset += recordSize;
+        return new Position(activeSegment, writeOffset);
+    }
+
+    /**
+     * Forces everything appended so far to disk and wakes up waiters.
+     */
+    void force() {
+        MappedByteBuffer buffer;
+        Position target;
+        synchronized (this) {
+            buffer = activeBuffer;
+            target = new Position(activeSegment, writeOffset);
+        }
+        if (target.compareTo(durable) <= 0) {
+            return;
+        }
+        buffer.force();
+        synchronized (durableLock) {
+            if (target.compareTo(durable) > 0) {
+                durable = target;
+            }
+            durableLock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until {@code position} has been forced; returns false on timeout.
+     */
+    boolean awaitDurable(Position position, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (durableLock) {
+            while (position.compareTo(durable) > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                durableLock.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Reads up to {@code max} durable records starting at {@code from}, moving on to the next
+     * segment when one is exhausted.
+     */
+    Batch read(Position from, int max) {
+        List<Entry> entries = new ArrayList<>();
+        Position position = from;
+        Position limit = durable;
+        CRC32 crc = new CRC32();
+
+        while (entries.size() < max) {
+            MappedByteBuffer segment = segments.get(position.segment());
+            if (segment == null) {
+                Long next = segments.higherKey(position.segment());
+                if (next == null || next > limit.segment()) {
+                    break;
+                }
+                position = new Position(next, 0);
+                continue;
+            }
+            int end = position.segment() == limit.segment() ? limit.offset() : segment.limit();
+            int offset = position.offset();
+            int length = offset + RECORD_HEADER_SIZE <= end ? segment.getInt(offset) : 0;
+            boolean complete = length > 0 && offset + RECORD_HEADER_SIZE + length <= end;
+
+            byte[] payload = null;
+            if (complete) {
+                payload = new byte[length];
+                segment.get(offset + RECORD_HEADER_SIZE, payload);
+                crc.reset();
+                crc.update(payload);
+                complete = (int) crc.getValue() == segment.getInt(offset + 4);
+            }
+
+            if (complete) {
+                position = new Position(position.segment(), offset + RECORD_HEADER_SIZE + length);
+                entries.add(new Entry(payload, position));
+            } else if (position.segment() < limit.segment()) {
+                // End of a finished segment (or a torn tail that was never acknowledged)
+                Long next = segments.higherKey(position.segment());
+                position = new Position(next, 0);
+            } else {
+                break;
+            }
+        }
+        return new Batch(entries, position);
+    }
+
+    Position loadCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return segments.isEmpty() ? new Position(activeSegment, 0) : new Position(segments.firstKey(), 0);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        return new Position(buffer.getLong(), buffer.getInt());
+    }
+
+    /**
+     * Records that everything before {@code position} is committed and drops segments that
+     * are no longer needed.
+     */
+    void checkpoint(Position position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12).putLong(position.segment()).putInt(position.offset());
+        buffer.flip();
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        for (Map.Entry<Long, MappedByteBuffer> entry : segments.headMap(position.segment()).entrySet()) {
+            segments.remove(entry.getKey());
+            Files.deleteIfExists(segmentPath(entry.getKey()));
+        }
+    }
+
+    /**
+     * Keeps a record that will never be committed, durably, before the checkpoint moves past it.
+     * Only called by the committer.
+     */
+    void deadLetter(byte[] payload) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(DEAD_LETTER_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(payload));
+            channel.write(ByteBuffer.wrap(new byte[] { '\n' }));
+            channel.force(true);
+        }
+    }
+
+    private void roll() throws IOException {
+        activeBuffer.force();
+        activeSegment++;
+        activeBuffer = map(segmentPath(activeSegment), segmentSize);
+        segments.put(activeSegment, activeBuffer);
+        writeOffset = 0;
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%020d%s", sequence, SEGMENT_SUFFIX));
+    }
+
+    private static MappedByteBuffer map(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.xpenseai.expense;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xpenseai.user.User;
+import com.xpenseai.user.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional async write path for expenses. An accepted expense is appended to the
+ * {@link ExpenseIngestLog} and acknowledged as soon as the log's group fsync covers it; a
+ * background committer drains the log into the database in batches. Request threads only
+ * ever wait on the local disk, so a slow or unavailable database builds up a backlog
+ * instead of blocking requests.
+ *
+ * Every record carries the client's idempotency key, stored in {@code expenses.ingest_key}
+ * (unique per user). The checkpoint only advances after a batch commits and already-stored
+ * keys are skipped, so replay after a crash, and client retries with the same key, insert
+ * each expense exactly once. A record that cannot be decoded, that is missing a field or
+ * whose date does not parse, or that the database refuses on its own is moved to the log's
+ * dead-letter file instead of being retried forever. Any other failure stops the committer
+ * at that batch, which is retried with backoff until the cause is fixed.
+ */
+@Slf4j
+@Component
+public class ExpenseIngestService {
+
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final ExpenseService expenseService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final Counter acceptedCounter;
+    private final Counter committedCounter;
+    private final Counter deadLetteredCounter;
+
+    @Value("${xpenseai.ingest.enabled:false}")
+    private boolean enabled;
+
+    @Value("${xpenseai.ingest.directory:./data/ingest}")
+    private String directory;
+
+    @Value("${xpenseai.ingest.segment-size-bytes:16777216}")
+    private int segmentSize;
+
+    @Value("${xpenseai.ingest.fsync-interval-ms:2}")
+    private long fsyncIntervalMs;
+
+    @Value("${xpenseai.ingest.ack-timeout-ms:5000}")
+    private long ackTimeoutMs;
+
+    @Value("${xpenseai.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${xpenseai.ingest.commit-interval-ms:50}")
+    private long commitIntervalMs;
+
+    private ExpenseIngestLog ingestLog;
+    private ExpenseIngestLog.Position committed;
+    private Thread flusher;
+    private ScheduledExecutorService committer;
+    private volatile boolean running;
+    private int consecutiveFailures;
+    private long nextAttemptAt;
+
+    public ExpenseIngestService(ExpenseService expenseService, UserRepository userRepository,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.expenseService = expenseService;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.acceptedCounter = meterRegistry.counter("xpenseai.ingest.accepted");
+        this.committedCounter = meterRegistry.counter("xpenseai.ingest.committed");
+        this.deadLetteredCounter = meterRegistry.counter("xpenseai.ingest.dead-lettered");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        ingestLog = ExpenseIngestLog.open(Paths.get(directory), segmentSize);
+        committed = ingestLog.loadCheckpoint();
+        running = true;
+
+        // Group commit: one fsync per interval covers every append made since the last one
+        flusher = new Thread(() -> {
+            while (running) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs));
+                ingestLog.force();
+            }
+        }, "expense-ingest-fsync");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "expense-ingest-committer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        committer.scheduleWithFixedDelay(this::drain, 0, commitIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Appends the expense to the log and returns once it is durable. The expense shows up in
+     * reads after the committer has written it to the database.
+     */
+    public void submit(String idempotencyKey, ExpenseRequest request, User user) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        // Rejected here rather than by the committer, which can only dead-letter it
+        if (request.getDescription() == null || request.getAmount() == null || request.getDate() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "description, amount and date are required");
+        }
+        try {
+            LocalDate.parse(request.getDate());
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "date must be YYYY-MM-DD");
+        }
+
+        try {
+            IngestRecord record = new IngestRecord(idempotencyKey, user.getId(), request.getDescription(),
+                    request.getAmount(), request.getDate(), request.getCategory(), request.getReceiptId());
+            ExpenseIngestLog.Position position = ingestLog.append(objectMapper.writeValueAsBytes(record));
+            if (!ingestLog.awaitDurable(position, ackTimeoutMs)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Ingest log is not keeping up");
+            }
+            acceptedCounter.increment();
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Failed to append to ingest log", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while appending", e);
+        }
+    }
+
+    /**
+     * Commits durable log records to the database, batch by batch, until the log is drained
+     * or the database fails; on failure the same records are retried with backoff.
+     */
+    synchronized void drain() {
+        if (System.currentTimeMillis() < nextAttemptAt) {
+            return;
+        }
+        try {
+            while (true) {
+                ExpenseIngestLog.Batch batch = ingestLog.read(committed, batchSize);
+                if (!batch.entries().isEmpty()) {
+                    commit(batch.entries());
+                    committedCounter.increment(batch.entries().size());
+                }
+                if (!batch.next().equals(committed)) {
+                    ingestLog.checkpoint(batch.next());
+                    committed = batch.next();
+                }
+                if (batch.entries().size() < batchSize) {
+                    break;
+                }
+            }
+            consecutiveFailures = 0;
+        } catch (Exception e) {
+            consecutiveFailures++;
+            long backoff = Math.min(MAX_BACKOFF_MS, commitIntervalMs << Math.min(consecutiveFailures, 16));
+            nextAttemptAt = System.currentTimeMillis() + backoff;
+            if (e instanceof DataAccessException || e instanceof TransactionException) {
+                log.warn("Ingest commit failed ({} in a row), retrying in {} ms: {}",
+                        consecutiveFailures, backoff, e.getMessage());
+            } else {
+                // Not going away on its own; the log stays put until it is fixed
+                log.error("Ingest commit failed ({} in a row), retrying in {} ms", consecutiveFailures, backoff, e);
+            }
+        }
+    }
+
+    private void commit(List<ExpenseIngestLog.Entry> entries) throws IOException {
+        // userId -> key -> record; the first record wins for a repeated key
+        Map<Integer, Map<String, IngestRecord>> byUser = new LinkedHashMap<>();
+        for (ExpenseIngestLog.Entry entry : entries) {
+            IngestRecord record;
+            try {
+                record = objectMapper.readValue(entry.payload(), IngestRecord.class);
+            } catch (IOException e) {
+                deadLetter(entry.payload(), "undecodable record", e);
+                continue;
+            }
+            String invalid = invalidReason(record);
+            if (invalid != null) {
+                deadLetter(entry.payload(), "invalid record " + record.getKey(), new IllegalArgumentException(invalid));
+                continue;
+            }
+            byUser.computeIfAbsent(record.getUserId(), id -> new LinkedHashMap<>())
+                    .putIfAbsent(record.getKey(), record);
+        }
+
+        Map<Integer, User> users = userRepository.findAllById(byUser.keySet()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (Map.Entry<Integer, Map<String, IngestRecord>> entry : byUser.entrySet()) {
+            User user = users.get(entry.getKey());
+            if (user == null) {
+                log.warn("Dropping {} ingested expenses of unknown user {}", entry.getValue().size(), entry.getKey());
+                continue;
+            }
+            Map<String, ExpenseRequest> requestsByKey = new LinkedHashMap<>();
+            entry.getValue().forEach((key, record) -> requestsByKey.put(key, record.toRequest()));
+            try {
+                expenseService.saveIngested(requestsByKey, user);
+            } catch (RuntimeException e) {
+                if (!isRejection(e)) {
+                    throw e;
+                }
+                commitOneByOne(entry.getValue(), user);
+            }
+        }
+    }
+
+    /**
+     * Isolates the records that fail on their own, so one bad record cannot hold up the rest
+     * of the log forever. Already-saved keys are skipped if the batch is retried.
+     */
+    private void commitOneByOne(Map<String, IngestRecord> recordsByKey, User user) throws IOException {
+        for (Map.Entry<String, IngestRecord> entry : recordsByKey.entrySet()) {
+            try {
+                expenseService.saveIngested(Map.of(entry.getKey(), entry.getValue().toRequest()), user);
+            } catch (RuntimeException e) {
+                if (!isRejection(e)) {
+                    throw e;
+                }
+                deadLetter(objectMapper.writeValueAsBytes(entry.getValue()), "rejected record " + entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * What makes the record unusable, or null if it can be saved. Records written by an older
+     * version, or by hand, skipped the checks {@link #submit} makes.
+     */
+    private static String invalidReason(IngestRecord record) {
+        if (record.getKey() == null || record.getKey().isBlank() || record.getUserId() == null) {
+            return "key and userId are required";
+        }
+        if (record.getDescription() == null || record.getAmount() == null || record.getDate() == null) {
+            return "description, amount and date are required";
+        }
+        try {
+            LocalDate.parse(record.getDate());
+        } catch (DateTimeParseException e) {
+            return "date must be YYYY-MM-DD";
+        }
+        return null;
+    }
+
+    /**
+     * Whether the database refused the record itself. Records are validated before they get
+     * here, so anything else is a fault of the database or of this code, and the batch is
+     * retried rather than dead-lettered.
+     */
+    private static boolean isRejection(RuntimeException e) {
+        return e instanceof DataIntegrityViolationException;
+    }
+
+    private void deadLetter(byte[] payload, String reason, Exception cause) throws IOException {
+        log.error("Dead-lettering {}: {}", reason, cause.toString());
+        ingestLog.deadLetter(payload);
+        deadLetteredCounter.increment();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        committer.shutdown();
+        committer.awaitTermination(10, TimeUnit.SECONDS);
+        running = false;
+        flusher.join(1000);
+        ingestLog.force();
+        // Best effort; anything left is replayed on the next start
+        nextAttemptAt = 0;
+        drain();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class IngestRecord {
+        private String key;
+        private Integer userId;
+        private String description;
+        private Double amount;
+        private String date;
+        private String category;
+        private Long receiptId;
+
+        ExpenseRequest toRequest() {
+            return ExpenseRequest.builder()
+                    .description(description)
+                    .amount(amount)
+                    .date(date)
+                    .category(category)
+                    .receiptId(receiptId)
+                    .build();
+        }
+    }
+}
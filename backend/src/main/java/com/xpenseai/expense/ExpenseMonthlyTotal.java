@@ -0,0 +1,14 @@
+package com.xpenseai.expense;
+
+/**
+ * Sum of one user's expenses for one category and calendar month.
+ */
+public interface ExpenseMonthlyTotal {
+    String getCategory();
+
+    Integer getYear();
+
+    Integer getMonth();
+
+    Double getTotal();
+}
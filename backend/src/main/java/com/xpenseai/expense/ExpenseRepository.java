@@ -1,12 +1,15 @@
 package com.xpenseai.expense;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import com.xpenseai.user.User;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, ExpenseBulkRepository {
 
     @Query("SELECT e FROM Expense e WHERE e.user = ?1 ORDER BY e.date DESC, e.createdAt DESC")
     List<Expense> findByUserOrderByDateDesc(User user);
@@ -19,4 +22,44 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
     @Query("SELECT e FROM Expense e WHERE e.user = ?1 AND e.date = ?2 ORDER BY e.date DESC, e.createdAt DESC")
     List<Expense> findByUserAndDateOrderByDateDesc(User user, LocalDate date);
-}
\ No newline at end of file
+
+    // Ownership is part of the lookup, so another user's expense is simply not found
+    @Query("SELECT e FROM Expense e WHERE e.id = ?1 AND e.user.id = ?2")
+    Optional<Expense> findByIdAndUserId(Long id, Integer userId);
+
+    // Null-safe on category
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expense e WHERE e.user.id = ?1 "
+            + "AND (e.category = ?2 OR (?2 IS NULL AND e.category IS NULL)) AND e.date BETWEEN ?3 AND ?4")
+    Double sumAmountByUserIdAndCategoryAndDateBetween(Integer userId, String category, LocalDate startDate,
+            LocalDate endDate);
+
+    @Query("SELECT e.category AS category, EXTRACT(YEAR FROM e.date) AS year, EXTRACT(MONTH FROM e.date) AS month, "
+            + "SUM(e.amount) AS total FROM Expense e WHERE e.user.id = ?1 "
+            + "GROUP BY e.category, EXTRACT(YEAR FROM e.date), EXTRACT(MONTH FROM e.date)")
+    List<ExpenseMonthlyTotal> sumByCategoryAndMonth(Integer userId);
+
+    @Query("SELECT e.id AS id, e.user.id AS userId, e.description AS description, e.date AS date, e.amount AS amount, e.category AS category "
+            + "FROM Expense e WHERE e.id > ?1 ORDER BY e.id")
+    List<ExpenseSearchRow> findSearchRowsAfter(Long afterId, Pageable page);
+
+    @Query("SELECT e.id AS id, e.user.id AS userId, e.description AS description, e.date AS date, e.amount AS amount, e.category AS category "
+            + "FROM Expense e WHERE e.user = ?1")
+    List<ExpenseSearchRow> findSearchRowsByUser(User user);
+
+    @Query("SELECT DISTINCT e.user.id FROM Expense e WHERE e.date < ?1")
+    List<Integer> findUserIdsWithExpensesBefore(LocalDate date);
+
+    @Query("SELECT e FROM Expense e WHERE e.user.id = ?1 AND e.date < ?2")
+    List<Expense> findByUserIdAndDateBefore(Integer userId, LocalDate date);
+
+    // Native so that tombstones count too: their keys still occupy the unique constraint
+    @Query(value = "SELECT ingest_key FROM expenses WHERE user_id = ?1 AND ingest_key IN ?2", nativeQuery = true)
+    List<String> findIngestKeys(Integer userId, Collection<String> ingestKeys);
+
+    @Query("SELECT e FROM Expense e WHERE e.user.id = ?1 AND e.changeVersion > ?2 AND e.changeVersion <= ?3 ORDER BY e.id")
+    List<Expense> findChangedByUserId(Integer userId, long afterVersion, long upToVersion);
+
+    @Query(value = "SELECT id FROM expenses WHERE user_id = ?1 AND deleted = true "
+            + "AND change_version > ?2 AND change_version <= ?3 ORDER BY id", nativeQuery = true)
+    List<Long> findDeletedIdsByUserId(Integer userId, long afterVersion, long upToVersion);
+}
@@ -14,4 +14,6 @@ public class ExpenseRequest {
     private Double amount;
     private String date;
     private String category;
+    // Optional; a receipt uploaded by the same user
+    private Long receiptId;
 }
\ No newline at end of file
@@ -0,0 +1,470 @@
+package com.xpenseai.expense;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.xpenseai.user.User;
+import com.xpenseai.user.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory inverted index over expense descriptions, partitioned per user.
+ *
+ * Built from the table on a background thread once the application is ready (searches are
+ * refused until then) and then kept current from committed {@link ExpenseChangedEvent}s.
+ * Each node has its own index, so every user's partition records the change version it is
+ * complete up to: an event only advances it when it carries the next version, and
+ * {@link #refresh} rebuilds a partition that is behind the user's latest version, e.g.
+ * after a write on another node. Queries match every query term as a prefix and, when
+ * enabled, within a small edit distance, then apply date/category/amount filters
+ * against the compact per-document fields kept alongside the postings.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpenseSearchIndex {
+
+    private static final int REBUILD_PAGE_SIZE = 5000;
+    private static final int MAX_LIMIT = 500;
+    private static final Comparator<Doc> NEWEST_FIRST =
+            Comparator.comparingLong((Doc d) -> d.epochDay).thenComparingLong(d -> d.id).reversed();
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseArchive expenseArchive;
+    private final UserRepository userRepository;
+
+    private volatile Map<Integer, UserIndex> users = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Changes seen while a rebuild is scanning the table; replayed onto the new index before it is swapped in
+    private List<Consumer<Map<Integer, UserIndex>>> pendingDuringRebuild;
+    private final Object rebuildLock = new Object();
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Startup is not held up by a scan of every expense
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Building the search index failed; searches stay unavailable", e);
+            }
+        }, "expense-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pendingDuringRebuild = new ArrayList<>();
+            }
+
+            // Read before the rows, so a partition never claims a version whose rows it may lack
+            Map<Integer, Long> versions = new HashMap<>();
+            userRepository.findChangeVersions()
+                    .forEach(user -> versions.put(user.getUserId(), user.getChangeVersion()));
+            Map<Integer, UserIndex> fresh = new ConcurrentHashMap<>();
+            Function<Integer, UserIndex> newIndex = userId -> new UserIndex(versions.getOrDefault(userId, 0L));
+            long lastId = 0;
+            List<ExpenseSearchRow> page;
+            do {
+                page = expenseRepository.findSearchRowsAfter(lastId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+                for (ExpenseSearchRow row : page) {
+                    fresh.computeIfAbsent(row.getUserId(), newIndex).add(Doc.of(row));
+                    lastId = row.getId();
+                }
+            } while (page.size() == REBUILD_PAGE_SIZE);
+            // Archived rows last, so anything compacted while the table was being scanned is still picked up
+            expenseArchive.forEachExpense((userId, expense) ->
+                    fresh.computeIfAbsent(userId, newIndex).add(Doc.of(expense)));
+
+            synchronized (this) {
+                pendingDuringRebuild.forEach(change -> change.accept(fresh));
+                pendingDuringRebuild = null;
+                users = fresh;
+            }
+            ready = true;
+        }
+    }
+
+    /**
+     * Rebuilds the user's partition if it is behind the user's latest change version.
+     */
+    public void refresh(User user) {
+        Long current = userRepository.findChangeVersion(user.getId());
+        UserIndex userIndex = users.get(user.getId());
+        long indexed = userIndex != null ? userIndex.version : 0;
+        if (current != null && current > indexed) {
+            rebuildUser(user, current);
+        }
+    }
+
+    public void rebuildUser(User user) {
+        rebuildUser(user, userRepository.findChangeVersion(user.getId()));
+    }
+
+    private void rebuildUser(User user, Long version) {
+        UserIndex fresh = new UserIndex(version != null ? version : 0);
+        expenseRepository.findSearchRowsByUser(user).forEach(row -> fresh.add(Doc.of(row)));
+        expenseArchive.findExpenses(user, null, null, null).forEach(expense -> fresh.add(Doc.of(expense)));
+        apply(index -> index.put(user.getId(), fresh));
+    }
+
+    // After commit, so a rolled-back write never shows up in search results
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        Integer userId = event.getUser().getId();
+        Expense expense = event.getExpense();
+        Long changeVersion = expense.getChangeVersion();
+
+        if (event.getType() == ExpenseChangedEvent.Type.CREATED) {
+            Doc doc = Doc.of(expense);
+            apply(index -> {
+                UserIndex userIndex = index.computeIfAbsent(userId, id -> new UserIndex(0));
+                userIndex.add(doc);
+                userIndex.advance(changeVersion);
+            });
+        } else {
+            Long expenseId = expense.getId();
+            apply(index -> {
+                UserIndex userIndex = index.get(userId);
+                if (userIndex != null) {
+                    userIndex.remove(expenseId);
+                    userIndex.advance(changeVersion);
+                }
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesBulkChanged(ExpensesBulkChangedEvent event) {
+        if (event.getAffected() > 0) {
+            rebuildUser(event.getUser(), event.getChangeVersion());
+        }
+    }
+
+    /**
+     * Returns matching expense ids, newest first.
+     */
+    public List<Long> search(Integer userId, ExpenseSearchRequest request) {
+        UserIndex userIndex = users.get(userId);
+        if (userIndex == null) {
+            return List.of();
+        }
+        int limit = request.getLimit() == null ? 50 : Math.max(1, Math.min(request.getLimit(), MAX_LIMIT));
+        return userIndex.search(request, limit);
+    }
+
+    private synchronized void apply(Consumer<Map<Integer, UserIndex>> change) {
+        change.accept(users);
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(change);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Doc {
+        final long id;
+        final long epochDay;
+        final double amount;
+        final String category;
+        final String[] terms;
+
+        private Doc(long id, LocalDate date, Double amount, String category, String description) {
+            this.id = id;
+            this.epochDay = date != null ? date.toEpochDay() : 0;
+            this.amount = amount != null ? amount : 0;
+            this.category = category;
+            this.terms = new HashSet<>(tokenize(description)).toArray(new String[0]);
+        }
+
+        static Doc of(ExpenseSearchRow row) {
+            return new Doc(row.getId(), row.getDate(), row.getAmount(), row.getCategory(), row.getDescription());
+        }
+
+        static Doc of(Expense expense) {
+            return new Doc(expense.getId(), expense.getDate(), expense.getAmount(), expense.getCategory(),
+                    expense.getDescription());
+        }
+
+        boolean matches(ExpenseSearchRequest request) {
+            if (request.getStartDate() != null && epochDay < request.getStartDate().toEpochDay()) {
+                return false;
+            }
+            if (request.getEndDate() != null && epochDay > request.getEndDate().toEpochDay()) {
+                return false;
+            }
+            if (request.getCategory() != null && !request.getCategory().equalsIgnoreCase(category)) {
+                return false;
+            }
+            if (request.getMinAmount() != null && amount < request.getMinAmount()) {
+                return false;
+            }
+            return request.getMaxAmount() == null || amount <= request.getMaxAmount();
+        }
+    }
+
+    /**
+     * Sorted, growable array of expense ids. Ids are mostly appended in ascending order,
+     * so the common insert is a plain append.
+     */
+    private static final class Postings {
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                insertAt(-pos - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        void remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        private void insertAt(int pos, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+    }
+
+    private static final class UserIndex {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Doc> docs = new HashMap<>();
+        private final TreeMap<String, Postings> terms = new TreeMap<>();
+        // Change version every write up to which is reflected here; only changed under the index's monitor
+        private volatile long version;
+
+        UserIndex(long version) {
+            this.version = version;
+        }
+
+        /**
+         * Moves the version on after a change stamped {@code changeVersion} was applied. A gap
+         * means a change made elsewhere was missed, so the version stays put until a rebuild.
+         */
+        void advance(Long changeVersion) {
+            if (changeVersion != null && changeVersion == version + 1) {
+                version = changeVersion;
+            }
+        }
+
+        void add(Doc doc) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(doc.id);
+                docs.put(doc.id, doc);
+                for (String term : doc.terms) {
+                    terms.computeIfAbsent(term, t -> new Postings()).add(doc.id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(long id) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeLocked(long id) {
+            Doc existing = docs.remove(id);
+            if (existing == null) {
+                return;
+            }
+            for (String term : existing.terms) {
+                Postings postings = terms.get(term);
+                if (postings != null) {
+                    postings.remove(id);
+                    if (postings.size == 0) {
+                        terms.remove(term);
+                    }
+                }
+            }
+        }
+
+        List<Long> search(ExpenseSearchRequest request, int limit) {
+            List<String> queryTerms = tokenize(request.getQuery());
+            boolean fuzzy = !Boolean.FALSE.equals(request.getFuzzy());
+
+            lock.readLock().lock();
+            try {
+                // Only the newest `limit` hits are kept, so a common term never sorts every match
+                PriorityQueue<Doc> newest = new PriorityQueue<>(limit + 1, NEWEST_FIRST.reversed());
+                if (queryTerms.isEmpty()) {
+                    for (Doc doc : docs.values()) {
+                        offer(newest, doc, request, limit);
+                    }
+                } else {
+                    // Every query term must match; the rarest term drives the scan
+                    List<long[]> perTerm = new ArrayList<>();
+                    for (String queryTerm : queryTerms) {
+                        long[] ids = matchTerm(queryTerm, fuzzy);
+                        if (ids.length == 0) {
+                            return List.of();
+                        }
+                        perTerm.add(ids);
+                    }
+                    perTerm.sort(Comparator.comparingInt(ids -> ids.length));
+
+                    for (long id : perTerm.get(0)) {
+                        boolean all = true;
+                        for (int i = 1; i < perTerm.size() && all; i++) {
+                            all = Arrays.binarySearch(perTerm.get(i), id) >= 0;
+                        }
+                        if (all) {
+                            offer(newest, docs.get(id), request, limit);
+                        }
+                    }
+                }
+
+                Long[] ids = new Long[newest.size()];
+                for (int i = ids.length - 1; i >= 0; i--) {
+                    ids[i] = newest.poll().id;
+                }
+                return Arrays.asList(ids);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static void offer(PriorityQueue<Doc> newest, Doc doc, ExpenseSearchRequest request, int limit) {
+            if (doc == null || newest.size() == limit && NEWEST_FIRST.compare(doc, newest.peek()) >= 0
+                    || !doc.matches(request)) {
+                return;
+            }
+            newest.add(doc);
+            if (newest.size() > limit) {
+                newest.poll();
+            }
+        }
+
+        /**
+         * Sorted, distinct ids of every document with a term matching {@code queryTerm}.
+         */
+        private long[] matchTerm(String queryTerm, boolean fuzzy) {
+            List<Postings> matched = new ArrayList<>();
+            // Prefix matches, exact match included
+            matched.addAll(terms.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).values());
+
+            int maxEdits = !fuzzy || queryTerm.length() < 4 ? 0 : queryTerm.length() < 8 ? 1 : 2;
+            if (maxEdits > 0) {
+                for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                    String term = entry.getKey();
+                    if (Math.abs(term.length() - queryTerm.length()) <= maxEdits
+                            && !term.startsWith(queryTerm)
+                            && withinEditDistance(queryTerm, term, maxEdits)) {
+                        matched.add(entry.getValue());
+                    }
+                }
+            }
+
+            if (matched.size() == 1) {
+                Postings only = matched.get(0);
+                return Arrays.copyOf(only.ids, only.size);
+            }
+            int total = 0;
+            for (Postings postings : matched) {
+                total += postings.size;
+            }
+            long[] ids = new long[total];
+            int size = 0;
+            for (Postings postings : matched) {
+                System.arraycopy(postings.ids, 0, ids, size, postings.size);
+                size += postings.size;
+            }
+            Arrays.sort(ids);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+                    ids[distinct++] = ids[i];
+                }
+            }
+            return distinct == size ? ids : Arrays.copyOf(ids, distinct);
+        }
+    }
+
+    static boolean withinEditDistance(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+}
@@ -0,0 +1,25 @@
+package com.xpenseai.expense;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExpenseSearchRequest {
+    private String query;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String category;
+    private Double minAmount;
+    private Double maxAmount;
+    @Builder.Default
+    private Boolean fuzzy = true;
+    @Builder.Default
+    private Integer limit = 50;
+}
@@ -0,0 +1,20 @@
+package com.xpenseai.expense;
+
+import java.time.LocalDate;
+
+/**
+ * Narrow projection used to (re)build the search index without hydrating full entities.
+ */
+public interface ExpenseSearchRow {
+    Long getId();
+
+    Integer getUserId();
+
+    String getDescription();
+
+    LocalDate getDate();
+
+    Double getAmount();
+
+    String getCategory();
+}
@@ -0,0 +1,282 @@
+package com.xpenseai.expense;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, column-oriented file holding one user's archived expenses for one year.
+ *
+ * Layout: a fixed header (magic, version, row count and the byte offset of each column)
+ * followed by the columns. Rows are sorted by date; dates are stored as varint deltas,
+ * amounts as zig-zag varint cents, categories as indexes into a dictionary, ids and
+ * creation times as zig-zag deltas, and receipt ids as varints (0 for none). Aggregates
+ * only touch the date, amount and category columns; descriptions are decoded only when
+ * rows are materialized.
+ *
+ * Segments are never modified in place. A segment is written to a temp file that is fsynced
+ * and atomically moved to its name.
+ */
+final class ExpenseSegment {
+
+    private static final int MAGIC = 0x58505347; // "XPSG"
+    private static final int VERSION = 2;
+    private static final int COLUMN_COUNT = 7;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + COLUMN_COUNT * 4;
+
+    private static final int COL_IDS = 0;
+    private static final int COL_DATES = 1;
+    private static final int COL_AMOUNTS = 2;
+    private static final int COL_CATEGORIES = 3;
+    private static final int COL_CREATED = 4;
+    private static final int COL_DESCRIPTIONS = 5;
+    private static final int COL_RECEIPTS = 6;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int rowCount;
+    private final int[] columnOffsets = new int[COLUMN_COUNT];
+    private final String[] categoryDictionary;
+
+    private ExpenseSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not an expense segment: " + path);
+        }
+        this.rowCount = buffer.getInt(8);
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            columnOffsets[i] = buffer.getInt(12 + i * 4);
+        }
+
+        // The dictionary sits at the start of the category column
+        ByteBuffer in = column(COL_CATEGORIES);
+        int size = (int) readVarLong(in);
+        categoryDictionary = new String[size];
+        for (int i = 0; i < size; i++) {
+            categoryDictionary[i] = readString(in);
+        }
+    }
+
+    static ExpenseSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ExpenseSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Decodes all rows, oldest first. Returned expenses are detached and carry no user.
+     */
+    List<Expense> readAll() {
+        ByteBuffer ids = column(COL_IDS);
+        ByteBuffer dates = column(COL_DATES);
+        ByteBuffer amounts = column(COL_AMOUNTS);
+        ByteBuffer categories = categoryCodes();
+        ByteBuffer created = column(COL_CREATED);
+        ByteBuffer descriptions = column(COL_DESCRIPTIONS);
+        ByteBuffer receipts = column(COL_RECEIPTS);
+
+        List<Expense> rows = new ArrayList<>(rowCount);
+        long id = 0;
+        long epochDay = 0;
+        long createdMillis = 0;
+        for (int i = 0; i < rowCount; i++) {
+            id += zigZagDecode(readVarLong(ids));
+            epochDay += readVarLong(dates);
+            createdMillis += zigZagDecode(readVarLong(created));
+            int categoryCode = (int) readVarLong(categories);
+            long receiptId = readVarLong(receipts);
+
+            rows.add(Expense.builder()
+                    .id(id)
+                    .date(LocalDate.ofEpochDay(epochDay))
+                    .amount(zigZagDecode(readVarLong(amounts)) / 100.0)
+                    .category(categoryCode == 0 ? null : categoryDictionary[categoryCode - 1])
+                    .createdAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(createdMillis), ZoneOffset.UTC))
+                    .description(readString(descriptions))
+                    .receiptId(receiptId == 0 ? null : receiptId)
+                    .build());
+        }
+        return rows;
+    }
+
+    /**
+     * Sums amounts per category for rows dated within [startDay, endDay] (epoch days),
+     * reading only the date, amount and category columns.
+     */
+    Map<String, Double> sumByCategory(long startDay, long endDay) {
+        ByteBuffer dates = column(COL_DATES);
+        ByteBuffer amounts = column(COL_AMOUNTS);
+        ByteBuffer categories = categoryCodes();
+
+        long[] centsByCode = new long[categoryDictionary.length + 1];
+        long epochDay = 0;
+        for (int i = 0; i < rowCount; i++) {
+            epochDay += readVarLong(dates);
+            long cents = zigZagDecode(readVarLong(amounts));
+            int code = (int) readVarLong(categories);
+            if (epochDay > endDay) {
+                break; // rows are date-ordered
+            }
+            if (epochDay >= startDay) {
+                centsByCode[code] += cents;
+            }
+        }
+
+        Map<String, Double> totals = new LinkedHashMap<>();
+        for (int code = 0; code < centsByCode.length; code++) {
+            if (centsByCode[code] != 0) {
+                totals.put(code == 0 ? null : categoryDictionary[code - 1], centsByCode[code] / 100.0);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Writes the given rows as a new segment, replacing any existing file at {@code path}.
+     */
+    static void write(Path path, List<Expense> expenses) throws IOException {
+        List<Expense> rows = new ArrayList<>(expenses);
+        rows.sort(Comparator.comparing(Expense::getDate).thenComparing(Expense::getId));
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Expense expense : rows) {
+            if (expense.getCategory() != null) {
+                dictionary.putIfAbsent(expense.getCategory(), dictionary.size() + 1);
+            }
+        }
+
+        ByteArrayOutputStream[] columns = new ByteArrayOutputStream[COLUMN_COUNT];
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            columns[i] = new ByteArrayOutputStream();
+        }
+        writeVarLong(columns[COL_CATEGORIES], dictionary.size());
+        for (String category : dictionary.keySet()) {
+            writeString(columns[COL_CATEGORIES], category);
+        }
+
+        long previousId = 0;
+        long previousDay = 0;
+        long previousCreated = 0;
+        for (Expense expense : rows) {
+            long epochDay = expense.getDate().toEpochDay();
+            long createdMillis = expense.getCreatedAt() != null
+                    ? expense.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli()
+                    : previousCreated;
+
+            writeVarLong(columns[COL_IDS], zigZagEncode(expense.getId() - previousId));
+            writeVarLong(columns[COL_DATES], epochDay - previousDay);
+            writeVarLong(columns[COL_AMOUNTS], zigZagEncode(Math.round(expense.getAmount() * 100)));
+            writeVarLong(columns[COL_CATEGORIES],
+                    expense.getCategory() == null ? 0 : dictionary.get(expense.getCategory()));
+            writeVarLong(columns[COL_CREATED], zigZagEncode(createdMillis - previousCreated));
+            writeString(columns[COL_DESCRIPTIONS], expense.getDescription());
+            writeVarLong(columns[COL_RECEIPTS], expense.getReceiptId() != null ? expense.getReceiptId() : 0);
+
+            previousId = expense.getId();
+            previousDay = epochDay;
+            previousCreated = createdMillis;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows.size());
+        int offset = HEADER_SIZE;
+        for (ByteArrayOutputStream column : columns) {
+            header.putInt(offset);
+            offset += column.size();
+        }
+        header.flip();
+
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+            for (ByteArrayOutputStream column : columns) {
+                channel.write(ByteBuffer.wrap(column.toByteArray()));
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private ByteBuffer column(int column) {
+        int end = column + 1 < COLUMN_COUNT ? columnOffsets[column + 1] : buffer.limit();
+        return buffer.slice(columnOffsets[column], end - columnOffsets[column]);
+    }
+
+    private ByteBuffer categoryCodes() {
+        ByteBuffer in = column(COL_CATEGORIES);
+        int size = (int) readVarLong(in);
+        for (int i = 0; i < size; i++) {
+            int length = (int) readVarLong(in);
+            in.position(in.position() + length);
+        }
+        return in;
+    }
+
+    private static long zigZagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long zigZagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
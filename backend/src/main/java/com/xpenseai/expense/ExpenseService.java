@@ -1,21 +1,110 @@
 package com.xpenseai.expense;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import com.xpenseai.receipt.ReceiptRepository;
+import com.xpenseai.rule.CategoryRuleMatch;
+import com.xpenseai.rule.CategoryRuleMatcher;
+import com.xpenseai.rule.CategoryRuleService;
+import com.xpenseai.user.ChangeVersions;
 import com.xpenseai.user.User;
 import lombok.RequiredArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ExpenseService {
 
     private final ExpenseRepository expenseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExpenseSearchIndex searchIndex;
+    private final ExpenseArchive expenseArchive;
+    private final ChangeVersions changeVersions;
+    private final ReceiptRepository receiptRepository;
+    private final CategoryRuleService categoryRuleService;
 
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_BULK_IDS = 10_000;
+
+    @Transactional
     public Expense createExpense(ExpenseRequest request, User user) {
+        requireOwnedReceipts(List.of(request), user);
+        Expense saved = expenseRepository.save(toExpense(request, user, changeVersions.next(user.getId()),
+                rulesFor(List.of(request), user)));
+        eventPublisher.publishEvent(new ExpenseChangedEvent(ExpenseChangedEvent.Type.CREATED, saved, user));
+        return saved;
+    }
+
+    /**
+     * Saves several expenses in one transaction, e.g. the line items of a scanned receipt.
+     * With the prod profile's JDBC batching the inserts go out as a handful of statements.
+     */
+    @Transactional
+    public List<Expense> createExpenses(List<ExpenseRequest> requests, User user) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BATCH_SIZE + " expenses can be created at once");
+        }
+        requireOwnedReceipts(requests, user);
+        long version = changeVersions.next(user.getId());
+        CategoryRuleMatcher rules = rulesFor(requests, user);
+        List<Expense> expenses = requests.stream()
+                .map(request -> toExpense(request, user, version, rules))
+                .collect(Collectors.toList());
+        List<Expense> saved = expenseRepository.saveAll(expenses);
+        saved.forEach(expense ->
+                eventPublisher.publishEvent(new ExpenseChangedEvent(ExpenseChangedEvent.Type.CREATED, expense, user)));
+        return saved;
+    }
+
+    /**
+     * Inserts one user's expenses drained from the ingest log, skipping keys that are already
+     * stored, so a record replayed after a crash is never inserted twice.
+     */
+    @Transactional
+    public List<Expense> saveIngested(Map<String, ExpenseRequest> requestsByKey, User user) {
+        Set<String> existing = new HashSet<>(expenseRepository.findIngestKeys(user.getId(), requestsByKey.keySet()));
+        if (existing.size() == requestsByKey.size()) {
+            return List.of();
+        }
+        long version = changeVersions.next(user.getId());
+        // Not rejected here: a bad receipt id must not hold up the log, so the link is dropped
+        Set<Long> ownedReceipts = ownedReceiptIds(requestsByKey.values(), user);
+        CategoryRuleMatcher rules = rulesFor(requestsByKey.values(), user);
+        List<Expense> expenses = new ArrayList<>();
+        requestsByKey.forEach((key, request) -> {
+            if (!existing.contains(key)) {
+                Expense expense = toExpense(request, user, version, rules);
+                expense.setIngestKey(key);
+                if (!ownedReceipts.contains(expense.getReceiptId())) {
+                    expense.setReceiptId(null);
+                }
+                expenses.add(expense);
+            }
+        });
+        List<Expense> saved = expenseRepository.saveAll(expenses);
+        saved.forEach(expense ->
+                eventPublisher.publishEvent(new ExpenseChangedEvent(ExpenseChangedEvent.Type.CREATED, expense, user)));
+        return saved;
+    }
+
+    private Expense toExpense(ExpenseRequest request, User user, long changeVersion, CategoryRuleMatcher rules) {
         LocalDate expenseDate;
 
         try {
@@ -32,21 +121,66 @@ public class ExpenseService {
             }
         }
 
-        Expense expense = Expense.builder()
+        return Expense.builder()
                 .description(request.getDescription())
                 .amount(request.getAmount())
                 .date(expenseDate) // Use the parsed date, not current date
-                .category(request.getCategory())
+                .category(categorize(request, rules))
                 .user(user)
+                .changeVersion(changeVersion)
+                .receiptId(request.getReceiptId())
                 .build();
+    }
 
-        return expenseRepository.save(expense);
+    /**
+     * The user's compiled rules when some request leaves its category blank; otherwise none,
+     * so a batch that is fully categorized never loads them.
+     */
+    private CategoryRuleMatcher rulesFor(Collection<ExpenseRequest> requests, User user) {
+        boolean uncategorized = requests.stream()
+                .anyMatch(request -> request.getCategory() == null || request.getCategory().isBlank());
+        return uncategorized ? categoryRuleService.matcherFor(user.getId()) : CategoryRuleMatcher.EMPTY;
     }
 
+    // An explicit category always wins; the user's rules only fill in a missing one
+    private static String categorize(ExpenseRequest request, CategoryRuleMatcher rules) {
+        if (request.getCategory() != null && !request.getCategory().isBlank()) {
+            return request.getCategory();
+        }
+        return rules.match(request.getDescription(), request.getAmount())
+                .map(CategoryRuleMatch::category)
+                .orElse(request.getCategory());
+    }
+
+    private void requireOwnedReceipts(List<ExpenseRequest> requests, User user) {
+        Set<Long> owned = ownedReceiptIds(requests, user);
+        for (ExpenseRequest request : requests) {
+            if (request.getReceiptId() != null && !owned.contains(request.getReceiptId())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown receiptId " + request.getReceiptId());
+            }
+        }
+    }
+
+    /**
+     * The requests' receipt ids that belong to the user, looked up with one query (none when
+     * no request links a receipt).
+     */
+    private Set<Long> ownedReceiptIds(Collection<ExpenseRequest> requests, User user) {
+        Set<Long> ids = requests.stream()
+                .map(ExpenseRequest::getReceiptId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return ids.isEmpty() ? ids : new HashSet<>(receiptRepository.findOwnedIds(user.getId(), ids));
+    }
+
+    @Transactional(readOnly = true)
     public List<Expense> getUserExpenses(User user) {
-        return expenseRepository.findByUserOrderByDateDesc(user);
+        return withArchived(expenseRepository.findByUserOrderByDateDesc(user),
+                user, null, null, null);
     }
 
+    @Transactional(readOnly = true)
     public List<Expense> getUserExpensesByPeriod(User user, String period) {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate;
@@ -72,22 +206,128 @@ public class ExpenseService {
         return expenseRepository.findByUserAndDateBetweenOrderByDateDesc(user, startDate, endDate);
     }
 
+    @Transactional(readOnly = true)
     public List<Expense> getUserExpensesByDateRange(User user, LocalDate startDate, LocalDate endDate) {
-        return expenseRepository.findByUserAndDateBetweenOrderByDateDesc(user, startDate, endDate);
+        return withArchived(expenseRepository.findByUserAndDateBetweenOrderByDateDesc(user, startDate, endDate),
+                user, startDate, endDate, null);
     }
 
+    @Transactional
     public void deleteExpense(Long expenseId, User user) {
-        Expense expense = expenseRepository.findById(expenseId)
-                .orElseThrow(() -> new RuntimeException("Expense not found"));
+        Expense expense = expenseRepository.findByIdAndUserId(expenseId, user.getId()).orElse(null);
+        if (expense == null) {
+            // Not in the hot table; it may have been compacted into the archive
+            long version = changeVersions.next(user.getId());
+            Expense archived = expenseArchive.deleteExpense(user, expenseId, version)
+                    .orElseThrow(() -> new RuntimeException("Expense not found"));
+            archived.setChangeVersion(version);
+            eventPublisher.publishEvent(new ExpenseChangedEvent(ExpenseChangedEvent.Type.DELETED, archived, user));
+            return;
+        }
+
+        // Kept as a tombstone so clients syncing by version learn about the delete
+        expense.setDeleted(true);
+        expense.setChangeVersion(changeVersions.next(user.getId()));
+        eventPublisher.publishEvent(new ExpenseChangedEvent(ExpenseChangedEvent.Type.DELETED, expense, user));
+    }
 
-        if (!expense.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Not authorized to delete this expense");
+    /**
+     * Deletes every matching expense of the user with one UPDATE that turns them into
+     * tombstones (plus archived matches). Returns the number of expenses removed.
+     */
+    @Transactional
+    public int bulkDeleteExpenses(ExpenseBulkRequest request, User user) {
+        validateBulkRequest(request);
+        long version = changeVersions.next(user.getId());
+        int affected = expenseRepository.deleteMatching(user.getId(), request, version)
+                + expenseArchive.deleteMatching(user, request::matches, version);
+        eventPublisher.publishEvent(
+                new ExpensesBulkChangedEvent(ExpensesBulkChangedEvent.Type.DELETED, user, affected, version));
+        return affected;
+    }
+
+    /**
+     * Moves every matching expense of the user to {@code newCategory} with one UPDATE (plus
+     * archived matches). Returns the number of expenses changed.
+     */
+    @Transactional
+    public int bulkRecategorizeExpenses(ExpenseBulkRequest request, User user) {
+        validateBulkRequest(request);
+        String newCategory = request.getNewCategory();
+        if (newCategory == null || newCategory.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "newCategory is required");
         }
+        long version = changeVersions.next(user.getId());
+        int affected = expenseRepository.updateCategoryMatching(user.getId(), request, newCategory, version)
+                + expenseArchive.updateMatching(user, request::matches, e -> e.setCategory(newCategory),
+                        version);
+        eventPublisher.publishEvent(
+                new ExpensesBulkChangedEvent(ExpensesBulkChangedEvent.Type.RECATEGORIZED, user, affected, version));
+        return affected;
+    }
 
-        expenseRepository.delete(expense);
+    private static void validateBulkRequest(ExpenseBulkRequest request) {
+        // Guards against an empty filter silently matching the whole ledger
+        if (!request.hasCriteria()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At least one of ids, descriptionContains, startDate, endDate or category is required");
+        }
+        if (request.getIds() != null && request.getIds().size() > MAX_BULK_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BULK_IDS + " ids can be given; use a filter instead");
+        }
     }
 
+    @Transactional(readOnly = true)
     public List<Expense> getExpensesByCategory(String category, User user) {
-        return expenseRepository.findByUserAndCategoryOrderByDateDesc(user, category);
+        return withArchived(expenseRepository.findByUserAndCategoryOrderByDateDesc(user, category),
+                user, null, null, category);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Expense> searchExpenses(ExpenseSearchRequest request, User user) {
+        if (!searchIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search index is still loading");
+        }
+
+        searchIndex.refresh(user);
+        List<Long> ids = searchIndex.search(user.getId(), request);
+        Map<Long, Expense> byId = expenseRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Expense::getId, Function.identity()));
+        if (byId.size() < ids.size()) {
+            Set<Long> missing = ids.stream().filter(id -> !byId.containsKey(id)).collect(Collectors.toSet());
+            expenseArchive.findExpensesByIds(user, missing).forEach(e -> byId.put(e.getId(), e));
+        }
+
+        // Keep the index's ordering; skip rows deleted since the lookup
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    public void reindexUserExpenses(User user) {
+        searchIndex.rebuildUser(user);
+    }
+
+    /**
+     * Merges archived rows matching the same filter into a hot-table result, keeping the
+     * date-descending order. Rows caught mid-compaction are only returned once.
+     */
+    private List<Expense> withArchived(List<Expense> hot, User user, LocalDate startDate, LocalDate endDate,
+            String category) {
+        if (!expenseArchive.hasArchivedExpenses(user)) {
+            return hot;
+        }
+        List<Expense> archived = expenseArchive.findExpenses(user, startDate, endDate, category);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+
+        Set<Long> hotIds = hot.stream().map(Expense::getId).collect(Collectors.toSet());
+        List<Expense> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        archived.stream().filter(e -> !hotIds.contains(e.getId())).forEach(merged::add);
+        merged.sort(Comparator.comparing(Expense::getDate)
+                .thenComparing(Expense::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .reversed());
+        return merged;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package com.xpenseai.expense;
+
+import com.xpenseai.user.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by {@link ExpenseService} after a set-based delete or re-categorize. The
+ * affected rows are not known individually, so derived views rebuild the user's state.
+ */
+@Data
+@AllArgsConstructor
+public class ExpensesBulkChangedEvent {
+
+    public enum Type {
+        DELETED,
+        RECATEGORIZED
+    }
+
+    private Type type;
+    private User user;
+    private int affected;
+    // The version the rows were stamped with
+    private long changeVersion;
+}
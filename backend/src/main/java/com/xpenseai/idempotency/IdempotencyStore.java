@@ -0,0 +1,108 @@
+package com.xpenseai.idempotency;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stored responses by (user, idempotency key): a bounded LRU cache in front of the
+ * {@code idempotent_responses} table. The table covers restarts, other nodes and entries
+ * evicted from the cache; both drop entries after {@code xpenseai.idempotency.ttl-minutes}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyStore {
+
+    private final IdempotentResponseRepository repository;
+
+    @Value("${xpenseai.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${xpenseai.idempotency.max-cached-responses:10000}")
+    private int maxCachedResponses;
+
+    private final Map<String, IdempotentResponse> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IdempotentResponse> eldest) {
+            return size() > maxCachedResponses;
+        }
+    };
+
+    // Keys whose first request is still executing on this node
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public Optional<IdempotentResponse> find(Integer userId, String key) {
+        String scope = scope(userId, key);
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ttlMinutes);
+        synchronized (cache) {
+            IdempotentResponse cached = cache.get(scope);
+            if (cached != null) {
+                if (cached.getCreatedAt().isAfter(cutoff)) {
+                    return Optional.of(cached);
+                }
+                cache.remove(scope);
+            }
+        }
+
+        Optional<IdempotentResponse> stored = repository.findByUserIdAndIdempotencyKey(userId, key)
+                .filter(response -> response.getCreatedAt().isAfter(cutoff));
+        stored.ifPresent(response -> {
+            synchronized (cache) {
+                cache.put(scope, response);
+            }
+        });
+        return stored;
+    }
+
+    /**
+     * Claims the key for executing the request; false if a request with the same key is
+     * already running here.
+     */
+    public boolean begin(Integer userId, String key) {
+        return inFlight.add(scope(userId, key));
+    }
+
+    public void end(Integer userId, String key) {
+        inFlight.remove(scope(userId, key));
+    }
+
+    public void save(IdempotentResponse response) {
+        synchronized (cache) {
+            cache.put(scope(response.getUserId(), response.getIdempotencyKey()), response);
+        }
+        try {
+            repository.replaceExpired(response, LocalDateTime.now().minusMinutes(ttlMinutes));
+        } catch (DataIntegrityViolationException e) {
+            // Stored first by another node; its response is an equivalent one
+            log.debug("Idempotency key {} already stored", response.getIdempotencyKey());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${xpenseai.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ttlMinutes);
+        synchronized (cache) {
+            cache.values().removeIf(response -> !response.getCreatedAt().isAfter(cutoff));
+        }
+        int purged = repository.deleteCreatedBefore(cutoff);
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotent responses", purged);
+        }
+    }
+
+    private static String scope(Integer userId, String key) {
+        return userId + ":" + key;
+    }
+}
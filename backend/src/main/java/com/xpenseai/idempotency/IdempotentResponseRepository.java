@@ -0,0 +1,33 @@
+package com.xpenseai.idempotency;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface IdempotentResponseRepository extends JpaRepository<IdempotentResponse, Long> {
+
+    Optional<IdempotentResponse> findByUserIdAndIdempotencyKey(Integer userId, String idempotencyKey);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotentResponse r WHERE r.createdAt < ?1")
+    int deleteCreatedBefore(LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM IdempotentResponse r WHERE r.userId = ?1 AND r.idempotencyKey = ?2 AND r.createdAt < ?3")
+    int deleteExpired(Integer userId, String idempotencyKey, LocalDateTime cutoff);
+
+    /**
+     * Stores the response, first removing an expired response under the same key that the
+     * purge has not got to yet. A live one still makes this fail with a constraint violation.
+     */
+    @Transactional
+    default IdempotentResponse replaceExpired(IdempotentResponse response, LocalDateTime cutoff) {
+        deleteExpired(response.getUserId(), response.getIdempotencyKey(), cutoff);
+        return saveAndFlush(response);
+    }
+}
@@ -0,0 +1,65 @@
+package com.xpenseai.receipt;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import com.xpenseai.user.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/receipts")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class ReceiptController {
+
+    private final ReceiptService receiptService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ReceiptView> uploadReceipt(
+            @RequestParam("receipt") MultipartFile file,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(receiptService.uploadReceipt(file, user));
+    }
+
+    @GetMapping("/{id}")
+    public void getReceiptImage(
+            @PathVariable Long id,
+            Authentication authentication,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        User user = (User) authentication.getPrincipal();
+        Receipt receipt = receiptService.getReceipt(id, user);
+        BlobResponder.write(request, response, receiptService.originalFile(receipt), receipt.getContentType(),
+                "\"" + receipt.getContentHash() + "\"");
+    }
+
+    @GetMapping("/{id}/thumbnail")
+    public void getReceiptThumbnail(
+            @PathVariable Long id,
+            Authentication authentication,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        User user = (User) authentication.getPrincipal();
+        Receipt receipt = receiptService.getReceipt(id, user);
+        Optional<Path> thumbnail = receiptService.thumbnailFile(receipt);
+        if (thumbnail.isEmpty()) {
+            // Still being made (or the format has no thumbnail); the original is always there
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        BlobResponder.write(request, response, thumbnail.get(), ReceiptStore.THUMBNAIL_TYPE,
+                "\"" + receipt.getContentHash() + "-thumb\"");
+    }
+}
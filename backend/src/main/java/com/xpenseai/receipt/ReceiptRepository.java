@@ -0,0 +1,20 @@
+package com.xpenseai.receipt;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReceiptRepository extends JpaRepository<Receipt, Long> {
+
+    Optional<Receipt> findByIdAndUserId(Long id, Integer userId);
+
+    Optional<Receipt> findByUserIdAndContentHash(Integer userId, String contentHash);
+
+    @Query("SELECT r.id FROM Receipt r WHERE r.user.id = ?1 AND r.id IN ?2")
+    List<Long> findOwnedIds(Integer userId, Collection<Long> ids);
+}
@@ -0,0 +1,85 @@
+package com.xpenseai.receipt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.xpenseai.user.User;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class ReceiptService {
+
+    private final ReceiptRepository receiptRepository;
+    private final ReceiptStore receiptStore;
+
+    /**
+     * Stores the image and returns the user's receipt for it, reusing the existing receipt
+     * when the user has uploaded the same image before.
+     */
+    public ReceiptView uploadReceipt(MultipartFile file, User user) {
+        if (file == null || file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A receipt image is required");
+        }
+        ReceiptStore.StoredBlob blob;
+        // Multipart uploads are spooled to disk by the container, so this streams from a file
+        try (InputStream content = file.getInputStream()) {
+            blob = receiptStore.store(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read receipt upload", e);
+        }
+
+        Optional<Receipt> existing = receiptRepository.findByUserIdAndContentHash(user.getId(), blob.hash());
+        if (existing.isPresent()) {
+            return ReceiptView.of(existing.get());
+        }
+        try {
+            return ReceiptView.of(receiptRepository.save(Receipt.builder()
+                    .contentHash(blob.hash())
+                    .contentType(blob.contentType())
+                    .size(blob.size())
+                    .user(user)
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            // The same image uploaded twice at once; the other upload created the row
+            return receiptRepository.findByUserIdAndContentHash(user.getId(), blob.hash())
+                    .map(ReceiptView::of)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Receipt getReceipt(Long receiptId, User user) {
+        return receiptRepository.findByIdAndUserId(receiptId, user.getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Receipt not found"));
+    }
+
+    public Path originalFile(Receipt receipt) {
+        return receiptStore.original(receipt.getContentHash());
+    }
+
+    /**
+     * The thumbnail if it has been made; otherwise queues it (again, e.g. after a restart
+     * lost the queue) and returns empty.
+     */
+    public Optional<Path> thumbnailFile(Receipt receipt) {
+        Path thumbnail = receiptStore.thumbnail(receipt.getContentHash());
+        if (Files.exists(thumbnail)) {
+            return Optional.of(thumbnail);
+        }
+        receiptStore.requestThumbnail(receipt.getContentHash());
+        return Optional.empty();
+    }
+}
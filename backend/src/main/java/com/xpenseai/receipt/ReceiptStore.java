@@ -0,0 +1,262 @@
+package com.xpenseai.receipt;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Content-addressed blob store for receipt images on local disk. A blob is named by the
+ * SHA-256 of its bytes and sharded by the first two hex pairs of it:
+ * {@code <directory>/ab/cd/abcd...}, with its thumbnail next to it as
+ * {@code abcd....thumb.jpg}. Blobs are immutable, so storing the same image twice keeps one
+ * file, and a name can be cached forever.
+ *
+ * Uploads are streamed to a temporary file while hashing and then moved into place, so an
+ * image is never held in memory. Thumbnails are made in the background, decoding only every
+ * n-th pixel of the original so even a large photo decodes into a small raster.
+ */
+@Slf4j
+@Component
+public class ReceiptStore {
+
+    static final String THUMBNAIL_TYPE = "image/jpeg";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int SNIFF_LENGTH = 12;
+
+    @Value("${xpenseai.receipts.directory:./data/receipts}")
+    private String directory;
+
+    @Value("${xpenseai.receipts.thumbnail-size:320}")
+    private int thumbnailSize;
+
+    @Value("${xpenseai.receipts.thumbnail-threads:1}")
+    private int thumbnailThreads;
+
+    private ExecutorService thumbnailer;
+    // Hashes with a thumbnail queued or being made, so a burst of requests queues one job
+    private final Set<String> pendingThumbnails = ConcurrentHashMap.newKeySet();
+    // Formats ImageIO cannot decode (e.g. HEIC, WebP); their thumbnail requests fall through to 404
+    private final Set<String> unsupportedThumbnails = ConcurrentHashMap.newKeySet();
+
+    record StoredBlob(String hash, String contentType, long size) {
+    }
+
+    @PostConstruct
+    void start() {
+        thumbnailer = Executors.newFixedThreadPool(thumbnailThreads, runnable -> {
+            Thread thread = new Thread(runnable, "receipt-thumbnailer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        thumbnailer.shutdownNow();
+    }
+
+    /**
+     * Streams an image into the store and queues its thumbnail. Rejects anything whose
+     * leading bytes are not a known image format.
+     */
+    StoredBlob store(InputStream content) {
+        Path tempDir = Paths.get(directory, "tmp");
+        Path temp = null;
+        try {
+            Files.createDirectories(tempDir);
+            temp = Files.createTempFile(tempDir, "upload-", ".part");
+
+            InputStream in = new BufferedInputStream(content, COPY_BUFFER_SIZE);
+            in.mark(SNIFF_LENGTH);
+            String contentType = sniffContentType(in.readNBytes(SNIFF_LENGTH));
+            if (contentType == null) {
+                throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                        "Receipt must be a JPEG, PNG, GIF, WebP or HEIC image");
+            }
+            in.reset();
+
+            MessageDigest digest = sha256();
+            long size = 0;
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = original(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                    temp = null;
+                } catch (FileAlreadyExistsException e) {
+                    // Stored concurrently by another upload of the same image
+                }
+            }
+            requestThumbnail(hash);
+            return new StoredBlob(hash, contentType, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store receipt image", e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.warn("Could not delete temporary upload {}", temp, e);
+                }
+            }
+        }
+    }
+
+    Path original(String hash) {
+        return Paths.get(directory, hash.substring(0, 2), hash.substring(2, 4), hash);
+    }
+
+    Path thumbnail(String hash) {
+        return original(hash).resolveSibling(hash + ".thumb.jpg");
+    }
+
+    /**
+     * Queues the thumbnail for a blob unless it exists, is already queued, or cannot be made.
+     */
+    void requestThumbnail(String hash) {
+        if (unsupportedThumbnails.contains(hash) || Files.exists(thumbnail(hash)) || !pendingThumbnails.add(hash)) {
+            return;
+        }
+        thumbnailer.execute(() -> {
+            try {
+                writeThumbnail(hash);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not create thumbnail for receipt blob {}", hash, e);
+            } finally {
+                pendingThumbnails.remove(hash);
+            }
+        });
+    }
+
+    private void writeThumbnail(String hash) throws IOException {
+        BufferedImage source;
+        try (ImageInputStream input = ImageIO.createImageInputStream(original(hash).toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                unsupportedThumbnails.add(hash);
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                // Decode at most ~2x the thumbnail size, then scale smoothly from there
+                int step = Math.max(1, longestSide / (thumbnailSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                source = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        double scale = Math.min(1.0, (double) thumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // White behind transparent PNGs instead of JPEG's black
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Path target = thumbnail(hash);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            ImageIO.write(thumbnail, "jpg", out);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String sniffContentType(byte[] head) {
+        if (startsWith(head, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(head, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(head, 0, 'R', 'I', 'F', 'F') && startsWith(head, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        if (startsWith(head, 4, 'f', 't', 'y', 'p', 'h', 'e', 'i')
+                || startsWith(head, 4, 'f', 't', 'y', 'p', 'm', 'i', 'f', '1')) {
+            return "image/heic";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, int... expected) {
+        if (bytes.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((bytes[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.xpenseai.receipt;
+
+import java.time.LocalDateTime;
+
+/**
+ * What the upload endpoint returns; {@code receiptId} goes on the expenses of the receipt.
+ */
+public record ReceiptView(
+        Long receiptId,
+        String contentType,
+        Long size,
+        LocalDateTime createdAt) {
+
+    static ReceiptView of(Receipt receipt) {
+        return new ReceiptView(receipt.getId(), receipt.getContentType(), receipt.getSize(), receipt.getCreatedAt());
+    }
+}
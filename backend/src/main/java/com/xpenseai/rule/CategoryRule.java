@@ -0,0 +1,54 @@
+package com.xpenseai.rule;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import com.xpenseai.user.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+
+/**
+ * "Description contains {@code keyword} and {@code minAmount <= amount < maxAmount} gives
+ * {@code category}". Any of keyword, minAmount and maxAmount may be left out, but not all
+ * three. Keywords match case-insensitively anywhere in the description.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "category_rules")
+public class CategoryRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 100)
+    private String keyword;
+
+    @Column(name = "min_amount")
+    private Double minAmount;
+
+    @Column(name = "max_amount")
+    private Double maxAmount;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
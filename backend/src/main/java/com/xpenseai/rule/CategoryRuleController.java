@@ -0,0 +1,65 @@
+package com.xpenseai.rule;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import com.xpenseai.user.User;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/rules")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class CategoryRuleController {
+
+    private final CategoryRuleService categoryRuleService;
+
+    @GetMapping
+    public ResponseEntity<List<CategoryRule>> getRules(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(categoryRuleService.getRules(user));
+    }
+
+    @PostMapping
+    public ResponseEntity<CategoryRule> createRule(
+            @RequestBody CategoryRuleRequest request,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(categoryRuleService.createRule(request, user));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<CategoryRule> updateRule(
+            @PathVariable Long id,
+            @RequestBody CategoryRuleRequest request,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(categoryRuleService.updateRule(id, request, user));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRule(
+            @PathVariable Long id,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        categoryRuleService.deleteRule(id, user);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * The category the user's rules give an expense, or 204 when none applies (the client
+     * then falls back to asking the model).
+     */
+    @GetMapping("/match")
+    public ResponseEntity<CategoryRuleMatch> match(
+            @RequestParam String description,
+            @RequestParam(required = false) Double amount,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return categoryRuleService.match(description, amount, user)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
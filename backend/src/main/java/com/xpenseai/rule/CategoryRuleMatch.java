@@ -0,0 +1,7 @@
+package com.xpenseai.rule;
+
+/**
+ * The rule that decided an expense's category.
+ */
+public record CategoryRuleMatch(Long ruleId, String category) {
+}
@@ -0,0 +1,281 @@
+package com.xpenseai.rule;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * One user's rules compiled for matching. Keywords go into an Aho-Corasick automaton, so a
+ * description is scanned once however many rules there are; rules with only an amount
+ * range are resolved by a binary search over amount intervals whose winner is worked out
+ * up front. Immutable, so one instance serves all of the user's requests until the rules
+ * change.
+ *
+ * When several rules match, the most specific one wins: a keyword with an amount range,
+ * then a keyword alone (longer keywords first), then an amount range alone. Ties go to the
+ * older rule.
+ */
+public final class CategoryRuleMatcher {
+
+    public static final CategoryRuleMatcher EMPTY = compile(List.of());
+
+    private static final int ROOT = 0;
+    private static final int[] NO_RULES = new int[0];
+
+    private record Rule(Long id, String category, String keyword, double minAmount, double maxAmount) {
+
+        boolean accepts(Double amount) {
+            if (amount == null) {
+                return minAmount == Double.NEGATIVE_INFINITY && maxAmount == Double.POSITIVE_INFINITY;
+            }
+            return amount >= minAmount && amount < maxAmount;
+        }
+
+        boolean bounded() {
+            return minAmount != Double.NEGATIVE_INFINITY || maxAmount != Double.POSITIVE_INFINITY;
+        }
+    }
+
+    // In precedence order: a match is found as an index, and the lowest index wins
+    private final Rule[] rules;
+
+    // The automaton: each node's outgoing characters (sorted) and target nodes, its failure
+    // link, and the rules whose keyword ends there, directly or through its failure chain
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] failure;
+    private final int[][] outputs;
+
+    // Amount-only rules: winners[i] holds for bounds[i - 1] <= amount < bounds[i], or -1
+    private final double[] bounds;
+    private final int[] winners;
+
+    private CategoryRuleMatcher(Rule[] rules, char[][] labels, int[][] targets, int[] failure, int[][] outputs,
+            double[] bounds, int[] winners) {
+        this.rules = rules;
+        this.labels = labels;
+        this.targets = targets;
+        this.failure = failure;
+        this.outputs = outputs;
+        this.bounds = bounds;
+        this.winners = winners;
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * The highest-precedence rule matching the expense, if any. Allocation-free apart from
+     * the result.
+     */
+    public Optional<CategoryRuleMatch> match(String description, Double amount) {
+        int best = Integer.MAX_VALUE;
+        if (description != null && labels[ROOT].length > 0) {
+            int node = ROOT;
+            boolean afterSpace = false;
+            for (int i = 0; i < description.length() && best > 0; i++) {
+                char c = description.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    // Runs of whitespace match a single space in the keyword
+                    if (afterSpace) {
+                        continue;
+                    }
+                    c = ' ';
+                    afterSpace = true;
+                } else {
+                    c = Character.toLowerCase(c);
+                    afterSpace = false;
+                }
+                node = step(node, c);
+                // Sorted, so the first rule whose amount range fits is this node's best
+                for (int rule : outputs[node]) {
+                    if (rule >= best) {
+                        break;
+                    }
+                    if (rules[rule].accepts(amount)) {
+                        best = rule;
+                        break;
+                    }
+                }
+            }
+        }
+        if (best == Integer.MAX_VALUE && amount != null && !Double.isNaN(amount)) {
+            int interval = Arrays.binarySearch(bounds, amount);
+            // An exact hit on a bound starts the interval to its right
+            interval = interval >= 0 ? interval + 1 : -interval - 1;
+            best = winners[interval] >= 0 ? winners[interval] : Integer.MAX_VALUE;
+        }
+        if (best == Integer.MAX_VALUE) {
+            return Optional.empty();
+        }
+        return Optional.of(new CategoryRuleMatch(rules[best].id(), rules[best].category()));
+    }
+
+    private int step(int node, char c) {
+        while (true) {
+            int index = Arrays.binarySearch(labels[node], c);
+            if (index >= 0) {
+                return targets[node][index];
+            }
+            if (node == ROOT) {
+                return ROOT;
+            }
+            node = failure[node];
+        }
+    }
+
+    static CategoryRuleMatcher compile(List<CategoryRule> categoryRules) {
+        Rule[] rules = categoryRules.stream()
+                .map(rule -> new Rule(rule.getId(), rule.getCategory(), normalize(rule.getKeyword()),
+                        rule.getMinAmount() != null ? rule.getMinAmount() : Double.NEGATIVE_INFINITY,
+                        rule.getMaxAmount() != null ? rule.getMaxAmount() : Double.POSITIVE_INFINITY))
+                .sorted(Comparator.comparing((Rule rule) -> rule.keyword() == null)
+                        .thenComparing(rule -> !rule.bounded())
+                        .thenComparing(rule -> rule.keyword() == null ? 0 : -rule.keyword().length())
+                        .thenComparing(Rule::id, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toArray(Rule[]::new);
+
+        // Trie of the keywords, built with maps and then frozen into sorted arrays
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        children.add(new HashMap<>());
+        ends.add(new ArrayList<>());
+        for (int r = 0; r < rules.length; r++) {
+            String keyword = rules[r].keyword();
+            if (keyword == null) {
+                continue;
+            }
+            int node = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                Integer next = children.get(node).get(keyword.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.get(node).put(keyword.charAt(i), next);
+                    children.add(new HashMap<>());
+                    ends.add(new ArrayList<>());
+                }
+                node = next;
+            }
+            ends.get(node).add(r);
+        }
+
+        int nodes = children.size();
+        char[][] labels = new char[nodes][];
+        int[][] targets = new int[nodes][];
+        for (int node = 0; node < nodes; node++) {
+            Character[] sorted = children.get(node).keySet().toArray(Character[]::new);
+            Arrays.sort(sorted);
+            labels[node] = new char[sorted.length];
+            targets[node] = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                labels[node][i] = sorted[i];
+                targets[node][i] = children.get(node).get(sorted[i]);
+            }
+        }
+
+        // Failure links breadth-first, so a node's failure target is complete before its children
+        int[] failure = new int[nodes];
+        int[][] outputs = new int[nodes][];
+        outputs[ROOT] = NO_RULES;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[ROOT]) {
+            failure[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            // The failure target is shallower, so its outputs are already final
+            outputs[node] = merge(ends.get(node), outputs[failure[node]]);
+            for (int i = 0; i < labels[node].length; i++) {
+                int child = targets[node][i];
+                int fallback = failure[node];
+                int next;
+                while ((next = child(labels, targets, fallback, labels[node][i])) < 0 && fallback != ROOT) {
+                    fallback = failure[fallback];
+                }
+                failure[child] = next >= 0 && next != child ? next : ROOT;
+                queue.add(child);
+            }
+        }
+
+        // Amount-only rules: every bound splits the line, and within each piece the winner is fixed
+        TreeSet<Double> points = new TreeSet<>();
+        for (Rule rule : rules) {
+            if (rule.keyword() == null) {
+                points.add(rule.minAmount());
+                points.add(rule.maxAmount());
+            }
+        }
+        points.remove(Double.NEGATIVE_INFINITY);
+        points.remove(Double.POSITIVE_INFINITY);
+        double[] bounds = points.stream().mapToDouble(Double::doubleValue).toArray();
+        int[] winners = new int[bounds.length + 1];
+        for (int interval = 0; interval <= bounds.length; interval++) {
+            double low = interval == 0 ? Double.NEGATIVE_INFINITY : bounds[interval - 1];
+            double high = interval == bounds.length ? Double.POSITIVE_INFINITY : bounds[interval];
+            winners[interval] = -1;
+            for (int r = 0; r < rules.length; r++) {
+                if (rules[r].keyword() == null && rules[r].minAmount() <= low && high <= rules[r].maxAmount()) {
+                    winners[interval] = r;
+                    break;
+                }
+            }
+        }
+
+        return new CategoryRuleMatcher(rules, labels, targets, failure, outputs, bounds, winners);
+    }
+
+    private static int child(char[][] labels, int[][] targets, int node, char c) {
+        int index = Arrays.binarySearch(labels[node], c);
+        return index >= 0 ? targets[node][index] : -1;
+    }
+
+    private static int[] merge(List<Integer> own, int[] inherited) {
+        if (own.isEmpty()) {
+            return inherited;
+        }
+        int[] merged = new int[own.size() + inherited.length];
+        int size = 0;
+        for (int rule : own) {
+            merged[size++] = rule;
+        }
+        for (int rule : inherited) {
+            merged[size++] = rule;
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    /**
+     * Lower case with whitespace runs collapsed to one space, the form descriptions are
+     * read in while matching; null when nothing is left.
+     */
+    static String normalize(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(keyword.length());
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                    normalized.append(' ');
+                }
+            } else {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        int end = normalized.length();
+        if (end > 0 && normalized.charAt(end - 1) == ' ') {
+            normalized.setLength(end - 1);
+        }
+        return normalized.length() == 0 ? null : normalized.toString();
+    }
+}
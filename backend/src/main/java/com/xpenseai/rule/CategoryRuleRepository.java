@@ -0,0 +1,14 @@
+package com.xpenseai.rule;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoryRuleRepository extends JpaRepository<CategoryRule, Long> {
+
+    List<CategoryRule> findByUserIdOrderById(Integer userId);
+
+    Optional<CategoryRule> findByIdAndUserId(Long id, Integer userId);
+
+    long countByUserId(Integer userId);
+}
@@ -0,0 +1,17 @@
+package com.xpenseai.rule;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryRuleRequest {
+    private String keyword;
+    private Double minAmount; // inclusive
+    private Double maxAmount; // exclusive
+    private String category;
+}
@@ -0,0 +1,127 @@
+package com.xpenseai.rule;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.xpenseai.user.User;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Stores users' categorization rules and keeps each user's rules compiled into a
+ * {@link CategoryRuleMatcher}. A matcher is compiled on first use and dropped once a change
+ * to the user's rules commits, so matching an expense never touches the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryRuleService {
+
+    private final CategoryRuleRepository categoryRuleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Integer, CategoryRuleMatcher> matchers = new ConcurrentHashMap<>();
+    // Bumped on every invalidation, so a compile that raced one can tell its rules may be stale
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Value("${xpenseai.rules.max-per-user:500}")
+    private int maxPerUser;
+
+    @Transactional(readOnly = true)
+    public List<CategoryRule> getRules(User user) {
+        return categoryRuleRepository.findByUserIdOrderById(user.getId());
+    }
+
+    @Transactional
+    public CategoryRule createRule(CategoryRuleRequest request, User user) {
+        if (categoryRuleRepository.countByUserId(user.getId()) >= maxPerUser) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxPerUser + " rules are allowed");
+        }
+        CategoryRule rule = CategoryRule.builder().user(user).build();
+        apply(request, rule);
+        CategoryRule saved = categoryRuleRepository.save(rule);
+        eventPublisher.publishEvent(new CategoryRulesChangedEvent(user.getId()));
+        return saved;
+    }
+
+    @Transactional
+    public CategoryRule updateRule(Long ruleId, CategoryRuleRequest request, User user) {
+        CategoryRule rule = categoryRuleRepository.findByIdAndUserId(ruleId, user.getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Rule not found"));
+        apply(request, rule);
+        CategoryRule saved = categoryRuleRepository.save(rule);
+        eventPublisher.publishEvent(new CategoryRulesChangedEvent(user.getId()));
+        return saved;
+    }
+
+    @Transactional
+    public void deleteRule(Long ruleId, User user) {
+        CategoryRule rule = categoryRuleRepository.findByIdAndUserId(ruleId, user.getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Rule not found"));
+        categoryRuleRepository.delete(rule);
+        eventPublisher.publishEvent(new CategoryRulesChangedEvent(user.getId()));
+    }
+
+    public Optional<CategoryRuleMatch> match(String description, Double amount, User user) {
+        return matcherFor(user.getId()).match(description, amount);
+    }
+
+    /**
+     * The user's compiled rules; shared and immutable, so callers may hold on to it for a batch.
+     */
+    public CategoryRuleMatcher matcherFor(Integer userId) {
+        CategoryRuleMatcher cached = matchers.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = invalidations.get();
+        CategoryRuleMatcher compiled =
+                CategoryRuleMatcher.compile(categoryRuleRepository.findByUserIdOrderById(userId));
+        matchers.putIfAbsent(userId, compiled);
+        // A change that committed while the rules were read may have been invalidated before the put
+        if (invalidations.get() != seen) {
+            matchers.remove(userId, compiled);
+        }
+        return compiled;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRulesChanged(CategoryRulesChangedEvent event) {
+        invalidations.incrementAndGet();
+        matchers.remove(event.getUserId());
+    }
+
+    private static void apply(CategoryRuleRequest request, CategoryRule rule) {
+        // Stored as typed; the matcher lower-cases it and collapses its whitespace
+        String keyword = CategoryRuleMatcher.normalize(request.getKeyword()) == null
+                ? null : request.getKeyword().trim();
+        if (request.getCategory() == null || request.getCategory().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A rule needs a category");
+        }
+        if (keyword == null && request.getMinAmount() == null && request.getMaxAmount() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A rule needs a keyword or an amount range");
+        }
+        if (keyword != null && keyword.length() > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Keywords are at most 100 characters");
+        }
+        if (request.getMinAmount() != null && request.getMaxAmount() != null
+                && request.getMinAmount() >= request.getMaxAmount()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minAmount must be below maxAmount");
+        }
+        rule.setKeyword(keyword);
+        rule.setMinAmount(request.getMinAmount());
+        rule.setMaxAmount(request.getMaxAmount());
+        rule.setCategory(request.getCategory().trim());
+    }
+}
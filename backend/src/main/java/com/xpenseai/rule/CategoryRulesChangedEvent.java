@@ -0,0 +1,15 @@
+package com.xpenseai.rule;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by {@link CategoryRuleService} when a user's rules are created, edited or
+ * deleted, so the user's compiled matcher is dropped once the change commits.
+ */
+@Data
+@AllArgsConstructor
+public class CategoryRulesChangedEvent {
+
+    private Integer userId;
+}
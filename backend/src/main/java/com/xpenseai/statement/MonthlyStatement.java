@@ -0,0 +1,37 @@
+package com.xpenseai.statement;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Everything one user's month-end statement shows, ready to render.
+ */
+record MonthlyStatement(
+        String name,
+        String email,
+        YearMonth month,
+        double total,
+        int expenseCount,
+        List<CategoryLine> categories,
+        List<BudgetLine> budgets,
+        List<MerchantLine> topMerchants,
+        List<Anomaly> anomalies) {
+
+    /**
+     * {@code previousAverage} is the category's average over the three months before, or
+     * null when it had no spending then.
+     */
+    record CategoryLine(String category, double total, int count, Double previousAverage) {
+    }
+
+    record BudgetLine(String category, String periodType, LocalDate periodStart, LocalDate periodEnd,
+            double budgetAmount, double spentAmount) {
+    }
+
+    record MerchantLine(String merchant, double total, int count) {
+    }
+
+    record Anomaly(LocalDate date, String description, String category, double amount, String reason) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.xpenseai.statement;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Folds one user's expense rows into a {@link MonthlyStatement} as they stream past, so
+ * only per-category and per-merchant running totals (plus a few of the largest rows per
+ * category) are ever held, never the rows themselves.
+ *
+ * Not thread-safe; each instance is filled by the single worker that owns its chunk.
+ */
+final class StatementAccumulator {
+
+    private static final int TOP_MERCHANTS = 5;
+    private static final int CANDIDATES_PER_CATEGORY = 3;
+    // An expense is unusual when it is this many times the average of the category's other expenses
+    private static final double UNUSUAL_EXPENSE_FACTOR = 3.0;
+    private static final int UNUSUAL_EXPENSE_MIN_COUNT = 4;
+    // A category spikes when the month is this many times its trailing three-month average
+    private static final double CATEGORY_SPIKE_FACTOR = 1.5;
+    private static final int TRAILING_MONTHS = 3;
+
+    private static final class CategoryStats {
+        double total;
+        int count;
+        final PriorityQueue<StatementQueries.ExpenseRow> largest =
+                new PriorityQueue<>(Comparator.comparingDouble(StatementQueries.ExpenseRow::amount));
+    }
+
+    private static final class MerchantStats {
+        final String name;
+        double total;
+        int count;
+
+        MerchantStats(String name) {
+            this.name = name;
+        }
+    }
+
+    private final Map<String, CategoryStats> categories = new HashMap<>();
+    private final Map<String, MerchantStats> merchants = new HashMap<>();
+    private final Map<String, Double> trailingTotals = new HashMap<>();
+    private final List<MonthlyStatement.BudgetLine> budgets = new ArrayList<>();
+    private double total;
+    private int count;
+
+    void addExpense(StatementQueries.ExpenseRow row) {
+        double amount = row.amount();
+        total += amount;
+        count++;
+
+        CategoryStats stats = categories.computeIfAbsent(row.category(), c -> new CategoryStats());
+        stats.total += amount;
+        stats.count++;
+        stats.largest.add(row);
+        if (stats.largest.size() > CANDIDATES_PER_CATEGORY) {
+            stats.largest.poll();
+        }
+
+        String description = row.description() == null ? "" : row.description().trim().replaceAll("\\s+", " ");
+        if (!description.isEmpty()) {
+            MerchantStats merchant = merchants.computeIfAbsent(description.toLowerCase(Locale.ROOT),
+                    key -> new MerchantStats(description));
+            merchant.total += amount;
+            merchant.count++;
+        }
+    }
+
+    void addTrailingTotal(StatementQueries.CategoryTotal categoryTotal) {
+        trailingTotals.merge(categoryTotal.category(), categoryTotal.total(), Double::sum);
+    }
+
+    void addBudget(StatementQueries.BudgetRow row) {
+        budgets.add(new MonthlyStatement.BudgetLine(row.category(), row.periodType(), row.periodStart(),
+                row.periodEnd(), row.budgetAmount(), row.spentAmount()));
+    }
+
+    MonthlyStatement toStatement(StatementQueries.UserRow user, YearMonth month) {
+        List<MonthlyStatement.CategoryLine> categoryLines = new ArrayList<>();
+        List<MonthlyStatement.Anomaly> anomalies = new ArrayList<>();
+        categories.forEach((category, stats) -> {
+            Double trailing = trailingTotals.get(category);
+            Double previousAverage = trailing == null ? null : round(trailing / TRAILING_MONTHS);
+            categoryLines.add(new MonthlyStatement.CategoryLine(category, round(stats.total), stats.count,
+                    previousAverage));
+
+            if (previousAverage != null && previousAverage > 0
+                    && stats.total >= previousAverage * CATEGORY_SPIKE_FACTOR) {
+                anomalies.add(new MonthlyStatement.Anomaly(null, null, category, round(stats.total),
+                        String.format(Locale.ROOT, "%.1fx the %d-month average of %.2f",
+                                stats.total / previousAverage, TRAILING_MONTHS, previousAverage)));
+            }
+
+            if (stats.count >= UNUSUAL_EXPENSE_MIN_COUNT) {
+                for (StatementQueries.ExpenseRow row : stats.largest) {
+                    // Compared against the other expenses so the outlier does not inflate its own baseline
+                    double othersAverage = (stats.total - row.amount()) / (stats.count - 1);
+                    if (othersAverage > 0 && row.amount() >= othersAverage * UNUSUAL_EXPENSE_FACTOR) {
+                        anomalies.add(new MonthlyStatement.Anomaly(row.date(), row.description(), category,
+                                round(row.amount()), String.format(Locale.ROOT,
+                                        "%.1fx the usual %s expense of %.2f",
+                                        row.amount() / othersAverage, category, othersAverage)));
+                    }
+                }
+            }
+        });
+        categoryLines.sort(Comparator.comparingDouble(MonthlyStatement.CategoryLine::total).reversed());
+        anomalies.sort(Comparator.comparingDouble(MonthlyStatement.Anomaly::amount).reversed());
+
+        List<MonthlyStatement.MerchantLine> topMerchants = merchants.values().stream()
+                .sorted(Comparator.comparingDouble((MerchantStats merchant) -> merchant.total).reversed())
+                .limit(TOP_MERCHANTS)
+                .map(merchant -> new MonthlyStatement.MerchantLine(merchant.name, round(merchant.total),
+                        merchant.count))
+                .toList();
+
+        String name = ((user.firstname() == null ? "" : user.firstname()) + " "
+                + (user.lastname() == null ? "" : user.lastname())).trim();
+        return new MonthlyStatement(name, user.email(), month, round(total), count, categoryLines,
+                List.copyOf(budgets), topMerchants, anomalies);
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.xpenseai.statement;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import com.xpenseai.user.User;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/statements")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class StatementController {
+
+    private final StatementStore statementStore;
+
+    @GetMapping
+    public ResponseEntity<List<String>> getStatementMonths(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        List<String> months = statementStore.months(user.getId()).stream().map(YearMonth::toString).toList();
+        return ResponseEntity.ok(months);
+    }
+
+    @GetMapping(value = "/{month}", produces = MediaType.TEXT_HTML_VALUE)
+    public ResponseEntity<byte[]> getStatement(
+            @PathVariable String month,
+            Authentication authentication) throws IOException {
+        User user = (User) authentication.getPrincipal();
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "month must be yyyy-MM");
+        }
+        Path path = statementStore.find(yearMonth, user.getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Statement not found"));
+        return ResponseEntity.ok().contentType(MediaType.TEXT_HTML).body(Files.readAllBytes(path));
+    }
+}
@@ -0,0 +1,256 @@
+package com.xpenseai.statement;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates every user's statement for the previous month. Users are paged by id into
+ * chunks; each chunk is one task on a fixed worker pool, reads its users' month with a
+ * streamed cursor plus two small aggregate queries, then renders and writes the files.
+ * At most {@code max-db-concurrency} chunks hold a connection at a time, so rendering on
+ * the other workers overlaps with the reads without the job starving request traffic.
+ *
+ * Progress is checkpointed as the highest user id below which every chunk is done. A run
+ * that stops half-way (crash, deploy, failed chunk) resumes from there on the next
+ * trigger, redoing at most the chunks that were in flight. The trigger fires hourly and is
+ * a no-op once the month's checkpoint is complete.
+ */
+@Slf4j
+@Component
+public class StatementJob {
+
+    private static final int TRAILING_MONTHS = 3;
+
+    private final StatementQueries statementQueries;
+    private final StatementStore statementStore;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter generated;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${xpenseai.statements.enabled:false}")
+    private boolean enabled;
+
+    @Value("${xpenseai.statements.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${xpenseai.statements.threads:4}")
+    private int threads;
+
+    @Value("${xpenseai.statements.max-db-concurrency:2}")
+    private int maxDbConcurrency;
+
+    public StatementJob(StatementQueries statementQueries, StatementStore statementStore,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.statementQueries = statementQueries;
+        this.statementStore = statementStore;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.generated = meterRegistry.counter("xpenseai.statements.generated");
+    }
+
+    @Scheduled(cron = "${xpenseai.statements.cron:0 30 * * * *}")
+    public void generatePreviousMonth() {
+        if (!enabled) {
+            return;
+        }
+        generate(YearMonth.now().minusMonths(1));
+    }
+
+    /**
+     * Generates (or resumes generating) the statements for {@code month}. Returns the number
+     * written by this call; zero when the month is already complete or a run is in progress.
+     */
+    public int generate(YearMonth month) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Statement generation already running; skipping trigger for {}", month);
+            return 0;
+        }
+        try {
+            return run(month);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int run(YearMonth month) {
+        StatementStore.Checkpoint checkpoint = statementStore.readCheckpoint(month);
+        if (checkpoint.complete()) {
+            return 0;
+        }
+        if (checkpoint.lastUserId() > 0) {
+            log.info("Resuming statements for {} after user {}", month, checkpoint.lastUserId());
+        }
+
+        long startedAt = System.nanoTime();
+        Semaphore dbPermits = new Semaphore(maxDbConcurrency);
+        // Bounds the chunks whose users are held in memory waiting for a worker
+        Semaphore queued = new Semaphore(threads * 2);
+        Watermark watermark = new Watermark(checkpoint.lastUserId());
+        AtomicInteger written = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "statement-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            int after = checkpoint.lastUserId();
+            while (failure.get() == null) {
+                int from = after;
+                List<StatementQueries.UserRow> users = withConnection(dbPermits,
+                        () -> statementQueries.usersAfter(from, chunkSize));
+                if (users.isEmpty()) {
+                    break;
+                }
+                after = users.get(users.size() - 1).id();
+                long sequence = watermark.register(after);
+                queued.acquire();
+                workers.execute(() -> {
+                    try {
+                        written.addAndGet(generateChunk(month, users, dbPermits));
+                        synchronized (watermark) {
+                            Integer advancedTo = watermark.complete(sequence);
+                            if (advancedTo != null) {
+                                statementStore.writeCheckpoint(month,
+                                        new StatementStore.Checkpoint(advancedTo, false));
+                            }
+                        }
+                    } catch (RuntimeException | Error e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        queued.release();
+                    }
+                });
+            }
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } finally {
+            workers.shutdownNow();
+        }
+
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt);
+        if (failure.get() != null) {
+            log.error("Statement generation for {} stopped after {} statements in {}s; "
+                    + "will resume after user {}", month, written.get(), seconds, watermark.lastUserId(), failure.get());
+            return written.get();
+        }
+        statementStore.writeCheckpoint(month, new StatementStore.Checkpoint(watermark.lastUserId(), true));
+        log.info("Generated {} statements for {} in {}s", written.get(), month, seconds);
+        return written.get();
+    }
+
+    private int generateChunk(YearMonth month, List<StatementQueries.UserRow> users, Semaphore dbPermits) {
+        Integer firstUserId = users.get(0).id();
+        Integer lastUserId = users.get(users.size() - 1).id();
+        LocalDate start = month.atDay(1);
+        LocalDate end = month.atEndOfMonth();
+        Map<Integer, StatementAccumulator> accumulators = new HashMap<>(users.size() * 2);
+        users.forEach(user -> accumulators.put(user.id(), new StatementAccumulator()));
+
+        withConnection(dbPermits, () -> {
+            try (Stream<StatementQueries.ExpenseRow> rows =
+                    statementQueries.streamExpenses(firstUserId, lastUserId, start, end)) {
+                rows.forEach(row -> accumulator(accumulators, row.userId()).addExpense(row));
+            }
+            statementQueries.sumByCategory(firstUserId, lastUserId,
+                    month.minusMonths(TRAILING_MONTHS).atDay(1), month.minusMonths(1).atEndOfMonth())
+                    .forEach(total -> accumulator(accumulators, total.userId()).addTrailingTotal(total));
+            statementQueries.budgetHistory(firstUserId, lastUserId, start, end)
+                    .forEach(row -> accumulator(accumulators, row.userId()).addBudget(row));
+            return null;
+        });
+
+        for (StatementQueries.UserRow user : users) {
+            MonthlyStatement statement = accumulators.get(user.id()).toStatement(user, month);
+            statementStore.write(month, user.id(), StatementRenderer.render(statement));
+            generated.increment();
+        }
+        return users.size();
+    }
+
+    /**
+     * Runs {@code work} in a read-only transaction (routed to a replica when one is
+     * configured) while holding one of the job's database permits.
+     */
+    private <T> T withConnection(Semaphore dbPermits, Supplier<T> work) {
+        dbPermits.acquireUninterruptibly();
+        try {
+            return readOnlyTransaction.execute(status -> work.get());
+        } finally {
+            dbPermits.release();
+        }
+    }
+
+    private static StatementAccumulator accumulator(Map<Integer, StatementAccumulator> accumulators, Integer userId) {
+        // A user registered after the chunk was paged gets a higher id, so this only guards odd data
+        return accumulators.computeIfAbsent(userId, id -> new StatementAccumulator());
+    }
+
+    /**
+     * Tracks chunks in the order they were paged and advances past a chunk only once it and
+     * every chunk before it are done, so the checkpoint never skips an unfinished chunk.
+     */
+    private static final class Watermark {
+        private final TreeMap<Long, Integer> pending = new TreeMap<>();
+        private final Set<Long> done = new HashSet<>();
+        private long nextSequence;
+        private int lastUserId;
+
+        Watermark(int lastUserId) {
+            this.lastUserId = lastUserId;
+        }
+
+        synchronized long register(int chunkLastUserId) {
+            pending.put(nextSequence, chunkLastUserId);
+            return nextSequence++;
+        }
+
+        /**
+         * Returns the new watermark if it moved, otherwise null.
+         */
+        synchronized Integer complete(long sequence) {
+            done.add(sequence);
+            Integer advancedTo = null;
+            while (!pending.isEmpty() && done.remove(pending.firstKey())) {
+                advancedTo = pending.pollFirstEntry().getValue();
+            }
+            if (advancedTo != null) {
+                lastUserId = advancedTo;
+            }
+            return advancedTo;
+        }
+
+        synchronized int lastUserId() {
+            return lastUserId;
+        }
+    }
+}
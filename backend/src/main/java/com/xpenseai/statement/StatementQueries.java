@@ -0,0 +1,102 @@
+package com.xpenseai.statement;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * The read side of the statement job. Everything is selected per chunk of users (a
+ * contiguous id range) rather than per user, so one chunk costs a fixed handful of queries
+ * however many users it holds. Rows are selected straight into records; no entities are
+ * loaded.
+ */
+@Repository
+class StatementQueries {
+
+    record UserRow(Integer id, String firstname, String lastname, String email) {
+    }
+
+    record ExpenseRow(Integer userId, LocalDate date, String description, Double amount, String category) {
+    }
+
+    record CategoryTotal(Integer userId, String category, Double total) {
+    }
+
+    record BudgetRow(Integer userId, String category, Double budgetAmount, Double spentAmount,
+            LocalDate periodStart, LocalDate periodEnd, String periodType) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${xpenseai.statements.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * The next {@code limit} users after {@code afterUserId}, in id order (keyset paging).
+     */
+    List<UserRow> usersAfter(Integer afterUserId, int limit) {
+        return entityManager.createQuery(
+                "select u.id, u.firstname, u.lastname, u.email from User u where u.id > :after order by u.id",
+                UserRow.class)
+                .setParameter("after", afterUserId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Every expense of the users in the id range dated within the period, read through a
+     * server-side cursor. Must be consumed (and closed) inside the surrounding transaction.
+     */
+    Stream<ExpenseRow> streamExpenses(Integer firstUserId, Integer lastUserId, LocalDate start, LocalDate end) {
+        return entityManager.createQuery(
+                "select e.user.id, e.date, e.description, e.amount, e.category from Expense e "
+                        + "where e.user.id between :first and :last and e.date between :start and :end",
+                ExpenseRow.class)
+                .setParameter("first", firstUserId)
+                .setParameter("last", lastUserId)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    List<CategoryTotal> sumByCategory(Integer firstUserId, Integer lastUserId, LocalDate start, LocalDate end) {
+        return entityManager.createQuery(
+                "select e.user.id, e.category, sum(e.amount) from Expense e "
+                        + "where e.user.id between :first and :last and e.date between :start and :end "
+                        + "group by e.user.id, e.category",
+                CategoryTotal.class)
+                .setParameter("first", firstUserId)
+                .setParameter("last", lastUserId)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .getResultList();
+    }
+
+    /**
+     * Closed budget periods that overlap the given period.
+     */
+    List<BudgetRow> budgetHistory(Integer firstUserId, Integer lastUserId, LocalDate start, LocalDate end) {
+        return entityManager.createQuery(
+                "select h.user.id, h.category, h.budgetAmount, h.spentAmount, h.periodStart, h.periodEnd, "
+                        + "h.periodType from BudgetHistory h "
+                        + "where h.user.id between :first and :last "
+                        + "and h.periodStart <= :end and h.periodEnd >= :start "
+                        + "order by h.periodStart",
+                BudgetRow.class)
+                .setParameter("first", firstUserId)
+                .setParameter("last", lastUserId)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .getResultList();
+    }
+}
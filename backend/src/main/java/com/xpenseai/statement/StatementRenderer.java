@@ -0,0 +1,101 @@
+package com.xpenseai.statement;
+
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * Renders a {@link MonthlyStatement} as a self-contained HTML page (inline styles, no
+ * external assets) that prints cleanly, so the browser's "Save as PDF" gives the PDF copy.
+ */
+final class StatementRenderer {
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH);
+
+    private StatementRenderer() {
+    }
+
+    static String render(MonthlyStatement statement) {
+        StringBuilder html = new StringBuilder(4096);
+        String title = "XpenseAI statement - " + statement.month().format(MONTH);
+        html.append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"utf-8\">\n<title>")
+                .append(escape(title))
+                .append("</title>\n<style>body{font-family:sans-serif;margin:2em;color:#222}"
+                        + "table{border-collapse:collapse;width:100%;margin-bottom:1.5em}"
+                        + "th,td{border-bottom:1px solid #ddd;padding:4px 8px;text-align:left}"
+                        + "td.n,th.n{text-align:right}.over{color:#b00020}</style>\n</head>\n<body>\n")
+                .append("<h1>").append(escape(title)).append("</h1>\n")
+                .append("<p>").append(escape(statement.name())).append(" &lt;")
+                .append(escape(statement.email())).append("&gt;</p>\n")
+                .append("<p>Total spent: <strong>").append(money(statement.total())).append("</strong> across ")
+                .append(statement.expenseCount()).append(statement.expenseCount() == 1 ? " expense" : " expenses")
+                .append("</p>\n");
+
+        html.append("<h2>Spending by category</h2>\n");
+        if (statement.categories().isEmpty()) {
+            html.append("<p>No expenses this month.</p>\n");
+        } else {
+            html.append("<table><tr><th>Category</th><th class=\"n\">Expenses</th><th class=\"n\">Total</th>"
+                    + "<th class=\"n\">3-month average</th></tr>\n");
+            for (MonthlyStatement.CategoryLine line : statement.categories()) {
+                html.append("<tr><td>").append(escape(line.category())).append("</td><td class=\"n\">")
+                        .append(line.count()).append("</td><td class=\"n\">").append(money(line.total()))
+                        .append("</td><td class=\"n\">")
+                        .append(line.previousAverage() == null ? "-" : money(line.previousAverage()))
+                        .append("</td></tr>\n");
+            }
+            html.append("</table>\n");
+        }
+
+        if (!statement.budgets().isEmpty()) {
+            html.append("<h2>Budget vs. actual</h2>\n<table><tr><th>Category</th><th>Period</th>"
+                    + "<th class=\"n\">Budget</th><th class=\"n\">Spent</th><th class=\"n\">Remaining</th></tr>\n");
+            for (MonthlyStatement.BudgetLine line : statement.budgets()) {
+                double remaining = line.budgetAmount() - line.spentAmount();
+                html.append("<tr><td>").append(escape(line.category())).append("</td><td>")
+                        .append(line.periodStart()).append(" - ").append(line.periodEnd())
+                        .append("</td><td class=\"n\">").append(money(line.budgetAmount()))
+                        .append("</td><td class=\"n\">").append(money(line.spentAmount()))
+                        .append(remaining < 0 ? "</td><td class=\"n over\">" : "</td><td class=\"n\">")
+                        .append(money(remaining)).append("</td></tr>\n");
+            }
+            html.append("</table>\n");
+        }
+
+        if (!statement.topMerchants().isEmpty()) {
+            html.append("<h2>Top merchants</h2>\n<table><tr><th>Merchant</th><th class=\"n\">Expenses</th>"
+                    + "<th class=\"n\">Total</th></tr>\n");
+            for (MonthlyStatement.MerchantLine line : statement.topMerchants()) {
+                html.append("<tr><td>").append(escape(line.merchant())).append("</td><td class=\"n\">")
+                        .append(line.count()).append("</td><td class=\"n\">").append(money(line.total()))
+                        .append("</td></tr>\n");
+            }
+            html.append("</table>\n");
+        }
+
+        if (!statement.anomalies().isEmpty()) {
+            html.append("<h2>Worth a second look</h2>\n<ul>\n");
+            for (MonthlyStatement.Anomaly anomaly : statement.anomalies()) {
+                html.append("<li>");
+                if (anomaly.date() != null) {
+                    html.append(anomaly.date()).append(" ").append(escape(anomaly.description())).append(": ");
+                } else {
+                    html.append(escape(anomaly.category())).append(" total: ");
+                }
+                html.append(money(anomaly.amount())).append(" (").append(escape(anomaly.reason())).append(")</li>\n");
+            }
+            html.append("</ul>\n");
+        }
+
+        return html.append("</body>\n</html>\n").toString();
+    }
+
+    private static String money(double amount) {
+        return String.format(Locale.ROOT, "%,.2f", amount);
+    }
+
+    private static String escape(String text) {
+        return text == null ? "" : HtmlUtils.htmlEscape(text);
+    }
+}
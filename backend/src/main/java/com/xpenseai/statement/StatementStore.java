@@ -0,0 +1,110 @@
+package com.xpenseai.statement;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Statements on local disk: {@code <directory>/<yyyy-MM>/<userId>.html}, plus one
+ * checkpoint file per month recording how far the job got. Every file is written to a
+ * temporary name and moved into place, so a crash never leaves a half-written statement
+ * or checkpoint behind.
+ */
+@Component
+public class StatementStore {
+
+    private static final String CHECKPOINT_FILE = "checkpoint.properties";
+
+    /**
+     * All users with an id up to {@code lastUserId} have their statement; {@code complete}
+     * once every user has.
+     */
+    record Checkpoint(int lastUserId, boolean complete) {
+    }
+
+    @Value("${xpenseai.statements.directory:./data/statements}")
+    private String directory;
+
+    void write(YearMonth month, Integer userId, String html) {
+        writeAtomically(Paths.get(directory, month.toString(), userId + ".html"),
+                html.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Optional<Path> find(YearMonth month, Integer userId) {
+        Path path = Paths.get(directory, month.toString(), userId + ".html");
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Months with a statement for the user, newest first.
+     */
+    public List<YearMonth> months(Integer userId) {
+        List<YearMonth> months = new ArrayList<>();
+        Path root = Paths.get(directory);
+        if (!Files.isDirectory(root)) {
+            return months;
+        }
+        try (DirectoryStream<Path> monthDirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path monthDir : monthDirs) {
+                if (Files.isRegularFile(monthDir.resolve(userId + ".html"))) {
+                    try {
+                        months.add(YearMonth.parse(monthDir.getFileName().toString()));
+                    } catch (DateTimeParseException e) {
+                        // Not a month directory; skip it
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list statements in " + root, e);
+        }
+        months.sort(Comparator.reverseOrder());
+        return months;
+    }
+
+    Checkpoint readCheckpoint(YearMonth month) {
+        Path path = Paths.get(directory, month.toString(), CHECKPOINT_FILE);
+        if (!Files.isRegularFile(path)) {
+            return new Checkpoint(0, false);
+        }
+        Properties properties = new Properties();
+        try (var in = Files.newInputStream(path)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read statement checkpoint " + path, e);
+        }
+        return new Checkpoint(Integer.parseInt(properties.getProperty("lastUserId", "0")),
+                Boolean.parseBoolean(properties.getProperty("complete", "false")));
+    }
+
+    void writeCheckpoint(YearMonth month, Checkpoint checkpoint) {
+        String content = "lastUserId=" + checkpoint.lastUserId() + "\ncomplete=" + checkpoint.complete() + "\n";
+        writeAtomically(Paths.get(directory, month.toString(), CHECKPOINT_FILE),
+                content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void writeAtomically(Path path, byte[] content) {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            Files.write(temp, content);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + path, e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.xpenseai.sync;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import com.xpenseai.user.User;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/sync")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(
+            @RequestParam(defaultValue = "0") Long since,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(syncService.sync(user, since));
+    }
+}
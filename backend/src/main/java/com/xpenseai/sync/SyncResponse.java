@@ -0,0 +1,31 @@
+package com.xpenseai.sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import com.xpenseai.budget.Budget;
+import com.xpenseai.budget.BudgetHistoryView;
+import com.xpenseai.expense.Expense;
+
+import java.util.List;
+
+/**
+ * Everything that changed for a user after the client's {@code since} version, up to and
+ * including {@code version}. The client stores {@code version} and passes it as
+ * {@code since} on its next sync.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncResponse {
+    private long version;
+    private boolean full; // true when the client must replace its copy rather than merge into it
+    private List<Expense> expenses; // created or updated
+    private List<Budget> budgets; // created or updated
+    private List<BudgetHistoryView> budgetHistory;
+    private List<Long> deletedExpenseIds;
+    private List<Long> deletedBudgetIds;
+}
@@ -0,0 +1,106 @@
+package com.xpenseai.sync;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.xpenseai.budget.BudgetHistoryRepository;
+import com.xpenseai.budget.BudgetRepository;
+import com.xpenseai.expense.ArchivedExpenseChange;
+import com.xpenseai.expense.ArchivedExpenseChangeRepository;
+import com.xpenseai.expense.Expense;
+import com.xpenseai.expense.ExpenseArchive;
+import com.xpenseai.expense.ExpenseRepository;
+import com.xpenseai.user.ChangeVersions;
+import com.xpenseai.user.User;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync over the per-user change versions stamped by {@link ChangeVersions}.
+ *
+ * The user's current version is read first and every row query is capped at it. Because a
+ * user's writes commit in version order, the response then holds exactly the changes in
+ * ({@code since}, version], even if more writes commit while it is being assembled; those
+ * come with the next sync.
+ *
+ * A full sync also returns the expenses compacted into the archive. Compaction itself is not
+ * a change (the rows stay the same), but updates and deletes of archived rows are stamped in
+ * {@link ArchivedExpenseChange} and returned like those of hot rows. Tombstones are kept
+ * indefinitely, so any earlier version stays a valid starting point.
+ */
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    private final ChangeVersions changeVersions;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseArchive expenseArchive;
+    private final ArchivedExpenseChangeRepository archivedExpenseChangeRepository;
+    private final BudgetRepository budgetRepository;
+    private final BudgetHistoryRepository budgetHistoryRepository;
+
+    @Transactional(readOnly = true)
+    public SyncResponse sync(User user, long since) {
+        if (since < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "since must not be negative");
+        }
+
+        Integer userId = user.getId();
+        long version = changeVersions.current(userId);
+        // A version from the future (e.g. a restored database) cannot be merged into; start over
+        boolean full = since == 0 || since > version;
+        // Rows written before versions existed carry version 0, so a full sync starts below it
+        long after = full ? -1 : since;
+
+        List<Expense> expenses = new ArrayList<>(expenseRepository.findChangedByUserId(userId, after, version));
+        List<Long> deletedExpenseIds = new ArrayList<>();
+        if (full) {
+            expenses.addAll(archivedExpenses(user, expenses, null));
+        } else {
+            deletedExpenseIds.addAll(expenseRepository.findDeletedIdsByUserId(userId, after, version));
+            Set<Long> updatedArchiveIds = new HashSet<>();
+            for (ArchivedExpenseChange change : archivedExpenseChangeRepository.findChangedByUserId(userId, after,
+                    version)) {
+                if (change.isDeleted()) {
+                    deletedExpenseIds.add(change.getExpenseId());
+                } else {
+                    updatedArchiveIds.add(change.getExpenseId());
+                }
+            }
+            if (!updatedArchiveIds.isEmpty()) {
+                expenses.addAll(archivedExpenses(user, expenses, updatedArchiveIds));
+            }
+        }
+
+        return SyncResponse.builder()
+                .version(version)
+                .full(full)
+                .expenses(expenses)
+                .budgets(budgetRepository.findChangedByUserId(userId, after, version))
+                .budgetHistory(budgetHistoryRepository.findChangedViewsByUserId(userId, after, version))
+                // A client starting over has nothing to delete
+                .deletedExpenseIds(deletedExpenseIds)
+                .deletedBudgetIds(full ? List.of() : budgetRepository.findDeletedIdsByUserId(userId, after, version))
+                .build();
+    }
+
+    /**
+     * Archived expenses (all of them, or only {@code ids}) that are not already among the hot
+     * rows; a row caught mid-compaction is returned once.
+     */
+    private List<Expense> archivedExpenses(User user, List<Expense> hot, Set<Long> ids) {
+        Set<Long> hotIds = hot.stream().map(Expense::getId).collect(Collectors.toSet());
+        List<Expense> archived = ids != null
+                ? expenseArchive.findExpensesByIds(user, ids)
+                : expenseArchive.findExpenses(user, null, null, null);
+        return archived.stream().filter(expense -> !hotIds.contains(expense.getId())).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,40 @@
+package com.xpenseai.user;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Hands out the per-user change versions stamped on expenses, budgets and budget history.
+ *
+ * The counter lives on the user row. Bumping it takes that row's lock until the writing
+ * transaction ends, so one user's writes commit in version order: once a version is
+ * visible, every row stamped with it or an earlier version is committed too. This is what
+ * lets a sync client trust "everything up to version N".
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeVersions {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Allocates the next version for the user; call once per writing transaction and stamp
+     * every row it touches with the result.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long next(Integer userId) {
+        userRepository.incrementChangeVersion(userId);
+        return userRepository.findChangeVersion(userId);
+    }
+
+    /**
+     * The latest committed version for the user.
+     */
+    public long current(Integer userId) {
+        Long version = userRepository.findChangeVersion(userId);
+        return version != null ? version : 0;
+    }
+}
@@ -2,6 +2,9 @@ package com.xpenseai.user;
 import java.util.List;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -34,6 +37,18 @@ public class User implements UserDetails{
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    // Highest change version handed out for this user's rows; only ever bumped by ChangeVersions
+    @Column(name = "change_version", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long changeVersion = 0L;
+
+    // Generation of the user's archived expense segments; only ever bumped by ExpenseArchive
+    @Column(name = "archive_generation", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long archiveGeneration = 0L;
+
     @Override
     public String getUsername() {
         return email;
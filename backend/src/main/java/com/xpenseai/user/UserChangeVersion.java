@@ -0,0 +1,10 @@
+package com.xpenseai.user;
+
+/**
+ * A user's latest change version, read for every user at once without hydrating entities.
+ */
+public interface UserChangeVersion {
+    Integer getUserId();
+
+    Long getChangeVersion();
+}
@@ -1,9 +1,33 @@
 package com.xpenseai.user;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface UserRepository extends JpaRepository<User, Integer>{
     Optional<User> findByEmail(String email);
+
+    @Modifying
+    @Query("UPDATE User u SET u.changeVersion = u.changeVersion + 1 WHERE u.id = ?1")
+    int incrementChangeVersion(Integer userId);
+
+    @Query("SELECT u.changeVersion FROM User u WHERE u.id = ?1")
+    Long findChangeVersion(Integer userId);
+
+    @Query("SELECT u.id AS userId, u.changeVersion AS changeVersion FROM User u")
+    List<UserChangeVersion> findChangeVersions();
+
+    // Also the lock that orders archive rewrites of one user across nodes
+    @Modifying
+    @Query("UPDATE User u SET u.archiveGeneration = u.archiveGeneration + 1 WHERE u.id = ?1")
+    int incrementArchiveGeneration(Integer userId);
+
+    @Query("SELECT u.archiveGeneration FROM User u WHERE u.id = ?1")
+    Long findArchiveGeneration(Integer userId);
+
+    @Query("SELECT u FROM User u WHERE u.archiveGeneration > 0 ORDER BY u.id")
+    List<User> findWithArchive();
 }
@@ -0,0 +1,60 @@
+-- Baseline schema, matching the JPA mappings as of the switch from ddl-auto to migrations.
+-- Expense ids come from a pooled sequence (see META-INF/orm-batching.xml) so inserts batch.
+
+create sequence _user_seq start with 1 increment by 50;
+
+create sequence expenses_seq start with 1 increment by 50;
+
+create table _user (
+    id integer not null,
+    email varchar(255),
+    firstname varchar(255),
+    lastname varchar(255),
+    password varchar(255),
+    role varchar(255) check (role in ('USER', 'ADMIN')),
+    archive_generation bigint default 0 not null,
+    primary key (id)
+);
+
+create table budgets (
+    id bigint generated by default as identity,
+    category varchar(255) not null,
+    amount float(53) not null,
+    period_type varchar(255),
+    current_period_start date,
+    next_reset_date date,
+    auto_reset boolean,
+    created_at timestamp(6),
+    user_id integer not null references _user,
+    primary key (id)
+);
+
+create table budget_history (
+    id bigint generated by default as identity,
+    category varchar(255) not null,
+    budget_amount float(53) not null,
+    spent_amount float(53) not null,
+    period_start date,
+    period_end date,
+    period_type varchar(255),
+    created_at timestamp(6),
+    user_id integer not null references _user,
+    budget_id bigint not null references budgets,
+    primary key (id)
+);
+
+create table expenses (
+    id bigint not null,
+    description varchar(255) not null,
+    amount float(53) not null,
+    date date not null,
+    category varchar(255),
+    created_at timestamp(6),
+    user_id integer not null references _user,
+    primary key (id)
+);
+
+create index idx_user_email on _user (email);
+create index idx_expenses_user_date on expenses (user_id, date);
+create index idx_budgets_user on budgets (user_id);
+create index idx_budget_history_user on budget_history (user_id, period_start);
@@ -0,0 +1,5 @@
+-- Idempotency key of expenses written through the async ingest log; unique per user so a
+-- replayed log record can never insert twice.
+alter table expenses add column ingest_key varchar(64);
+
+alter table expenses add constraint uk_expenses_user_ingest_key unique (user_id, ingest_key);
@@ -0,0 +1,15 @@
+-- Responses to mutations made with an Idempotency-Key, replayed to retries of the same request.
+create table idempotent_responses (
+    id bigint generated by default as identity,
+    user_id integer not null,
+    idempotency_key varchar(255) not null,
+    request_hash varchar(64) not null,
+    status integer not null,
+    content_type varchar(255),
+    body bytea,
+    created_at timestamp(6) not null,
+    primary key (id),
+    constraint uk_idempotent_responses_user_key unique (user_id, idempotency_key)
+);
+
+create index idx_idempotent_responses_created_at on idempotent_responses (created_at);
@@ -0,0 +1,14 @@
+-- Per-user change versions and soft-delete tombstones for delta sync (GET /api/v1/sync).
+alter table _user add column change_version bigint default 0 not null;
+
+alter table expenses add column change_version bigint default 0 not null;
+alter table expenses add column deleted boolean default false not null;
+
+alter table budgets add column change_version bigint default 0 not null;
+alter table budgets add column deleted boolean default false not null;
+
+alter table budget_history add column change_version bigint default 0 not null;
+
+create index idx_expenses_user_version on expenses (user_id, change_version);
+create index idx_budgets_user_version on budgets (user_id, change_version);
+create index idx_budget_history_user_version on budget_history (user_id, change_version);
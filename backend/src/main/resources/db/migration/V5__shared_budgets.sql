@@ -0,0 +1,28 @@
+-- Shared budgets: members besides the owner, a flushed running spend and an optimistic-lock version.
+create table budget_members (
+    id bigint generated by default as identity,
+    budget_id bigint not null references budgets,
+    user_id integer not null references _user,
+    joined_at timestamp(6),
+    primary key (id),
+    constraint uk_budget_members_budget_user unique (budget_id, user_id)
+);
+
+create index idx_budget_members_user on budget_members (user_id);
+
+-- Left null on existing rows; the application computes it from the expenses on first read
+alter table budgets add column spent_amount double precision;
+alter table budgets add column version bigint default 0 not null;
+
+-- Spend written with each expense change and folded into spent_amount by the periodic flush
+create table budget_spend_deltas (
+    id bigint generated by default as identity,
+    budget_id bigint not null references budgets,
+    user_id integer not null references _user,
+    category varchar(255) not null,
+    expense_date date not null,
+    cents bigint not null,
+    primary key (id)
+);
+
+create index idx_budget_spend_deltas_budget on budget_spend_deltas (budget_id);
@@ -0,0 +1,13 @@
+-- Receipt images: the bytes live in the content-addressed store on disk, rows only point at them.
+create table receipts (
+    id bigint generated by default as identity,
+    user_id integer not null references _user,
+    content_hash varchar(64) not null,
+    content_type varchar(32) not null,
+    size bigint not null,
+    created_at timestamp(6),
+    primary key (id),
+    constraint uk_receipts_user_content_hash unique (user_id, content_hash)
+);
+
+alter table expenses add column receipt_id bigint references receipts;
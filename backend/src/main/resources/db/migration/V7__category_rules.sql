@@ -0,0 +1,13 @@
+-- Per-user categorization rules, compiled into a matcher in memory and applied to expenses saved without a category.
+create table category_rules (
+    id bigint generated by default as identity,
+    user_id integer not null references _user,
+    keyword varchar(100),
+    min_amount float(53),
+    max_amount float(53),
+    category varchar(255) not null,
+    created_at timestamp(6),
+    primary key (id)
+);
+
+create index idx_category_rules_user on category_rules (user_id);
@@ -0,0 +1,10 @@
+-- Updates and deletes of archived expenses, which have no row of their own to stamp, for delta sync.
+create table expense_archive_changes (
+    expense_id bigint not null,
+    user_id integer not null references _user,
+    change_version bigint not null,
+    deleted boolean not null,
+    primary key (expense_id)
+);
+
+create index idx_expense_archive_changes_user_version on expense_archive_changes (user_id, change_version);
@@ -0,0 +1,52 @@
+package com.xpenseai;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.xpenseai.user.Role;
+import com.xpenseai.user.User;
+import com.xpenseai.user.UserRepository;
+
+/**
+ * Base for tests that run against the application context. Every subclass shares this one
+ * configuration, so the context is booted once and reused from Spring's test context cache.
+ * Tests isolate themselves by creating their own users rather than by getting a fresh
+ * database. A test that needs other settings names its own database with
+ * {@code xpenseai.test.database}, which gets it a separate context and a separate schema.
+ *
+ * Scheduled work that would otherwise run mid-test (budget spend flushes, rate limiting)
+ * is turned off or pushed out of the way; tests trigger it themselves.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:${xpenseai.test.database:xpenseai-tests};DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"xpenseai.rate-limit.enabled=false",
+		"xpenseai.budget-spend.flush-interval-ms=3600000",
+		"xpenseai.budgets.rollover-cron=-",
+		"xpenseai.statements.directory=target/statement-tests",
+		"xpenseai.statements.chunk-size=2",
+		"xpenseai.receipts.directory=target/receipt-tests",
+		// Archived segments of one context never turn up in another that reuses its user ids
+		"xpenseai.archive.directory=target/archive-tests/${random.uuid}"
+})
+@AutoConfigureMockMvc
+public abstract class IntegrationTestSupport {
+
+	@Autowired
+	protected UserRepository userRepository;
+
+	/**
+	 * A new user with a unique email, so tests sharing the database never see each other's data.
+	 */
+	protected User newUser(String name) {
+		return userRepository.save(User.builder()
+				.firstname(name)
+				.lastname("Test")
+				.email(name + "-" + System.nanoTime() + "@xpenseai.com")
+				.password("not-used")
+				.role(Role.USER)
+				.build());
+	}
+}
@@ -0,0 +1,261 @@
+package com.xpenseai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.xpenseai.budget.Budget;
+import com.xpenseai.budget.BudgetHistory;
+import com.xpenseai.budget.BudgetHistoryRepository;
+import com.xpenseai.budget.BudgetRepository;
+import com.xpenseai.expense.Expense;
+import com.xpenseai.expense.ExpenseRepository;
+import com.xpenseai.user.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the JDBC statements each endpoint prepares, using Hibernate statistics. The
+ * principal is set directly, so the JWT filter's user lookup is not part of the counts.
+ * A count that grows with the number of rows returned is an N+1. Every write also takes
+ * two statements to allocate the user's next change version. Budget spend flushes are
+ * scheduled out of the way so they do not land in the counts.
+ */
+class StatementCountTests extends IntegrationTestSupport {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ExpenseRepository expenseRepository;
+
+	@Autowired
+	private BudgetRepository budgetRepository;
+
+	@Autowired
+	private BudgetHistoryRepository budgetHistoryRepository;
+
+	private Statistics statistics;
+	private User user;
+	private User otherUser;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		user = newUser("owner");
+		otherUser = newUser("other");
+	}
+
+	@Test
+	void listingExpensesIsOneStatementRegardlessOfRowCount() throws Exception {
+		addExpenses(user, 1);
+		assertThat(statementsFor(get("/api/v1/expenses"), user)).isEqualTo(1);
+
+		addExpenses(user, 50);
+		assertThat(statementsFor(get("/api/v1/expenses"), user)).isEqualTo(1);
+	}
+
+	@Test
+	void deletingAnExpenseChecksOwnershipInTheQuery() throws Exception {
+		Expense expense = addExpenses(user, 1).get(0);
+
+		// Plus the lookup of budgets whose running spend the delete changes
+		assertThat(statementsFor(delete("/api/v1/expenses/" + expense.getId()), user)).isEqualTo(5);
+		assertThat(expenseRepository.existsById(expense.getId())).isFalse();
+	}
+
+	@Test
+	void deletingAnotherUsersExpenseFindsNothing() {
+		Expense expense = addExpenses(otherUser, 1).get(0);
+
+		assertThatThrownBy(() -> perform(delete("/api/v1/expenses/" + expense.getId()), user))
+				.hasRootCauseMessage("Expense not found");
+		assertThat(expenseRepository.existsById(expense.getId())).isTrue();
+	}
+
+	@Test
+	void creatingABudgetChecksForDuplicatesWithoutLoadingThem() throws Exception {
+		String body = "{\"category\":\"Food\",\"amount\":300}";
+
+		// Plus the sum of what was already spent this period
+		assertThat(statementsFor(post("/api/v1/budgets").contentType(MediaType.APPLICATION_JSON).content(body), user))
+				.isEqualTo(5);
+	}
+
+	@Test
+	void listingBudgetsIsOneStatementRegardlessOfRowCount() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			addBudget(user, "Category " + i);
+		}
+
+		assertThat(statementsFor(get("/api/v1/budgets"), user)).isEqualTo(1);
+	}
+
+	@Test
+	void updatingABudgetIsOneSelectAndOneUpdate() throws Exception {
+		Budget budget = addBudget(user, "Food");
+		String body = "{\"amount\":450}";
+
+		assertThat(statementsFor(put("/api/v1/budgets/" + budget.getId())
+				.contentType(MediaType.APPLICATION_JSON).content(body), user)).isEqualTo(4);
+		assertThat(budgetRepository.findById(budget.getId())).get().extracting(Budget::getAmount).isEqualTo(450.0);
+	}
+
+	@Test
+	void deletingABudgetIsASingleUpdate() throws Exception {
+		Budget budget = addBudget(user, "Food");
+
+		assertThat(statementsFor(delete("/api/v1/budgets/" + budget.getId()), user)).isEqualTo(3);
+		assertThat(budgetRepository.existsById(budget.getId())).isFalse();
+	}
+
+	@Test
+	void deletingAnotherUsersBudgetFindsNothing() {
+		Budget budget = addBudget(otherUser, "Food");
+
+		assertThatThrownBy(() -> perform(delete("/api/v1/budgets/" + budget.getId()), user))
+				.hasRootCauseMessage("Budget not found");
+		assertThat(budgetRepository.existsById(budget.getId())).isTrue();
+	}
+
+	@Test
+	void budgetHistoryIsOneStatementRegardlessOfRowCount() throws Exception {
+		Budget budget = addBudget(user, "Food");
+		for (int i = 1; i <= 12; i++) {
+			budgetHistoryRepository.save(BudgetHistory.builder()
+					.category("Food")
+					.budgetAmount(300.0)
+					.spentAmount(100.0 + i)
+					.periodStart(LocalDate.now().minusMonths(i))
+					.periodEnd(LocalDate.now().minusMonths(i - 1).minusDays(1))
+					.periodType("MONTHLY")
+					.user(user)
+					.budget(budget)
+					.build());
+		}
+
+		statistics.clear();
+		perform(get("/api/v1/budgets/history"), user)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(12))
+				.andExpect(jsonPath("$[0].spentAmount").value(101.0));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void syncReturnsOnlyChangesAfterTheGivenVersion() throws Exception {
+		perform(post("/api/v1/budgets").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"category\":\"Food\",\"amount\":300}"), user).andExpect(status().isOk());
+		Expense kept = createExpense("Lunch");
+		Expense removed = createExpense("Taxi");
+		long since = userRepository.findChangeVersion(user.getId());
+
+		Expense added = createExpense("Dinner");
+		perform(delete("/api/v1/expenses/" + removed.getId()), user).andExpect(status().isOk());
+
+		statistics.clear();
+		perform(get("/api/v1/sync").param("since", String.valueOf(since)), user)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.version").value(since + 2))
+				.andExpect(jsonPath("$.full").value(false))
+				.andExpect(jsonPath("$.expenses.length()").value(1))
+				.andExpect(jsonPath("$.expenses[0].id").value(added.getId()))
+				.andExpect(jsonPath("$.budgets.length()").value(0))
+				.andExpect(jsonPath("$.deletedExpenseIds[0]").value(removed.getId()));
+		// The version, then one query per kind of row (archived expense changes included)
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(7);
+
+		perform(get("/api/v1/sync"), user)
+				.andExpect(jsonPath("$.full").value(true))
+				.andExpect(jsonPath("$.expenses.length()").value(2))
+				.andExpect(jsonPath("$.expenses[0].id").value(kept.getId()))
+				.andExpect(jsonPath("$.budgets.length()").value(1))
+				.andExpect(jsonPath("$.deletedExpenseIds.length()").value(0));
+	}
+
+	@Test
+	void bulkOperationsAreOneUpdateRegardlessOfRowCount() throws Exception {
+		String filter = "{\"category\":\"Food\",\"newCategory\":\"Dining\"}";
+		addExpenses(user, 1);
+		// The UPDATE, plus the budgets to recompute and the search index reloading the user's rows
+		assertThat(statementsFor(post("/api/v1/expenses/bulk-recategorize")
+				.contentType(MediaType.APPLICATION_JSON).content(filter), user)).isEqualTo(5);
+
+		addExpenses(user, 50);
+		assertThat(statementsFor(post("/api/v1/expenses/bulk-recategorize")
+				.contentType(MediaType.APPLICATION_JSON).content(filter), user)).isEqualTo(5);
+		assertThat(statementsFor(post("/api/v1/expenses/bulk-delete")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"category\":\"Dining\"}"), user))
+				.isEqualTo(5);
+	}
+
+	private Expense createExpense(String description) throws Exception {
+		String body = "{\"description\":\"" + description + "\",\"amount\":12.5,\"date\":\"" + LocalDate.now()
+				+ "\",\"category\":\"Food\"}";
+		perform(post("/api/v1/expenses").contentType(MediaType.APPLICATION_JSON).content(body), user)
+				.andExpect(status().isOk());
+		return expenseRepository.findByUserOrderByDateDesc(user).stream()
+				.filter(expense -> expense.getDescription().equals(description))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private long statementsFor(MockHttpServletRequestBuilder request, User principal) throws Exception {
+		statistics.clear();
+		perform(request, principal).andExpect(status().isOk());
+		return statistics.getPrepareStatementCount();
+	}
+
+	private ResultActions perform(MockHttpServletRequestBuilder request, User principal) throws Exception {
+		return mockMvc.perform(request.with(authentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()))));
+	}
+
+
+	private List<Expense> addExpenses(User owner, int count) {
+		List<Expense> expenses = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			expenses.add(Expense.builder()
+					.description("Expense " + i)
+					.amount(10.0 + i)
+					.date(LocalDate.now().minusDays(i))
+					.category("Food")
+					.user(owner)
+					.build());
+		}
+		return expenseRepository.saveAll(expenses);
+	}
+
+	private Budget addBudget(User owner, String category) {
+		Budget budget = Budget.builder()
+				.category(category)
+				.amount(300.0)
+				.user(owner)
+				.build();
+		return budgetRepository.save(budget);
+	}
+}
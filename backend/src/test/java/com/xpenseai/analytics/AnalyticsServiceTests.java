@@ -0,0 +1,144 @@
+package com.xpenseai.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.expense.Expense;
+import com.xpenseai.expense.ExpenseBulkRequest;
+import com.xpenseai.expense.ExpenseRepository;
+import com.xpenseai.expense.ExpenseRequest;
+import com.xpenseai.expense.ExpenseService;
+import com.xpenseai.user.User;
+
+/**
+ * {@link AnalyticsService} over a small ledger relative to the current month: the derived
+ * series, and how the cached matrix follows later expense changes.
+ */
+class AnalyticsServiceTests extends IntegrationTestSupport {
+
+	private static final YearMonth NOW = YearMonth.now();
+
+	@Autowired
+	private AnalyticsService analyticsService;
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private ExpenseRepository expenseRepository;
+
+	private User user;
+	private Expense currentFood;
+
+	@BeforeEach
+	void setUp() {
+		user = newUser("analytics");
+		add("Food", 12, 150.0);
+		add("Food", 2, 100.0);
+		add("Food", 1, 200.0);
+		currentFood = add("Food", 0, 300.0);
+		add("Travel", 0, 50.0);
+		add("Gifts", 12, 40.0);
+		add("Gifts", 13, 999.0);
+	}
+
+	@Test
+	void seriesCarryMovingAveragesAndMonthAndYearComparisons() {
+		TrendReport report = analyticsService.getTrends(user, 3, 3, 5);
+
+		assertThat(report.getMonths()).containsExactly(NOW.minusMonths(2).toString(), NOW.minusMonths(1).toString(),
+				NOW.toString());
+		assertThat(report.getCategories()).extracting(TrendReport.Series::getCategory)
+				.containsExactly("Food", "Travel", "Gifts");
+
+		TrendReport.Series food = report.getCategories().get(0);
+		assertThat(food.getMonthly()).containsExactly(100.0, 200.0, 300.0);
+		// The first average reaches back before the displayed months
+		assertThat(food.getMovingAverage()).containsExactly(33.33, 100.0, 200.0);
+		assertThat(food.getMonthOverMonth()).isEqualTo(new TrendReport.Change(300.0, 200.0, 100.0, 50.0));
+		assertThat(food.getYearOverYear()).isEqualTo(new TrendReport.Change(300.0, 150.0, 150.0, 100.0));
+
+		TrendReport.Series travel = report.getCategories().get(1);
+		assertThat(travel.getMonthOverMonth()).isEqualTo(new TrendReport.Change(50.0, 0.0, 50.0, null));
+
+		// Only spent a year ago, so it is shown for the year-over-year drop
+		TrendReport.Series gifts = report.getCategories().get(2);
+		assertThat(gifts.getMonthly()).containsExactly(0.0, 0.0, 0.0);
+		assertThat(gifts.getYearOverYear()).isEqualTo(new TrendReport.Change(0.0, 40.0, -40.0, -100.0));
+
+		assertThat(report.getTotal().getMonthly()).containsExactly(100.0, 200.0, 350.0);
+		assertThat(report.getTopMovers()).extracting(TrendReport.Series::getCategory)
+				.containsExactly("Food", "Travel");
+	}
+
+	@Test
+	void theMovingAverageWindowAndTopMoversFollowTheRequest() {
+		TrendReport report = analyticsService.getTrends(user, 2, 1, 1);
+
+		assertThat(report.getMovingAverageWindow()).isEqualTo(1);
+		assertThat(report.getCategories().get(0).getMovingAverage()).containsExactly(200.0, 300.0);
+		assertThat(report.getTopMovers()).extracting(TrendReport.Series::getCategory).containsExactly("Food");
+	}
+
+	@Test
+	void aChangedExpenseRecomputesItsCellFromTheDatabase() {
+		analyticsService.getTrends(user, 1, 1, 0);
+		// Written behind the service's back, so the cached matrix does not see it
+		expenseRepository.save(Expense.builder().description("Snack").amount(5.0).date(NOW.atDay(1))
+				.category("Food").user(user).build());
+		assertThat(currentMonth("Food")).isEqualTo(300.0);
+
+		add("Food", 0, 20.0);
+		assertThat(currentMonth("Food")).isEqualTo(325.0);
+
+		expenseService.deleteExpense(currentFood.getId(), user);
+		assertThat(currentMonth("Food")).isEqualTo(25.0);
+		assertThat(currentMonth("Travel")).isEqualTo(50.0);
+	}
+
+	@Test
+	void bulkChangesReloadTheMatrix() {
+		analyticsService.getTrends(user, 1, 1, 0);
+
+		expenseService.bulkRecategorizeExpenses(
+				ExpenseBulkRequest.builder().category("Travel").newCategory("Food").build(), user);
+
+		assertThat(currentMonth("Food")).isEqualTo(350.0);
+		assertThat(analyticsService.getTrends(user, 1, 1, 0).getCategories())
+				.extracting(TrendReport.Series::getCategory).doesNotContain("Travel");
+	}
+
+	@Test
+	void outOfRangeParametersAreRejected() {
+		for (int[] parameters : new int[][] { { 0, 3, 5 }, { 61, 3, 5 }, { 12, 0, 5 }, { 12, 25, 5 }, { 12, 3, -1 } }) {
+			assertThatThrownBy(() -> analyticsService.getTrends(user, parameters[0], parameters[1], parameters[2]))
+					.as(Arrays.toString(parameters))
+					.isInstanceOf(ResponseStatusException.class);
+		}
+	}
+
+	private double currentMonth(String category) {
+		return analyticsService.getTrends(user, 1, 1, 0).getCategories().stream()
+				.filter(series -> category.equals(series.getCategory()))
+				.findFirst().orElseThrow()
+				.getMonthly().get(0);
+	}
+
+	private Expense add(String category, int monthsAgo, double amount) {
+		return expenseService.createExpense(ExpenseRequest.builder()
+				.description(category + " " + monthsAgo)
+				.amount(amount)
+				.date(NOW.minusMonths(monthsAgo).atDay(1).toString())
+				.category(category)
+				.build(), user);
+	}
+}
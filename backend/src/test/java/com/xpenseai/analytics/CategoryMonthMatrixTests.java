@@ -0,0 +1,61 @@
+package com.xpenseai.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Grows a {@link CategoryMonthMatrix} in both directions and reads windows that start and
+ * end inside, before and after the stored month range.
+ */
+class CategoryMonthMatrixTests {
+
+	private final CategoryMonthMatrix matrix = new CategoryMonthMatrix();
+
+	@Test
+	void anEmptyMatrixHasNoRows() {
+		assertThat(matrix.window(100, 3)).isEmpty();
+	}
+
+	@Test
+	void windowsArePaddedWithZerosOutsideTheStoredRange() {
+		matrix.set("Food", 100, 5);
+
+		assertThat(matrix.window(101, 3).get("Food")).containsExactly(0, 5, 0);
+		assertThat(matrix.window(100, 1).get("Food")).containsExactly(5);
+		assertThat(matrix.window(99, 2).get("Food")).containsExactly(0, 0);
+		assertThat(matrix.window(110, 2).get("Food")).containsExactly(0, 0);
+	}
+
+	@Test
+	void growingEarlierOrLaterKeepsEveryCellAtItsMonth() {
+		matrix.set("Food", 100, 5);
+		matrix.set("Travel", 97, 7);
+		matrix.add("Food", 103, 1);
+		matrix.add("Food", 103, 2);
+
+		assertThat(matrix.window(103, 7)).containsOnlyKeys("Food", "Travel");
+		assertThat(matrix.window(103, 7).get("Food")).containsExactly(0, 0, 0, 5, 0, 0, 3);
+		assertThat(matrix.window(103, 7).get("Travel")).containsExactly(7, 0, 0, 0, 0, 0, 0);
+		assertThat(matrix.window(101, 3).get("Travel")).containsExactly(0, 0, 0);
+	}
+
+	@Test
+	void setReplacesACellAndAddAccumulates() {
+		matrix.add("Food", 100, 5);
+		matrix.add("Food", 100, 2);
+		assertThat(matrix.window(100, 1).get("Food")).containsExactly(7);
+
+		matrix.set("Food", 100, 1);
+		assertThat(matrix.window(100, 1).get("Food")).containsExactly(1);
+	}
+
+	@Test
+	void windowsAreCopies() {
+		matrix.set("Food", 100, 5);
+
+		matrix.window(100, 1).get("Food")[0] = 99;
+
+		assertThat(matrix.window(100, 1).get("Food")).containsExactly(5);
+	}
+}
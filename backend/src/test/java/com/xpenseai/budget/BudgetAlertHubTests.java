@@ -0,0 +1,154 @@
+package com.xpenseai.budget;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.user.User;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+/**
+ * Opens real alert streams through {@code GET /api/v1/budgets/alerts} and reads what the
+ * hub wrote to them, including the ROLLOVER alerts of the scheduled sweep.
+ */
+class BudgetAlertHubTests extends IntegrationTestSupport {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BudgetAlertHub alertHub;
+
+	@Autowired
+	private BudgetService budgetService;
+
+	@Autowired
+	private BudgetRepository budgetRepository;
+
+	@Autowired
+	private BudgetHistoryRepository budgetHistoryRepository;
+
+	@Autowired
+	private BudgetRolloverSweep rolloverSweep;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private User owner;
+	private User member;
+	private Budget budget;
+
+	@BeforeEach
+	void setUp() {
+		owner = newUser("alert-owner");
+		member = newUser("alert-member");
+		budget = budgetService.createBudget(BudgetRequest.builder().category("Dining").amount(300.0).build(), owner);
+		budgetService.addBudgetMember(budget.getId(), new BudgetMemberRequest(member.getEmail()), owner);
+	}
+
+	@Test
+	void alertsAreWrittenToEveryOpenStreamOfTheUser() throws Exception {
+		MvcResult first = subscribe(member);
+		MvcResult second = subscribe(member);
+		MvcResult other = subscribe(owner);
+
+		alertHub.publish(member.getId(), BudgetAlert.builder().type("THRESHOLD").budgetId(budget.getId()).build());
+
+		assertThat(first.getResponse().getContentAsString())
+				.contains("event:budget-alert")
+				.contains("\"type\":\"THRESHOLD\"");
+		assertThat(second.getResponse().getContentAsString()).contains("event:budget-alert");
+		assertThat(other.getResponse().getContentAsString()).doesNotContain("budget-alert");
+	}
+
+	@Test
+	void timedOutAndClosedStreamsAreDropped() throws Exception {
+		MvcResult timedOut = subscribe(member);
+		MvcResult closed = subscribe(member);
+
+		timeOut(timedOut);
+		assertThat(streams()).containsKey(member.getId());
+		((MockAsyncContext) closed.getRequest().getAsyncContext()).complete();
+
+		assertThat(streams()).doesNotContainKey(member.getId());
+	}
+
+	@Test
+	void theSweepRollsOverEndedPeriodsOnceAndAlertsAfterCommit() throws Exception {
+		endPeriod();
+		MvcResult stream = subscribe(member);
+
+		rolloverSweep.sweep();
+		rolloverSweep.sweep();
+
+		assertThat(budgetHistoryRepository.findViewsByUserId(owner.getId())).hasSize(1);
+		assertThat(budgetRepository.findById(budget.getId())).get()
+				.extracting(Budget::getCurrentPeriodStart).isEqualTo(LocalDate.now());
+		assertThat(stream.getResponse().getContentAsString()).containsOnlyOnce("\"type\":\"ROLLOVER\"");
+	}
+
+	@Test
+	void aRolledBackRolloverIsNeverAnnounced() throws Exception {
+		endPeriod();
+		MvcResult stream = subscribe(owner);
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			budgetService.rollOverIfDue(budget.getId());
+			status.setRollbackOnly();
+		});
+
+		assertThat(budgetHistoryRepository.findViewsByUserId(owner.getId())).isEmpty();
+		assertThat(stream.getResponse().getContentAsString()).doesNotContain("ROLLOVER");
+
+		// Still due, so the next sweep rolls it over instead
+		rolloverSweep.sweep();
+
+		assertThat(budgetHistoryRepository.findViewsByUserId(owner.getId())).hasSize(1);
+		assertThat(stream.getResponse().getContentAsString()).containsOnlyOnce("\"type\":\"ROLLOVER\"");
+	}
+
+	private void endPeriod() {
+		Budget stored = budgetRepository.findById(budget.getId()).orElseThrow();
+		stored.setCurrentPeriodStart(LocalDate.now().minusMonths(1).minusDays(1));
+		stored.calculateNextResetDate();
+		budgetRepository.save(stored);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<Integer, Set<SseEmitter>> streams() {
+		return (Map<Integer, Set<SseEmitter>>) ReflectionTestUtils.getField(alertHub, "emitters");
+	}
+
+	private MvcResult subscribe(User user) throws Exception {
+		return mockMvc.perform(get("/api/v1/budgets/alerts").with(authentication(
+				new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()))))
+				.andReturn();
+	}
+
+	// What the container does once the emitter timeout passes
+	private static void timeOut(MvcResult stream) throws Exception {
+		MockAsyncContext context = (MockAsyncContext) stream.getRequest().getAsyncContext();
+		for (AsyncListener listener : context.getListeners()) {
+			listener.onTimeout(new AsyncEvent(context));
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package com.xpenseai.budget;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.xpenseai.user.User;
+
+/**
+ * {@link BudgetAlertService} over a mocked member table and hub: who is alerted, on which
+ * crossings, and when a rollover's alert goes out relative to its transaction.
+ */
+class BudgetAlertServiceTests {
+
+	private final BudgetMemberRepository budgetMemberRepository = mock(BudgetMemberRepository.class);
+	private final BudgetAlertHub alertHub = mock(BudgetAlertHub.class);
+	private final BudgetAlertService alertService = new BudgetAlertService(budgetMemberRepository, alertHub);
+
+	private Budget budget;
+
+	@BeforeEach
+	void setUp() {
+		budget = Budget.builder()
+				.id(5L)
+				.category("Food")
+				.amount(200.0)
+				.currentPeriodStart(LocalDate.of(2024, 3, 1))
+				.nextResetDate(LocalDate.of(2024, 4, 1))
+				.user(User.builder().id(1).build())
+				.build();
+		when(budgetMemberRepository.findUserIdsByBudgetId(5L)).thenReturn(List.of(2, 3));
+		when(alertHub.hasSubscribers()).thenReturn(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void crossingAThresholdAlertsTheOwnerAndEveryMember() {
+		alertService.publishThresholdCrossing(budget, 90.0, 110.0);
+
+		ArgumentCaptor<BudgetAlert> alert = ArgumentCaptor.forClass(BudgetAlert.class);
+		verify(alertHub).publish(eq(1), alert.capture());
+		verify(alertHub).publish(eq(2), any());
+		verify(alertHub).publish(eq(3), any());
+		assertThat(alert.getValue()).extracting(BudgetAlert::getType, BudgetAlert::getThreshold,
+				BudgetAlert::getSpentAmount, BudgetAlert::getPeriodEnd)
+				.containsExactly("THRESHOLD", 50, 110.0, LocalDate.of(2024, 3, 31));
+	}
+
+	@Test
+	void onlyTheHighestThresholdReachedOnTheWayUpIsReported() {
+		alertService.publishThresholdCrossing(budget, 90.0, 250.0);
+		alertService.publishThresholdCrossing(budget, 250.0, 90.0);
+		alertService.publishThresholdCrossing(budget, 170.0, 180.0);
+
+		ArgumentCaptor<BudgetAlert> alert = ArgumentCaptor.forClass(BudgetAlert.class);
+		verify(alertHub).publish(eq(1), alert.capture());
+		assertThat(alert.getValue().getThreshold()).isEqualTo(100);
+	}
+
+	@Test
+	void budgetsWithoutAPositiveAmountNeverAlert() {
+		budget.setAmount(0.0);
+
+		alertService.publishThresholdCrossing(budget, 0.0, 50.0);
+
+		verify(alertHub, never()).publish(anyInt(), any());
+	}
+
+	@Test
+	void rolloverAlertsWaitForTheTransactionToCommit() {
+		TransactionSynchronizationManager.initSynchronization();
+
+		alertService.publishRollover(budget, history());
+
+		verify(alertHub, never()).publish(anyInt(), any());
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		ArgumentCaptor<BudgetAlert> alert = ArgumentCaptor.forClass(BudgetAlert.class);
+		verify(alertHub).publish(eq(2), alert.capture());
+		assertThat(alert.getValue()).extracting(BudgetAlert::getType, BudgetAlert::getSpentAmount)
+				.containsExactly("ROLLOVER", 180.0);
+	}
+
+	@Test
+	void rolledBackRolloversAreNeverAnnounced() {
+		TransactionSynchronizationManager.initSynchronization();
+
+		alertService.publishRollover(budget, history());
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+		verify(alertHub, never()).publish(anyInt(), any());
+	}
+
+	@Test
+	void rolloversOutsideATransactionAreAnnouncedRightAway() {
+		alertService.publishRollover(budget, history());
+
+		verify(alertHub).publish(eq(1), any());
+		verify(alertHub).publish(eq(3), any());
+	}
+
+	@Test
+	void withNoStreamOpenNoRecipientsAreLookedUp() {
+		when(alertHub.hasSubscribers()).thenReturn(false);
+
+		alertService.publishThresholdCrossing(budget, 90.0, 250.0);
+		alertService.publishRollover(budget, history());
+
+		verifyNoInteractions(budgetMemberRepository);
+		verify(alertHub, never()).publish(anyInt(), any());
+	}
+
+	private static BudgetHistory history() {
+		return BudgetHistory.builder()
+				.budgetAmount(200.0)
+				.spentAmount(180.0)
+				.periodStart(LocalDate.of(2024, 3, 1))
+				.periodEnd(LocalDate.of(2024, 3, 31))
+				.build();
+	}
+}
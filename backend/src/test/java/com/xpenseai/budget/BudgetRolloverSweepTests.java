@@ -0,0 +1,94 @@
+package com.xpenseai.budget;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.expense.ExpenseRequest;
+import com.xpenseai.expense.ExpenseService;
+import com.xpenseai.user.User;
+
+/**
+ * Listing budgets only reads; rolling ended periods over and repairing rows that older
+ * versions left incomplete is the sweep's job.
+ */
+class BudgetRolloverSweepTests extends IntegrationTestSupport {
+
+	@Autowired
+	private BudgetService budgetService;
+
+	@Autowired
+	private BudgetRepository budgetRepository;
+
+	@Autowired
+	private BudgetHistoryRepository budgetHistoryRepository;
+
+	@Autowired
+	private BudgetRolloverSweep rolloverSweep;
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User owner;
+	private Budget budget;
+
+	@BeforeEach
+	void setUp() {
+		owner = newUser("sweep-owner");
+		budget = budgetService.createBudget(BudgetRequest.builder().category("Food").amount(100.0).build(), owner);
+		expenseService.createExpense(ExpenseRequest.builder()
+				.description("Groceries")
+				.amount(40.0)
+				.date(LocalDate.now().toString())
+				.category("Food")
+				.build(), owner);
+	}
+
+	@Test
+	void listingAnEndedPeriodLeavesTheRolloverToTheSweep() {
+		Budget stored = budgetRepository.findById(budget.getId()).orElseThrow();
+		stored.setCurrentPeriodStart(LocalDate.now().minusMonths(1).minusDays(1));
+		stored.calculateNextResetDate();
+		budgetRepository.save(stored);
+		long version = userRepository.findChangeVersion(owner.getId());
+
+		budgetService.getUserBudgets(owner);
+
+		assertThat(budgetHistoryRepository.findViewsByUserId(owner.getId())).isEmpty();
+		assertThat(userRepository.findChangeVersion(owner.getId())).isEqualTo(version);
+
+		rolloverSweep.sweep();
+
+		assertThat(budgetHistoryRepository.findViewsByUserId(owner.getId())).hasSize(1);
+		assertThat(budgetRepository.findById(budget.getId())).get()
+				.extracting(Budget::getCurrentPeriodStart).isEqualTo(LocalDate.now());
+	}
+
+	@Test
+	void rowsMissingColumnsAreListedAsTheyAreAndRepairedByTheSweep() {
+		jdbcTemplate.update("update budgets set spent_amount = null, auto_reset = null, period_type = null "
+				+ "where id = ?", budget.getId());
+
+		assertThat(budgetService.getUserBudgets(owner)).singleElement()
+				.extracting(Budget::getSpentAmount, Budget::getAutoReset)
+				.containsExactly(40.0, null);
+
+		rolloverSweep.sweep();
+
+		// Recorded without the expense's delta, which the next flush folds in
+		assertThat(budgetRepository.findById(budget.getId())).get()
+				.extracting(Budget::getRecordedSpent, Budget::getAutoReset, Budget::getPeriodType)
+				.containsExactly(0.0, true, "MONTHLY");
+		assertThat(budgetService.getUserBudgets(owner)).singleElement()
+				.extracting(Budget::getSpentAmount).isEqualTo(40.0);
+	}
+}
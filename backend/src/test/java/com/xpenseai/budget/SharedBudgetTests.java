@@ -0,0 +1,193 @@
+package com.xpenseai.budget;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.expense.ExpenseRequest;
+import com.xpenseai.expense.ExpenseService;
+import com.xpenseai.user.User;
+
+/**
+ * Members of one budget post expenses concurrently while the spend is flushed, and the
+ * flushed total must come out exact. Flushes are triggered by the test only.
+ */
+class SharedBudgetTests extends IntegrationTestSupport {
+
+	private static final int EXPENSES_PER_MEMBER = 100;
+
+	@Autowired
+	private BudgetService budgetService;
+
+	@Autowired
+	private BudgetRepository budgetRepository;
+
+	@Autowired
+	private BudgetSpendLedger budgetSpendLedger;
+
+	@Autowired
+	private BudgetSpendDeltaRepository budgetSpendDeltaRepository;
+
+	@Autowired
+	private BudgetMemberRepository budgetMemberRepository;
+
+	@Autowired
+	private BudgetAlertService budgetAlertService;
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private User owner;
+	private User partner;
+	private User child;
+	private Budget budget;
+
+	@BeforeEach
+	void setUp() {
+		owner = newUser("owner");
+		partner = newUser("partner");
+		child = newUser("child");
+		budget = budgetService.createBudget(BudgetRequest.builder().category("Groceries").amount(10_000.0).build(), owner);
+		budgetService.addBudgetMember(budget.getId(), new BudgetMemberRequest(partner.getEmail()), owner);
+		budgetService.addBudgetMember(budget.getId(), new BudgetMemberRequest(child.getEmail()), owner);
+	}
+
+	@Test
+	void concurrentSpendByAllMembersIsFlushedExactly() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(6);
+		AtomicBoolean posting = new AtomicBoolean(true);
+		try {
+			Future<?> flusher = executor.submit(() -> {
+				while (posting.get()) {
+					budgetSpendLedger.flush();
+				}
+			});
+			List<Future<?>> spenders = new ArrayList<>();
+			for (User member : List.of(owner, partner, child, owner, partner)) {
+				spenders.add(executor.submit(() -> {
+					for (int i = 0; i < EXPENSES_PER_MEMBER; i++) {
+						expenseService.createExpense(groceries(1.25), member);
+					}
+				}));
+			}
+			for (Future<?> spender : spenders) {
+				spender.get(60, TimeUnit.SECONDS);
+			}
+			posting.set(false);
+			flusher.get(60, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		long version = budgetRepository.findById(budget.getId()).orElseThrow().getVersion();
+		double expected = 5 * EXPENSES_PER_MEMBER * 1.25;
+		assertThat(spentAsSeenBy(child)).isEqualTo(expected);
+
+		budgetSpendLedger.flush();
+		Budget flushed = budgetRepository.findById(budget.getId()).orElseThrow();
+		assertThat(flushed.getRecordedSpent()).isEqualTo(expected);
+		// Flushing never conflicts with the owner's edits
+		assertThat(flushed.getVersion()).isEqualTo(version);
+		Budget edited = budgetService.updateBudget(budget.getId(), BudgetRequest.builder().amount(20_000.0).build(), owner);
+		assertThat(edited.getSpentAmount()).isEqualTo(expected);
+		assertThat(budgetRepository.findById(budget.getId()).orElseThrow().getRecordedSpent()).isEqualTo(expected);
+	}
+
+	@Test
+	void onlyMembersCountAndLeavingRecomputesTheSpend() {
+		User neighbour = newUser("neighbour");
+		expenseService.createExpense(groceries(40.0), owner);
+		expenseService.createExpense(groceries(25.0), child);
+		expenseService.createExpense(groceries(99.0), neighbour);
+		assertThat(spentAsSeenBy(owner)).isEqualTo(65.0);
+
+		budgetService.removeBudgetMember(budget.getId(), child.getId(), child);
+
+		assertThat(spentAsSeenBy(owner)).isEqualTo(40.0);
+		assertThat(budgetService.getUserBudgets(child)).isEmpty();
+	}
+
+	@Test
+	void anExpenseCommittingAroundARecomputeIsCountedOnce() throws Exception {
+		// Committed but not flushed when the recomputation reads the expenses
+		expenseService.createExpense(groceries(10.0), owner);
+		CountDownLatch written = new CountDownLatch(1);
+		CountDownLatch recomputed = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			// Written but not committed when the recomputation reads the expenses
+			Future<?> writer = executor.submit(() -> new TransactionTemplate(transactionManager)
+					.executeWithoutResult(status -> {
+						expenseService.createExpense(groceries(2.5), partner);
+						written.countDown();
+						try {
+							recomputed.await(60, TimeUnit.SECONDS);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}));
+			assertThat(written.await(60, TimeUnit.SECONDS)).isTrue();
+			new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+					budgetSpendLedger.recompute(budgetRepository.findById(budget.getId()).orElseThrow()));
+			recomputed.countDown();
+			writer.get(60, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(spentAsSeenBy(owner)).isEqualTo(12.5);
+		// The deltas live in the database, so any node's flush folds them in
+		new BudgetSpendLedger(budgetRepository, budgetSpendDeltaRepository, budgetMemberRepository, budgetAlertService,
+				transactionManager).flush();
+		budgetSpendLedger.flush();
+		assertThat(budgetRepository.findById(budget.getId()).orElseThrow().getRecordedSpent()).isEqualTo(12.5);
+		assertThat(spentAsSeenBy(owner)).isEqualTo(12.5);
+	}
+
+	@Test
+	void pendingSpendOfAMemberWhoLeftIsDropped() {
+		expenseService.createExpense(groceries(40.0), owner);
+		expenseService.createExpense(groceries(25.0), child);
+		budgetService.removeBudgetMember(budget.getId(), child.getId(), child);
+
+		budgetSpendLedger.flush();
+
+		assertThat(budgetRepository.findById(budget.getId()).orElseThrow().getRecordedSpent()).isEqualTo(40.0);
+		assertThat(budgetSpendDeltaRepository.findByBudgetId(budget.getId())).isEmpty();
+	}
+
+	private double spentAsSeenBy(User user) {
+		return budgetService.getUserBudgets(user).stream()
+				.filter(b -> b.getId().equals(budget.getId()))
+				.findFirst()
+				.orElseThrow()
+				.getSpentAmount();
+	}
+
+	private static ExpenseRequest groceries(double amount) {
+		return ExpenseRequest.builder()
+				.description("Groceries")
+				.amount(amount)
+				.date(LocalDate.now().toString())
+				.category("Groceries")
+				.build();
+	}
+}
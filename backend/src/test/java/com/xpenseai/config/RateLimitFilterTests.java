@@ -0,0 +1,99 @@
+package com.xpenseai.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.xpenseai.user.Role;
+import com.xpenseai.user.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs {@link RateLimitFilter} with two cheap and one expensive token, refilling once every
+ * 1000 seconds, so every rejection in a test is deterministic.
+ */
+class RateLimitFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final RateLimitFilter filter = new RateLimitFilter(meterRegistry, 2, 0.001, 1, 0.001, 600);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(filter, "enabled", true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void requestsBeyondTheBucketGet429WithRetryAfter() throws Exception {
+		assertThat(send(7, "GET", "/api/v1/budgets").getHeader("X-RateLimit-Remaining")).isEqualTo("1");
+		send(7, "GET", "/api/v1/budgets");
+
+		MockHttpServletResponse rejected = send(7, "GET", "/api/v1/budgets");
+
+		assertThat(rejected.getStatus()).isEqualTo(429);
+		assertThat(rejected.getHeader("Retry-After")).isEqualTo("1000");
+		assertThat(rejected.getHeader("X-RateLimit-Limit")).isEqualTo("2");
+		assertThat(rejected.getHeader("X-RateLimit-Remaining")).isEqualTo("0");
+		assertThat(rejected.getContentAsString()).isEqualTo(
+				"{\"status\":429,\"error\":\"Too many requests\",\"retryAfterSeconds\":1000}");
+		assertThat(meterRegistry.counter("xpenseai.ratelimit.rejected", "class", "cheap").count()).isEqualTo(1);
+	}
+
+	@Test
+	void expensiveEndpointsDrawFromTheirOwnSmallerBucket() throws Exception {
+		assertThat(send(7, "GET", "/api/v1/expenses").getStatus()).isEqualTo(200);
+		assertThat(send(7, "POST", "/api/v1/expenses/bulk-delete").getStatus()).isEqualTo(429);
+		assertThat(send(7, "GET", "/api/v1/sync").getStatus()).isEqualTo(429);
+
+		// Delta syncs and single-expense reads are still cheap
+		MockHttpServletRequest delta = request(7, "GET", "/api/v1/sync");
+		delta.setParameter("since", "15");
+		assertThat(send(delta).getStatus()).isEqualTo(200);
+		assertThat(send(7, "GET", "/api/v1/expenses/5").getStatus()).isEqualTo(200);
+		assertThat(send(8, "GET", "/api/v1/expenses").getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void anonymousRequestsAndADisabledFilterPassThrough() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			MockHttpServletResponse response = send(new MockHttpServletRequest("GET", "/api/v1/auth/login"));
+			assertThat(response.getStatus()).isEqualTo(200);
+			assertThat(response.getHeader("X-RateLimit-Limit")).isNull();
+		}
+
+		ReflectionTestUtils.setField(filter, "enabled", false);
+		for (int i = 0; i < 5; i++) {
+			assertThat(send(7, "GET", "/api/v1/expenses").getStatus()).isEqualTo(200);
+		}
+	}
+
+	private MockHttpServletResponse send(int userId, String method, String uri) throws Exception {
+		return send(request(userId, method, uri));
+	}
+
+	private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private static MockHttpServletRequest request(int userId, String method, String uri) {
+		User user = User.builder().id(userId).role(Role.USER).build();
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+		return new MockHttpServletRequest(method, uri);
+	}
+}
@@ -0,0 +1,73 @@
+package com.xpenseai.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link RateLimiter} on a hand-driven clock: a bucket of three tokens refilling one per
+ * second, whose buckets count as idle a minute after they are full again.
+ */
+class RateLimiterTests {
+
+	private long now = 42;
+	private final RateLimiter limiter = new RateLimiter("test", 3, 1, 60, () -> now);
+
+	@Test
+	void aFullBucketAllowsExactlyItsCapacityInABurst() {
+		assertThat(limiter.tryAcquire(1)).isEqualTo(new RateLimiter.Decision(true, 2, 0));
+		assertThat(limiter.tryAcquire(1)).isEqualTo(new RateLimiter.Decision(true, 1, 0));
+		assertThat(limiter.tryAcquire(1)).isEqualTo(new RateLimiter.Decision(true, 0, 0));
+
+		assertThat(limiter.tryAcquire(1)).isEqualTo(new RateLimiter.Decision(false, 0, seconds(1)));
+		// Each user has a bucket of their own
+		assertThat(limiter.tryAcquire(2).allowed()).isTrue();
+	}
+
+	@Test
+	void tokensComeBackOneIntervalAtATimeUpToCapacity() {
+		drain(1);
+
+		advance(seconds(1));
+		assertThat(limiter.tryAcquire(1)).isEqualTo(new RateLimiter.Decision(true, 0, 0));
+		advance(seconds(1) / 2);
+		assertThat(limiter.tryAcquire(1)).isEqualTo(new RateLimiter.Decision(false, 0, seconds(1) / 2));
+
+		// Being denied does not cost a token, and a long pause refills no more than capacity
+		advance(seconds(100));
+		drain(1);
+	}
+
+	@Test
+	void bucketsAreEvictedOnlyOnceFullAndIdle() {
+		drain(1);
+		advance(seconds(61));
+		limiter.tryAcquire(2);
+
+		// Key 1 was full again after 3s, so it has been idle for 59s
+		assertThat(limiter.evictIdle()).isZero();
+		advance(seconds(3));
+		assertThat(limiter.evictIdle()).isEqualTo(1);
+		assertThat(limiter.size()).isEqualTo(1);
+
+		// A fresh bucket is what the evicted one would have been by now
+		drain(1);
+	}
+
+	private void drain(int key) {
+		for (int remaining = 2; remaining >= 0; remaining--) {
+			assertThat(limiter.tryAcquire(key)).isEqualTo(new RateLimiter.Decision(true, remaining, 0));
+		}
+		assertThat(limiter.tryAcquire(key).allowed()).isFalse();
+	}
+
+	private void advance(long nanos) {
+		now += nanos;
+	}
+
+	private static long seconds(long seconds) {
+		return TimeUnit.SECONDS.toNanos(seconds);
+	}
+}
@@ -0,0 +1,118 @@
+package com.xpenseai.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.expense.ExpenseRequest;
+import com.xpenseai.expense.ExpenseService;
+import com.xpenseai.user.User;
+
+/**
+ * Runs against two in-memory H2 databases. "Replication" is a manual copy of the primary
+ * into the replica, so each test controls exactly what the replica has seen. The replica
+ * settings make this a context of its own, on a primary database of its own.
+ */
+@TestPropertySource(properties = {
+		"xpenseai.test.database=routing-primary",
+		"xpenseai.datasource.replicas[0].url=" + ReadReplicaRoutingTests.REPLICA_URL,
+		"xpenseai.datasource.lag-query=select lag_ms from replica_lag",
+		"xpenseai.datasource.lag-check-interval-ms=3600000",
+		"xpenseai.datasource.read-your-writes-ms=60000"
+})
+class ReadReplicaRoutingTests extends IntegrationTestSupport {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private ReplicaRoutingDataSource routingDataSource;
+
+	@Autowired
+	private JdbcTemplate primary;
+
+	private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL));
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = newUser("replica");
+		replicate(0);
+	}
+
+	@AfterEach
+	void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void readOnlyServiceReadsGoToReplica() {
+		expenseService.createExpense(expense("Coffee"), user);
+
+		assertThat(expenseService.getUserExpenses(user)).isEmpty();
+
+		replicate(0);
+		assertThat(expenseService.getUserExpenses(user)).extracting("description").containsExactly("Coffee");
+	}
+
+	@Test
+	void usersReadTheirOwnWritesFromPrimary() {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+		expenseService.createExpense(expense("Groceries"), user);
+
+		assertThat(expenseService.getUserExpenses(user)).extracting("description").containsExactly("Groceries");
+	}
+
+	@Test
+	void laggingReplicaFallsBackToPrimary() {
+		expenseService.createExpense(expense("Train ticket"), user);
+		replica.update("update replica_lag set lag_ms = 60000");
+		routingDataSource.checkReplicaLag();
+
+		assertThat(expenseService.getUserExpenses(user)).extracting("description").containsExactly("Train ticket");
+	}
+
+	@Test
+	void readsOutsideReaderServicesStayOnPrimary() {
+		User registered = newUser("registered");
+
+		assertThat(userRepository.findByEmail(registered.getEmail())).isPresent();
+	}
+
+	private static ExpenseRequest expense(String description) {
+		return ExpenseRequest.builder()
+				.description(description)
+				.amount(12.5)
+				.date("2026-01-15")
+				.category("Food")
+				.build();
+	}
+
+	/**
+	 * Copies the primary's schema and data into the replica and sets its reported lag.
+	 */
+	private void replicate(long lagMs) {
+		List<String> script = primary.queryForList("SCRIPT", String.class);
+		replica.execute("DROP ALL OBJECTS");
+		script.forEach(replica::execute);
+		replica.execute("create table replica_lag (lag_ms bigint)");
+		replica.update("insert into replica_lag values (?)", lagMs);
+		routingDataSource.checkReplicaLag();
+	}
+}
@@ -0,0 +1,157 @@
+package com.xpenseai.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.expense.Expense;
+import com.xpenseai.expense.ExpenseRepository;
+import com.xpenseai.user.User;
+
+/**
+ * Requests the expense list in every encoding {@link ResponseEncodingAdvice} supports and
+ * checks each against the plain JSON rows.
+ */
+class ResponseEncodingTests extends IntegrationTestSupport {
+
+	private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+	private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+	private static final TypeReference<List<Map<String, Object>>> ROWS = new TypeReference<>() {
+	};
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ExpenseRepository expenseRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = newUser("encoding");
+		String[] categories = { "Food", "Travel", null };
+		List<Expense> expenses = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			expenses.add(Expense.builder()
+					.description("Expense " + i)
+					.amount(10.5 + i)
+					.date(LocalDate.of(2024, 5, 1 + i % 2))
+					.category(categories[i % 3])
+					.receiptId(i == 0 ? 77L : null)
+					.user(user)
+					.build());
+		}
+		expenseRepository.saveAll(expenses);
+	}
+
+	@Test
+	void fieldsKeepsOnlyTheNamedProperties() throws Exception {
+		List<Map<String, Object>> rows = objectMapper.readValue(fetch("?fields=amount,id", MediaType.APPLICATION_JSON),
+				ROWS);
+
+		assertThat(rows).hasSize(10).allSatisfy(row -> assertThat(row).containsOnlyKeys("id", "amount"));
+	}
+
+	@Test
+	void columnarRowsDecodeToThePlainJsonRows() throws Exception {
+		Map<String, Object> table = objectMapper.readValue(fetch("", ResponseEncodingAdvice.COLUMNAR_JSON),
+				new TypeReference<>() {
+				});
+
+		assertThat(table.get("rows")).isEqualTo(10);
+		assertThat(columns(table)).containsOnlyKeys("id", "description", "amount", "date", "category", "createdAt",
+				"receiptId");
+		assertThat(dictionaries(table)).containsOnlyKeys("date", "category");
+		assertThat(dictionaries(table).get("category")).containsExactlyInAnyOrder("Food", "Travel");
+		assertThat(columns(table).get("category")).contains((Object) null);
+		assertThat(decode(table)).isEqualTo(plainRows(""));
+	}
+
+	@Test
+	void columnarHonoursFields() throws Exception {
+		Map<String, Object> table = objectMapper.readValue(
+				fetch("?fields=category,amount", ResponseEncodingAdvice.COLUMNAR_JSON), new TypeReference<>() {
+				});
+
+		assertThat(columns(table)).containsOnlyKeys("amount", "category");
+		assertThat(dictionaries(table)).containsOnlyKeys("category");
+		assertThat(decode(table)).isEqualTo(plainRows("?fields=category,amount"));
+	}
+
+	@Test
+	void anEmptyListIsAnEmptyTable() throws Exception {
+		user = newUser("encoding-empty");
+
+		assertThat(new String(fetch("", ResponseEncodingAdvice.COLUMNAR_JSON)))
+				.isEqualTo("{\"rows\":0,\"columns\":{},\"dictionaries\":{}}");
+	}
+
+	@Test
+	void cborAndSmileCarryTheSameRowsAsJson() throws Exception {
+		assertThat(new CBORMapper().readValue(fetch("", CBOR), ROWS)).isEqualTo(plainRows(""));
+		assertThat(new SmileMapper().readValue(fetch("", SMILE), ROWS)).isEqualTo(plainRows(""));
+		assertThat(new CBORMapper().readValue(fetch("?fields=id", CBOR), ROWS)).isEqualTo(plainRows("?fields=id"));
+	}
+
+	private byte[] fetch(String query, MediaType accept) throws Exception {
+		return mockMvc.perform(get("/api/v1/expenses" + query)
+				.accept(accept)
+				.with(authentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()))))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(accept))
+				.andReturn().getResponse().getContentAsByteArray();
+	}
+
+	private List<Map<String, Object>> plainRows(String query) throws Exception {
+		return objectMapper.readValue(fetch(query, MediaType.APPLICATION_JSON), ROWS);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, List<Object>> columns(Map<String, Object> table) {
+		return (Map<String, List<Object>>) table.get("columns");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, List<Object>> dictionaries(Map<String, Object> table) {
+		return (Map<String, List<Object>>) table.get("dictionaries");
+	}
+
+	// What a client does with the table: look dictionary codes up, take other values as they are
+	private static List<Map<String, Object>> decode(Map<String, Object> table) {
+		List<Map<String, Object>> rows = new ArrayList<>();
+		for (int i = 0; i < (int) table.get("rows"); i++) {
+			Map<String, Object> row = new LinkedHashMap<>();
+			for (Map.Entry<String, List<Object>> column : columns(table).entrySet()) {
+				Object value = column.getValue().get(i);
+				List<Object> dictionary = dictionaries(table).get(column.getKey());
+				row.put(column.getKey(), dictionary != null && value != null ? dictionary.get((int) value) : value);
+			}
+			rows.add(row);
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,76 @@
+package com.xpenseai.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.xpenseai.user.Role;
+import com.xpenseai.user.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs {@link SlowRequestSamplingFilter} with a zero threshold, so every request counts as
+ * slow, and checks that its per-user sampling state stays bounded.
+ */
+class SlowRequestSamplingFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final SlowRequestSamplingFilter filter = new SlowRequestSamplingFilter(meterRegistry);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(filter, "slowRequestMs", 0L);
+		ReflectionTestUtils.setField(filter, "sampleWindowMs", 10_000L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void everySlowRequestIsCountedButEachUserSampledOncePerWindow() throws Exception {
+		send(7);
+		long sampledAt = lastSampleByUser().get(7);
+		send(7);
+
+		assertThat(meterRegistry.counter("xpenseai.http.slow.requests", "method", "GET", "uri", "UNKNOWN").count())
+				.isEqualTo(2);
+		assertThat(lastSampleByUser()).containsExactly(Map.entry(7, sampledAt));
+	}
+
+	@Test
+	void usersWhoseWindowHasPassedAreEvicted() throws Exception {
+		send(7);
+		lastSampleByUser().put(8, System.currentTimeMillis() - 10_001);
+		lastSampleByUser().put(9, System.currentTimeMillis() - 60_000);
+
+		filter.evictStaleSamples();
+
+		assertThat(lastSampleByUser()).containsOnlyKeys(7);
+	}
+
+	private void send(int userId) throws Exception {
+		User user = User.builder().id(userId).role(Role.USER).build();
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/expenses"), new MockHttpServletResponse(),
+				(request, response) -> {
+				});
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<Integer, Long> lastSampleByUser() {
+		return (Map<Integer, Long>) ReflectionTestUtils.getField(filter, "lastSampleByUser");
+	}
+}
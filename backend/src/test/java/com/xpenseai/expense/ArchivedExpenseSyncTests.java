@@ -0,0 +1,85 @@
+package com.xpenseai.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.sync.SyncResponse;
+import com.xpenseai.sync.SyncService;
+import com.xpenseai.user.User;
+
+/**
+ * Compacts old expenses into the archive and checks that sync still sees them and every
+ * later change to them.
+ */
+class ArchivedExpenseSyncTests extends IntegrationTestSupport {
+
+	private static final LocalDate CUTOFF = LocalDate.of(2020, 1, 1);
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private ExpenseArchive expenseArchive;
+
+	@Autowired
+	private SyncService syncService;
+
+	@Test
+	void fullSyncIncludesArchivedExpensesAndDeltasCarryTheirChanges() {
+		User user = newUser("archived-sync");
+		expenseService.createExpense(expense("Groceries", "2019-01-05", "Food"), user);
+		expenseService.createExpense(expense("Bakery", "2019-02-01", "Food"), user);
+		Expense flight = expenseService.createExpense(expense("Flight", "2019-03-01", "Travel"), user);
+		expenseService.createExpense(expense("Lunch", LocalDate.now().toString(), "Food"), user);
+		expenseArchive.compactUser(user.getId(), CUTOFF);
+
+		SyncResponse full = syncService.sync(user, 0);
+
+		assertThat(full.isFull()).isTrue();
+		assertThat(full.getExpenses()).extracting(Expense::getDescription)
+				.containsExactlyInAnyOrder("Groceries", "Bakery", "Flight", "Lunch");
+
+		expenseService.bulkRecategorizeExpenses(ExpenseBulkRequest.builder()
+				.category("Food").endDate(CUTOFF).newCategory("Dining").build(), user);
+		expenseService.deleteExpense(flight.getId(), user);
+		SyncResponse delta = syncService.sync(user, full.getVersion());
+
+		assertThat(delta.isFull()).isFalse();
+		assertThat(delta.getExpenses()).extracting(Expense::getDescription, Expense::getCategory)
+				.containsExactlyInAnyOrder(tuple("Groceries", "Dining"), tuple("Bakery", "Dining"));
+		assertThat(delta.getDeletedExpenseIds()).containsExactly(flight.getId());
+		assertThat(syncService.sync(user, delta.getVersion()).getExpenses()).isEmpty();
+		assertThat(syncService.sync(user, 0).getExpenses()).extracting(Expense::getDescription)
+				.containsExactlyInAnyOrder("Groceries", "Bakery", "Lunch");
+	}
+
+	@Test
+	void bulkDeleteOfArchivedExpensesLeavesTombstones() {
+		User user = newUser("archived-delete");
+		Expense old = expenseService.createExpense(expense("Old rent", "2018-06-01", "Rent"), user);
+		expenseArchive.compactUser(user.getId(), CUTOFF);
+		long since = syncService.sync(user, 0).getVersion();
+
+		int deleted = expenseService.bulkDeleteExpenses(ExpenseBulkRequest.builder()
+				.descriptionContains("rent").build(), user);
+
+		assertThat(deleted).isEqualTo(1);
+		assertThat(syncService.sync(user, since).getDeletedExpenseIds()).isEqualTo(List.of(old.getId()));
+	}
+
+	private static ExpenseRequest expense(String description, String date, String category) {
+		return ExpenseRequest.builder()
+				.description(description)
+				.amount(20.0)
+				.date(date)
+				.category(category)
+				.build();
+	}
+}
@@ -0,0 +1,121 @@
+package com.xpenseai.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.user.User;
+
+/**
+ * Compacts with one {@link ExpenseArchive} and reads with another, as two nodes would, and
+ * checks that hot rows only go away together with a durable, visible archive generation.
+ */
+class ExpenseArchiveTests extends IntegrationTestSupport {
+
+	private static final LocalDate CUTOFF = LocalDate.of(2020, 1, 1);
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private ExpenseArchive expenseArchive;
+
+	@Autowired
+	private ExpenseRepository expenseRepository;
+
+	@Autowired
+	private ArchivedExpenseChangeRepository archivedExpenseChangeRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void anotherNodeSharingTheDirectorySeesEveryGeneration() {
+		User user = newUser("archive-nodes");
+		expenseService.createExpense(expense("Rent", "2018-06-01", "Rent"), user);
+		Expense flight = expenseService.createExpense(expense("Flight", "2019-03-01", "Travel"), user);
+		ExpenseArchive otherNode = node(directory());
+
+		expenseArchive.compactUser(user.getId(), CUTOFF);
+
+		assertThat(expenseRepository.findByUserIdAndDateBefore(user.getId(), CUTOFF)).isEmpty();
+		assertThat(otherNode.findExpenses(reload(user), null, null, null)).extracting(Expense::getDescription)
+				.containsExactlyInAnyOrder("Rent", "Flight");
+
+		expenseService.deleteExpense(flight.getId(), user);
+
+		assertThat(otherNode.findExpenses(reload(user), null, null, null)).extracting(Expense::getDescription)
+				.containsExactly("Rent");
+		assertThat(otherNode.sumByCategory(reload(user), LocalDate.of(2019, 1, 1), LocalDate.of(2019, 12, 31)))
+				.isEmpty();
+	}
+
+	@Test
+	void aNodeWithItsOwnDirectoryFailsInsteadOfMissingRows() throws Exception {
+		User user = newUser("archive-local");
+		expenseService.createExpense(expense("Rent", "2018-06-01", "Rent"), user);
+		expenseArchive.compactUser(user.getId(), CUTOFF);
+		ExpenseArchive otherNode = node(Files.createTempDirectory("archive-elsewhere").toString());
+
+		assertThatThrownBy(() -> otherNode.findExpenses(reload(user), null, null, null))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("must be shared by every node");
+	}
+
+	@Test
+	void aRolledBackCompactionKeepsTheHotRows() {
+		User user = newUser("archive-rollback");
+		expenseService.createExpense(expense("Rent", "2018-06-01", "Rent"), user);
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			expenseArchive.compactUser(user.getId(), CUTOFF);
+			status.setRollbackOnly();
+		});
+
+		assertThat(expenseRepository.findByUserIdAndDateBefore(user.getId(), CUTOFF)).hasSize(1);
+		assertThat(reload(user).getArchiveGeneration()).isZero();
+		assertThat(expenseArchive.hasArchivedExpenses(reload(user))).isFalse();
+
+		expenseArchive.compactUser(user.getId(), CUTOFF);
+
+		assertThat(expenseRepository.findByUserIdAndDateBefore(user.getId(), CUTOFF)).isEmpty();
+		assertThat(node(directory()).findExpenses(reload(user), null, null, null)).extracting(Expense::getDescription)
+				.containsExactly("Rent");
+		assertThat(Path.of(directory(), String.valueOf(user.getId()), "1.gen")).exists();
+	}
+
+	private ExpenseArchive node(String archiveDirectory) {
+		ExpenseArchive node = new ExpenseArchive(expenseRepository, archivedExpenseChangeRepository, userRepository,
+				transactionManager);
+		ReflectionTestUtils.setField(node, "directory", archiveDirectory);
+		return node;
+	}
+
+	// The configured directory is a random one, so ask the application's archive which it got
+	private String directory() {
+		return (String) ReflectionTestUtils.getField(expenseArchive, "directory");
+	}
+
+	private User reload(User user) {
+		return userRepository.findById(user.getId()).orElseThrow();
+	}
+
+	private static ExpenseRequest expense(String description, String date, String category) {
+		return ExpenseRequest.builder()
+				.description(description)
+				.amount(20.0)
+				.date(date)
+				.category(category)
+				.build();
+	}
+}
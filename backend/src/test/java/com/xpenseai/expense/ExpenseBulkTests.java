@@ -0,0 +1,160 @@
+package com.xpenseai.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.user.User;
+
+/**
+ * Drives {@code POST /api/v1/expenses/bulk-delete} and {@code /bulk-recategorize} and checks
+ * which rows each filter touches, in the table and in the archive.
+ */
+class ExpenseBulkTests extends IntegrationTestSupport {
+
+	private static final LocalDate CUTOFF = LocalDate.of(2020, 1, 1);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private ExpenseArchive expenseArchive;
+
+	private User user;
+	private User otherUser;
+
+	@BeforeEach
+	void setUp() {
+		user = newUser("bulk");
+		otherUser = newUser("bulk-other");
+	}
+
+	@Test
+	void onlyTheCallersExpensesAreTouched() throws Exception {
+		Expense mine = add(user, "Coffee", "2024-05-01", "Food");
+		Expense theirs = add(otherUser, "Coffee", "2024-05-01", "Food");
+
+		bulk("bulk-recategorize", "{\"descriptionContains\":\"coffee\",\"newCategory\":\"Dining\"}")
+				.andExpect(jsonPath("$.affected").value(1));
+		// Naming another user's expense by id does not reach it either
+		bulk("bulk-delete", "{\"ids\":[" + mine.getId() + "," + theirs.getId() + "]}")
+				.andExpect(jsonPath("$.affected").value(1));
+
+		assertThat(expenseService.getUserExpenses(user)).isEmpty();
+		assertThat(expenseService.getUserExpenses(otherUser)).extracting(Expense::getCategory)
+				.containsExactly("Food");
+	}
+
+	@Test
+	void likeWildcardsInTheDescriptionFilterMatchLiterally() throws Exception {
+		add(user, "100% refund", "2024-05-01", "Food");
+		add(user, "100 percent refund", "2024-05-02", "Food");
+		add(user, "gift_card", "2024-05-03", "Food");
+		add(user, "giftXcard", "2024-05-04", "Food");
+		add(user, "C:\\receipts", "2024-05-05", "Food");
+		add(user, "C:receipts", "2024-05-06", "Food");
+
+		bulk("bulk-recategorize", "{\"descriptionContains\":\"0%\",\"newCategory\":\"Refunds\"}")
+				.andExpect(jsonPath("$.affected").value(1));
+		bulk("bulk-recategorize", "{\"descriptionContains\":\"T_C\",\"newCategory\":\"Gifts\"}")
+				.andExpect(jsonPath("$.affected").value(1));
+		bulk("bulk-delete", "{\"descriptionContains\":\":\\\\r\"}")
+				.andExpect(jsonPath("$.affected").value(1));
+
+		assertThat(expenseService.getUserExpenses(user))
+				.extracting(Expense::getDescription, Expense::getCategory)
+				.containsExactlyInAnyOrder(
+						tuple("100% refund", "Refunds"),
+						tuple("100 percent refund", "Food"),
+						tuple("gift_card", "Gifts"),
+						tuple("giftXcard", "Food"),
+						tuple("C:receipts", "Food"));
+	}
+
+	@Test
+	void atMostTenThousandIdsAreAccepted() throws Exception {
+		Expense expense = add(user, "Coffee", "2024-05-01", "Food");
+
+		bulk("bulk-delete", "{\"ids\":" + ids(expense.getId(), 10_001) + "}", status().isBadRequest());
+		assertThat(expenseService.getUserExpenses(user)).hasSize(1);
+
+		bulk("bulk-delete", "{\"ids\":" + ids(expense.getId(), 10_000) + "}")
+				.andExpect(jsonPath("$.affected").value(1));
+	}
+
+	@Test
+	void requestsWithoutCriteriaOrATargetCategoryAreRejected() throws Exception {
+		add(user, "Coffee", "2024-05-01", "Food");
+
+		bulk("bulk-delete", "{}", status().isBadRequest());
+		bulk("bulk-delete", "{\"ids\":[],\"descriptionContains\":\"  \"}", status().isBadRequest());
+		bulk("bulk-recategorize", "{\"category\":\"Food\"}", status().isBadRequest());
+
+		assertThat(expenseService.getUserExpenses(user)).hasSize(1);
+	}
+
+	@Test
+	void hotAndArchivedMatchesAreCountedTogether() throws Exception {
+		add(user, "Old groceries", "2019-03-01", "Food");
+		add(user, "Old bakery", "2019-04-01", "Food");
+		add(user, "Old taxi", "2019-05-01", "Travel");
+		add(user, "Groceries", "2024-05-01", "Food");
+		expenseArchive.compactUser(user.getId(), CUTOFF);
+
+		bulk("bulk-recategorize", "{\"category\":\"Food\",\"newCategory\":\"Dining\"}")
+				.andExpect(jsonPath("$.affected").value(3));
+		bulk("bulk-delete", "{\"descriptionContains\":\"old\"}")
+				.andExpect(jsonPath("$.affected").value(3));
+
+		assertThat(expenseService.getUserExpenses(user)).extracting(Expense::getDescription, Expense::getCategory)
+				.containsExactly(tuple("Groceries", "Dining"));
+	}
+
+	private Expense add(User owner, String description, String date, String category) {
+		return expenseService.createExpense(ExpenseRequest.builder()
+				.description(description)
+				.amount(10.0)
+				.date(date)
+				.category(category)
+				.build(), owner);
+	}
+
+	private ResultActions bulk(String operation, String body) throws Exception {
+		return bulk(operation, body, status().isOk());
+	}
+
+	private ResultActions bulk(String operation, String body, ResultMatcher expected) throws Exception {
+		return mockMvc.perform(post("/api/v1/expenses/" + operation)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(body)
+				.with(authentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()))))
+				.andExpect(expected);
+	}
+
+	// The real id first, padded with ids that belong to nobody
+	private static String ids(long first, int count) {
+		return LongStream.concat(LongStream.of(first), LongStream.range(1_000_000, 1_000_000 + count - 1))
+				.mapToObj(Long::toString)
+				.collect(Collectors.joining(",", "[", "]"));
+	}
+}
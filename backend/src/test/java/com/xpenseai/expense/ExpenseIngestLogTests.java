@@ -0,0 +1,117 @@
+package com.xpenseai.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Appends, reads and replays {@link ExpenseIngestLog} segments in a scratch directory.
+ */
+class ExpenseIngestLogTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void recordsAreReadableOnlyOnceForced() throws Exception {
+		ExpenseIngestLog log = ExpenseIngestLog.open(directory, 4096);
+		ExpenseIngestLog.Position start = log.loadCheckpoint();
+		log.append(bytes("first"));
+		ExpenseIngestLog.Position end = log.append(bytes("second"));
+
+		assertThat(log.read(start, 10).entries()).isEmpty();
+		assertThat(log.awaitDurable(end, 1)).isFalse();
+
+		log.force();
+
+		assertThat(log.awaitDurable(end, 1)).isTrue();
+		ExpenseIngestLog.Batch batch = log.read(start, 10);
+		assertThat(payloads(batch)).containsExactly("first", "second");
+		assertThat(batch.next()).isEqualTo(end);
+		assertThat(payloads(log.read(start, 1))).containsExactly("first");
+	}
+
+	@Test
+	void readingFollowsRolledSegmentsAndCheckpointsDropThem() throws Exception {
+		ExpenseIngestLog log = ExpenseIngestLog.open(directory, 32);
+		ExpenseIngestLog.Position start = log.loadCheckpoint();
+		for (int i = 0; i < 5; i++) {
+			// 8-byte header plus 10-byte payload: one record per 32-byte segment
+			log.append(bytes("record-" + String.format("%03d", i)));
+		}
+		log.force();
+
+		ExpenseIngestLog.Batch firstTwo = log.read(start, 2);
+		assertThat(payloads(firstTwo)).containsExactly("record-000", "record-001");
+		assertThat(payloads(log.read(firstTwo.next(), 10))).containsExactly("record-002", "record-003", "record-004");
+
+		log.checkpoint(firstTwo.next());
+
+		assertThat(segmentFiles()).hasSize(4);
+		assertThat(log.loadCheckpoint()).isEqualTo(firstTwo.next());
+		assertThat(payloads(log.read(log.loadCheckpoint(), 10))).containsExactly("record-002", "record-003", "record-004");
+	}
+
+	@Test
+	void replayAfterATornWriteResumesAtTheCheckpointAndSkipsTheTornRecord() throws Exception {
+		ExpenseIngestLog log = ExpenseIngestLog.open(directory, 4096);
+		ExpenseIngestLog.Position start = log.loadCheckpoint();
+		ExpenseIngestLog.Position afterFirst = log.append(bytes("committed"));
+		ExpenseIngestLog.Position afterSecond = log.append(bytes("acknowledged"));
+		log.append(bytes("torn"));
+		log.force();
+		log.checkpoint(afterFirst);
+		// Crash mid-append: the length made it to disk but the payload did not
+		try (FileChannel channel = FileChannel.open(segmentFile(start.segment()), StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(bytes("xxxx")), afterSecond.offset() + 8);
+		}
+
+		ExpenseIngestLog reopened = ExpenseIngestLog.open(directory, 4096);
+		ExpenseIngestLog.Position checkpoint = reopened.loadCheckpoint();
+		reopened.append(bytes("after restart"));
+		reopened.force();
+
+		assertThat(checkpoint).isEqualTo(afterFirst);
+		ExpenseIngestLog.Batch replayed = reopened.read(checkpoint, 10);
+		assertThat(payloads(replayed)).containsExactly("acknowledged", "after restart");
+		assertThat(replayed.next().segment()).isEqualTo(start.segment() + 1);
+		assertThat(reopened.read(replayed.next(), 10).entries()).isEmpty();
+	}
+
+	@Test
+	void deadLettersAreKeptOnePerLine() throws Exception {
+		ExpenseIngestLog log = ExpenseIngestLog.open(directory, 4096);
+
+		log.deadLetter(bytes("{\"key\":\"a\"}"));
+		log.deadLetter(bytes("not json"));
+
+		assertThat(Files.readAllLines(directory.resolve("dead-letters"))).containsExactly("{\"key\":\"a\"}", "not json");
+	}
+
+	private List<Path> segmentFiles() throws Exception {
+		try (var files = Files.list(directory)) {
+			return files.filter(file -> file.toString().endsWith(".wal")).toList();
+		}
+	}
+
+	private Path segmentFile(long segment) {
+		return directory.resolve(String.format("%020d.wal", segment));
+	}
+
+	private static List<String> payloads(ExpenseIngestLog.Batch batch) {
+		return batch.entries().stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList();
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+}
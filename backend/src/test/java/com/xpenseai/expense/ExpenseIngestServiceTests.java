@@ -0,0 +1,157 @@
+package com.xpenseai.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.user.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Drives an ingest service of its own, on a scratch log directory, against the shared
+ * database. Commits run when the test calls {@code drain()}.
+ */
+class ExpenseIngestServiceTests extends IntegrationTestSupport {
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@TempDir
+	Path directory;
+
+	private ExpenseIngestService ingestService;
+	private User user;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		user = newUser("ingest");
+		ingestService = start();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		ingestService.stop();
+	}
+
+	@Test
+	void poisonRecordsAreDeadLetteredWithoutHoldingUpTheLog() throws Exception {
+		ExpenseIngestLog log = (ExpenseIngestLog) ReflectionTestUtils.getField(ingestService, "ingestLog");
+		log.append("{not json".getBytes(StandardCharsets.UTF_8));
+		log.append(objectMapper.writeValueAsBytes(new ExpenseIngestService.IngestRecord(
+				"no-date", user.getId(), "Written before dates were checked", 5.0, null, "Food", null)));
+		ingestService.submit("good", expense("Lunch", "2024-05-01"), user);
+
+		ingestService.drain();
+
+		assertThat(expenseService.getUserExpenses(user)).extracting(Expense::getDescription).containsExactly("Lunch");
+		assertThat(ReflectionTestUtils.getField(ingestService, "consecutiveFailures")).isEqualTo(0);
+		assertThat(Files.readAllLines(directory.resolve("dead-letters")))
+				.hasSize(2)
+				.anySatisfy(line -> assertThat(line).isEqualTo("{not json"))
+				.anySatisfy(line -> assertThat(line).contains("\"key\":\"no-date\""));
+
+		ingestService.submit("later", expense("Dinner", "2024-05-01"), user);
+		ingestService.drain();
+
+		assertThat(expenseService.getUserExpenses(user)).hasSize(2);
+		assertThat(Files.readAllLines(directory.resolve("dead-letters"))).hasSize(2);
+	}
+
+	@Test
+	void aFailureThatIsNotTheRecordsFaultStopsTheCommitterInsteadOfDeadLettering() throws Exception {
+		ingestService.stop();
+		ExpenseService failing = mock(ExpenseService.class);
+		doThrow(new IllegalStateException("bug")).when(failing).saveIngested(any(), any());
+		ingestService = start(failing);
+		ingestService.submit("kept", expense("Lunch", "2024-05-01"), user);
+
+		ingestService.drain();
+
+		assertThat(ReflectionTestUtils.getField(ingestService, "consecutiveFailures")).isEqualTo(1);
+		assertThat(directory.resolve("dead-letters")).satisfiesAnyOf(
+				path -> assertThat(path).doesNotExist(),
+				path -> assertThat(path).isEmptyFile());
+
+		ingestService.stop();
+		ingestService = start();
+		ingestService.drain();
+
+		assertThat(expenseService.getUserExpenses(user)).extracting(Expense::getDescription).containsExactly("Lunch");
+	}
+
+	@Test
+	void expensesWithoutAValidDateAreRejectedAtSubmit() {
+		assertThatThrownBy(() -> ingestService.submit("missing", expense("Lunch", null), user))
+				.isInstanceOf(ResponseStatusException.class);
+		assertThatThrownBy(() -> ingestService.submit("garbled", expense("Lunch", "01/05/2024"), user))
+				.isInstanceOf(ResponseStatusException.class);
+	}
+
+	@Test
+	void replayFromAnOlderCheckpointInsertsEachExpenseOnce() throws Exception {
+		ingestService.submit("first", expense("Coffee", "2024-05-01"), user);
+		ingestService.submit("first", expense("Coffee retried", "2024-05-01"), user);
+		ingestService.submit("second", expense("Bagel", "2024-05-02"), user);
+		ingestService.drain();
+		ingestService.stop();
+
+		// As if the process died after committing but before the checkpoint was written
+		Files.delete(directory.resolve("checkpoint"));
+		ingestService = start();
+		ingestService.submit("third", expense("Tea", "2024-05-03"), user);
+		ingestService.drain();
+
+		assertThat(expenseService.getUserExpenses(user)).extracting(Expense::getDescription)
+				.containsExactlyInAnyOrder("Coffee", "Bagel", "Tea");
+	}
+
+	private ExpenseIngestService start() throws Exception {
+		return start(expenseService);
+	}
+
+	private ExpenseIngestService start(ExpenseService expenses) throws Exception {
+		ExpenseIngestService service = new ExpenseIngestService(expenses, userRepository, objectMapper,
+				meterRegistry);
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "directory", directory.toString());
+		ReflectionTestUtils.setField(service, "segmentSize", 4096);
+		ReflectionTestUtils.setField(service, "fsyncIntervalMs", 1L);
+		ReflectionTestUtils.setField(service, "ackTimeoutMs", 5000L);
+		ReflectionTestUtils.setField(service, "batchSize", 10);
+		ReflectionTestUtils.setField(service, "commitIntervalMs", 3_600_000L);
+		service.start();
+		return service;
+	}
+
+	private static ExpenseRequest expense(String description, String date) {
+		return ExpenseRequest.builder()
+				.description(description)
+				.amount(4.5)
+				.date(date)
+				.category("Food")
+				.build();
+	}
+}
@@ -0,0 +1,181 @@
+package com.xpenseai.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.user.ChangeVersions;
+import com.xpenseai.user.User;
+
+/**
+ * Searches the live index after writes through {@link ExpenseService}, and drives a private
+ * index over a mocked table to replay changes that race a rebuild.
+ */
+class ExpenseSearchIndexTests extends IntegrationTestSupport {
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Autowired
+	private ExpenseSearchIndex searchIndex;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ExpenseRepository expenseRepository;
+
+	@Autowired
+	private ChangeVersions changeVersions;
+
+	private User user;
+	private Expense coffee;
+	private Expense groceries;
+
+	@BeforeEach
+	void setUp() {
+		user = newUser("search");
+		coffee = expenseService.createExpense(expense("Starbucks coffee", "2024-03-01", 4.5), user);
+		groceries = expenseService.createExpense(expense("Whole Foods groceries", "2024-03-02", 82.0), user);
+	}
+
+	@Test
+	void everyQueryTermMatchesAsAPrefix() {
+		assertThat(search("star")).containsExactly(coffee.getId());
+		assertThat(search("STAR cof")).containsExactly(coffee.getId());
+		assertThat(search("whole groceries")).containsExactly(groceries.getId());
+		assertThat(search("bucks")).isEmpty();
+		assertThat(search("star groceries")).isEmpty();
+		assertThat(search("")).containsExactly(groceries.getId(), coffee.getId());
+		assertThat(searchIndex.search(user.getId(), ExpenseSearchRequest.builder().query("o").minAmount(10.0).build()))
+				.isEmpty();
+	}
+
+	@Test
+	void longerTermsTolerateTypos() {
+		assertThat(search("cofee")).containsExactly(coffee.getId());
+		assertThat(search("starbuks")).containsExactly(coffee.getId());
+		assertThat(search("grocreies")).containsExactly(groceries.getId());
+		// Short terms must match exactly
+		assertThat(search("cpf")).isEmpty();
+		assertThat(searchIndex.search(user.getId(), ExpenseSearchRequest.builder().query("cofee").fuzzy(false).build()))
+				.isEmpty();
+	}
+
+	@Test
+	void onlyCommittedChangesAreIndexed() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			expenseService.createExpense(expense("Rolled back taxi", "2024-03-03", 30.0), user);
+			status.setRollbackOnly();
+		});
+		expenseService.deleteExpense(groceries.getId(), user);
+
+		assertThat(search("taxi")).isEmpty();
+		assertThat(search("groceries")).isEmpty();
+		assertThat(search("coffee")).containsExactly(coffee.getId());
+	}
+
+	@Test
+	void changesMadeWhileARebuildScansAreReplayedOntoTheNewIndex() {
+		ExpenseRepository table = mock(ExpenseRepository.class);
+		ExpenseSearchIndex index = new ExpenseSearchIndex(table, mock(ExpenseArchive.class), userRepository);
+		when(table.findSearchRowsAfter(anyLong(), any())).thenAnswer(invocation -> {
+			// Committed while the page was being read: one insert the scan misses, one delete it does not see
+			index.onExpenseChanged(new ExpenseChangedEvent(ExpenseChangedEvent.Type.CREATED,
+					Expense.builder().id(3L).description("Airport taxi").date(LocalDate.of(2024, 3, 3)).build(), user));
+			index.onExpenseChanged(new ExpenseChangedEvent(ExpenseChangedEvent.Type.DELETED,
+					Expense.builder().id(2L).build(), user));
+			return List.of(row(1L, "Corner cafe"), row(2L, "Cafe refund"));
+		});
+
+		index.rebuild();
+
+		assertThat(index.isReady()).isTrue();
+		assertThat(index.search(user.getId(), ExpenseSearchRequest.builder().query("cafe").build())).containsExactly(1L);
+		assertThat(index.search(user.getId(), ExpenseSearchRequest.builder().query("taxi").build())).containsExactly(3L);
+	}
+
+	@Test
+	void aPartitionBehindTheUsersVersionIsRebuiltOnRefresh() {
+		// Written the way another node would: this node's index never hears of it
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> expenseRepository.save(
+				Expense.builder()
+						.description("Airport taxi")
+						.amount(30.0)
+						.date(LocalDate.of(2024, 3, 3))
+						.user(user)
+						.changeVersion(changeVersions.next(user.getId()))
+						.build()));
+		// A later local change must not paper over the one it missed
+		Expense bagel = expenseService.createExpense(expense("Bagel", "2024-03-04", 3.0), user);
+
+		assertThat(search("taxi")).isEmpty();
+		assertThat(search("bagel")).containsExactly(bagel.getId());
+
+		searchIndex.refresh(user);
+
+		assertThat(search("taxi")).hasSize(1);
+		assertThat(search("bagel")).containsExactly(bagel.getId());
+	}
+
+	@Test
+	void theStartupBuildRunsInTheBackground() throws Exception {
+		ExpenseRepository table = mock(ExpenseRepository.class);
+		CountDownLatch scanning = new CountDownLatch(1);
+		when(table.findSearchRowsAfter(anyLong(), any())).thenAnswer(invocation -> {
+			scanning.await(10, TimeUnit.SECONDS);
+			return List.of(row(1L, "Corner cafe"));
+		});
+		ExpenseSearchIndex index = new ExpenseSearchIndex(table, mock(ExpenseArchive.class), userRepository);
+
+		index.rebuildInBackground();
+
+		assertThat(index.isReady()).isFalse();
+		scanning.countDown();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!index.isReady() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(index.isReady()).isTrue();
+		assertThat(index.search(user.getId(), ExpenseSearchRequest.builder().query("cafe").build())).containsExactly(1L);
+	}
+
+	private List<Long> search(String query) {
+		return searchIndex.search(user.getId(), ExpenseSearchRequest.builder().query(query).build());
+	}
+
+	private ExpenseSearchRow row(Long id, String description) {
+		return new SpelAwareProxyProjectionFactory().createProjection(ExpenseSearchRow.class, Map.of(
+				"id", id,
+				"userId", user.getId(),
+				"description", description,
+				"date", LocalDate.of(2024, 3, 1),
+				"amount", 10.0,
+				"category", "Food"));
+	}
+
+	private static ExpenseRequest expense(String description, String date, double amount) {
+		return ExpenseRequest.builder()
+				.description(description)
+				.amount(amount)
+				.date(date)
+				.category("Food")
+				.build();
+	}
+}
@@ -0,0 +1,188 @@
+package com.xpenseai.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Writes {@link ExpenseSegment} files into a scratch directory and maps them back.
+ */
+class ExpenseSegmentTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void receiptLinksSurviveARoundTrip() throws Exception {
+		Path path = directory.resolve("2020.seg");
+		ExpenseSegment.write(path, List.of(
+				expense(1L, "2020-01-05", 12.5, "Food", 40L),
+				expense(2L, "2020-01-06", 3.0, "Food", null),
+				expense(3L, "2020-02-01", 99.99, "Shopping", 300_000L)));
+
+		assertThat(ExpenseSegment.open(path).readAll())
+				.extracting(Expense::getId, Expense::getReceiptId)
+				.containsExactly(tuple(1L, 40L), tuple(2L, null), tuple(3L, 300_000L));
+	}
+
+	@Test
+	void datesComeBackSortedWhateverTheGapsBetweenThem() throws Exception {
+		Path path = directory.resolve("dates.seg");
+		ExpenseSegment.write(path, List.of(
+				expense(4L, "2021-06-30", 1.0, "Food", null),
+				expense(2L, "1969-12-31", 1.0, "Food", null),
+				expense(3L, "2021-06-30", 1.0, "Food", null),
+				expense(1L, "2400-02-29", 1.0, "Food", null)));
+
+		assertThat(ExpenseSegment.open(path).readAll())
+				.extracting(Expense::getId, Expense::getDate)
+				.containsExactly(
+						tuple(2L, LocalDate.of(1969, 12, 31)),
+						tuple(3L, LocalDate.of(2021, 6, 30)),
+						tuple(4L, LocalDate.of(2021, 6, 30)),
+						tuple(1L, LocalDate.of(2400, 2, 29)));
+	}
+
+	@Test
+	void amountsKeepTheirCentsIncludingRefunds() throws Exception {
+		Path path = directory.resolve("amounts.seg");
+		ExpenseSegment.write(path, List.of(
+				expense(1L, "2020-01-01", 0.1 + 0.2, "Food", null),
+				expense(2L, "2020-01-02", -12.34, "Food", null),
+				expense(3L, "2020-01-03", 0.0, "Food", null),
+				expense(4L, "2020-01-04", 0.01, "Food", null),
+				expense(5L, "2020-01-05", 12_345_678.99, "Food", null),
+				expense(6L, "2020-01-06", -0.005, "Food", null)));
+
+		assertThat(ExpenseSegment.open(path).readAll())
+				.extracting(Expense::getAmount)
+				.containsExactly(0.3, -12.34, 0.0, 0.01, 12_345_678.99, 0.0);
+	}
+
+	@Test
+	void eachCategoryIsStoredOnceAndCodesMapBackToIt() throws Exception {
+		Path path = directory.resolve("categories.seg");
+		ExpenseSegment.write(path, List.of(
+				expense(1L, "2020-01-01", 10.0, "Groceries", null),
+				expense(2L, "2020-01-02", 20.0, null, null),
+				expense(3L, "2020-01-03", 30.0, "Café", null),
+				expense(4L, "2020-01-04", 40.0, "Groceries", null),
+				expense(5L, "2020-02-01", 50.0, "Café", null)));
+
+		ExpenseSegment segment = ExpenseSegment.open(path);
+
+		assertThat(segment.readAll())
+				.extracting(Expense::getCategory)
+				.containsExactly("Groceries", null, "Café", "Groceries", "Café");
+		assertThat(occurrences(Files.readAllBytes(path), "Groceries")).isEqualTo(1);
+		assertThat(segment.sumByCategory(LocalDate.of(2020, 1, 2).toEpochDay(),
+				LocalDate.of(2020, 1, 31).toEpochDay()))
+				.containsOnly(entry(null, 20.0), entry("Café", 30.0), entry("Groceries", 40.0));
+	}
+
+	@Test
+	void everyOtherColumnSurvivesARoundTrip() throws Exception {
+		Path path = directory.resolve("rows.seg");
+		Expense early = expense(900L, "2020-03-01", 7.5, "Travel", null);
+		early.setDescription("Zürich → Genève 🚆");
+		early.setCreatedAt(LocalDateTime.of(2020, 3, 1, 8, 15, 30));
+		Expense late = expense(17L, "2020-03-02", 7.5, "Travel", null);
+		late.setDescription(null);
+		late.setCreatedAt(LocalDateTime.of(2019, 12, 31, 23, 59, 59));
+
+		ExpenseSegment.write(path, List.of(late, early));
+
+		assertThat(ExpenseSegment.open(path).readAll())
+				.extracting(Expense::getId, Expense::getDescription, Expense::getCreatedAt)
+				.containsExactly(
+						tuple(900L, "Zürich → Genève 🚆", LocalDateTime.of(2020, 3, 1, 8, 15, 30)),
+						// Missing descriptions are stored empty
+						tuple(17L, "", LocalDateTime.of(2019, 12, 31, 23, 59, 59)));
+	}
+
+	@Test
+	void emptySegmentsReadBackEmpty() throws Exception {
+		Path path = directory.resolve("empty.seg");
+		ExpenseSegment.write(path, List.of());
+
+		ExpenseSegment segment = ExpenseSegment.open(path);
+
+		assertThat(segment.getRowCount()).isZero();
+		assertThat(segment.readAll()).isEmpty();
+		assertThat(segment.sumByCategory(Long.MIN_VALUE, Long.MAX_VALUE)).isEmpty();
+	}
+
+	@Test
+	void anOpenSegmentKeepsReadingItsOwnFileAfterARewrite() throws Exception {
+		Path path = directory.resolve("2020.seg");
+		ExpenseSegment.write(path, List.of(expense(1L, "2020-01-05", 12.5, "Food", null)));
+		ExpenseSegment before = ExpenseSegment.open(path);
+
+		ExpenseSegment.write(path, List.of(
+				expense(1L, "2020-01-05", 12.5, "Food", null),
+				expense(2L, "2020-01-06", 3.0, "Food", null)));
+
+		assertThat(before.getPath()).isEqualTo(path);
+		assertThat(before.readAll()).extracting(Expense::getId).containsExactly(1L);
+		assertThat(ExpenseSegment.open(path).readAll()).extracting(Expense::getId).containsExactly(1L, 2L);
+		assertThat(directory.resolve("2020.seg.tmp")).doesNotExist();
+	}
+
+	@Test
+	void filesWithAnotherMagicOrAnUnknownVersionAreRefused() throws Exception {
+		Path path = directory.resolve("2020.seg");
+		ExpenseSegment.write(path, List.of(expense(1L, "2020-01-05", 12.5, "Food", null)));
+		byte[] segment = Files.readAllBytes(path);
+
+		Files.write(path, withInt(segment, 4, 1));
+		assertThatThrownBy(() -> ExpenseSegment.open(path)).isInstanceOf(IllegalStateException.class);
+
+		Files.write(path, withInt(segment, 4, 3));
+		assertThatThrownBy(() -> ExpenseSegment.open(path))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("Not an expense segment");
+
+		Files.write(path, withInt(segment, 0, 0x12345678));
+		assertThatThrownBy(() -> ExpenseSegment.open(path)).isInstanceOf(IllegalStateException.class);
+	}
+
+	private static byte[] withInt(byte[] segment, int offset, int value) {
+		byte[] copy = segment.clone();
+		ByteBuffer.wrap(copy).putInt(offset, value);
+		return copy;
+	}
+
+	private static int occurrences(byte[] haystack, String needle) {
+		String text = new String(haystack, StandardCharsets.ISO_8859_1);
+		String pattern = new String(needle.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+		int count = 0;
+		for (int i = text.indexOf(pattern); i >= 0; i = text.indexOf(pattern, i + 1)) {
+			count++;
+		}
+		return count;
+	}
+
+	private static Expense expense(Long id, String date, double amount, String category, Long receiptId) {
+		return Expense.builder()
+				.id(id)
+				.description("Expense " + id)
+				.date(LocalDate.parse(date))
+				.amount(amount)
+				.category(category)
+				.createdAt(LocalDateTime.of(2020, 1, 1, 12, 0).plusHours(id))
+				.receiptId(receiptId)
+				.build();
+	}
+}
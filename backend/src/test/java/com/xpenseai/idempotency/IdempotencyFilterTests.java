@@ -0,0 +1,176 @@
+package com.xpenseai.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import com.xpenseai.user.Role;
+import com.xpenseai.user.User;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Runs {@link IdempotencyFilter} over a real {@link IdempotencyStore} whose table is mocked
+ * away, with a handler that counts how often it actually runs.
+ */
+class IdempotencyFilterTests {
+
+	private final AtomicInteger executions = new AtomicInteger();
+	private IdempotencyStore store;
+	private int handlerStatus;
+
+	@BeforeEach
+	void setUp() {
+		store = new IdempotencyStore(mock(IdempotentResponseRepository.class));
+		ReflectionTestUtils.setField(store, "ttlMinutes", 60L);
+		ReflectionTestUtils.setField(store, "maxCachedResponses", 100);
+		handlerStatus = 201;
+		User user = User.builder().id(7).email("idempotent@xpenseai.com").role(Role.USER).build();
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void retryWithTheSameKeyReplaysTheStoredResponse() throws Exception {
+		MockHttpServletResponse first = send(new IdempotencyFilter(store), "key-1", "{\"amount\":5}");
+		MockHttpServletResponse retry = send(new IdempotencyFilter(store), "key-1", "{\"amount\":5}");
+
+		assertThat(executions).hasValue(1);
+		assertThat(retry.getStatus()).isEqualTo(201);
+		assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("{\"execution\":1}");
+		assertThat(retry.getHeader("Idempotent-Replayed")).isEqualTo("true");
+		assertThat(first.getHeader("Idempotent-Replayed")).isNull();
+	}
+
+	@Test
+	void reusingAKeyForADifferentRequestIsRejected() throws Exception {
+		send(new IdempotencyFilter(store), "key-2", "{\"amount\":5}");
+		MockHttpServletResponse reused = send(new IdempotencyFilter(store), "key-2", "{\"amount\":6}");
+
+		assertThat(reused.getStatus()).isEqualTo(422);
+		assertThat(executions).hasValue(1);
+	}
+
+	@Test
+	void retryWhileTheFirstRequestIsRunningGetsConflict() throws Exception {
+		store.begin(7, "key-3");
+
+		MockHttpServletResponse retry = send(new IdempotencyFilter(store), "key-3", "{\"amount\":5}");
+
+		assertThat(retry.getStatus()).isEqualTo(409);
+		assertThat(retry.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(executions).hasValue(0);
+	}
+
+	@Test
+	void serverErrorsAreNotStored() throws Exception {
+		handlerStatus = 503;
+		assertThat(send(new IdempotencyFilter(store), "key-4", "{\"amount\":5}").getStatus()).isEqualTo(503);
+
+		handlerStatus = 201;
+		MockHttpServletResponse retry = send(new IdempotencyFilter(store), "key-4", "{\"amount\":5}");
+
+		assertThat(retry.getStatus()).isEqualTo(201);
+		assertThat(retry.getHeader("Idempotent-Replayed")).isNull();
+		assertThat(executions).hasValue(2);
+	}
+
+	@Test
+	void requestThatLosesTheRaceToAFinishedFirstRequestIsReplayed() throws Exception {
+		send(new IdempotencyFilter(store), "key-5", "{\"amount\":5}");
+		// The first lookup misses: the first request stored its response just after it
+		IdempotencyStore racing = spy(store);
+		doReturn(Optional.empty()).doCallRealMethod().when(racing).find(any(), any());
+
+		MockHttpServletResponse retry = send(new IdempotencyFilter(racing), "key-5", "{\"amount\":5}");
+
+		assertThat(executions).hasValue(1);
+		assertThat(retry.getHeader("Idempotent-Replayed")).isEqualTo("true");
+		assertThat(racing.begin(7, "key-5")).isTrue();
+	}
+
+	@Test
+	void handlerReadingTheBodyWithAReadListenerGetsAllOfIt() throws Exception {
+		MockHttpServletRequest request = request("key-6", "{\"amount\":5}");
+		ByteArrayOutputStream read = new ByteArrayOutputStream();
+		List<String> events = new ArrayList<>();
+		FilterChain handler = (req, res) -> {
+			ServletInputStream in = req.getInputStream();
+			in.setReadListener(new ReadListener() {
+				@Override
+				public void onDataAvailable() throws IOException {
+					events.add("data");
+					while (in.isReady() && !in.isFinished()) {
+						read.write(in.read());
+					}
+				}
+
+				@Override
+				public void onAllDataRead() {
+					events.add("done");
+				}
+
+				@Override
+				public void onError(Throwable t) {
+					events.add("error");
+				}
+			});
+			((HttpServletResponse) res).setStatus(201);
+		};
+
+		new IdempotencyFilter(store).doFilter(request, new MockHttpServletResponse(), handler);
+
+		assertThat(events).containsExactly("data", "done");
+		assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo("{\"amount\":5}");
+	}
+
+	private MockHttpServletResponse send(IdempotencyFilter filter, String key, String body) throws Exception {
+		MockHttpServletRequest request = request(key, body);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain handler = (req, res) -> {
+			StreamUtils.copyToByteArray(req.getInputStream());
+			int execution = executions.incrementAndGet();
+			((HttpServletResponse) res).setStatus(handlerStatus);
+			res.setContentType("application/json");
+			res.getWriter().write("{\"execution\":" + execution + "}");
+		};
+		filter.doFilter(request, response, handler);
+		return response;
+	}
+
+	private static MockHttpServletRequest request(String key, String body) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/expenses");
+		request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+		request.setContentType("application/json");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		return request;
+	}
+}
@@ -0,0 +1,56 @@
+package com.xpenseai.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.user.User;
+
+/**
+ * Stores responses in the real {@code idempotent_responses} table, where a key can still
+ * hold an expired response that the purge has not removed yet.
+ */
+class IdempotencyStoreTests extends IntegrationTestSupport {
+
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+
+	@Autowired
+	private IdempotentResponseRepository idempotentResponseRepository;
+
+	@Test
+	void anExpiredUnpurgedResponseIsReplacedByTheNewOne() {
+		User user = newUser("idempotency-expired");
+		idempotentResponseRepository.save(response(user, "old", LocalDateTime.now().minusDays(2)));
+
+		idempotencyStore.save(response(user, "new", LocalDateTime.now()));
+
+		assertThat(idempotentResponseRepository.findByUserIdAndIdempotencyKey(user.getId(), "key"))
+				.hasValueSatisfying(stored -> assertThat(stored.getRequestHash()).isEqualTo("new"));
+	}
+
+	@Test
+	void aLiveResponseStoredFirstIsKept() {
+		User user = newUser("idempotency-live");
+		idempotentResponseRepository.save(response(user, "first", LocalDateTime.now()));
+
+		idempotencyStore.save(response(user, "second", LocalDateTime.now()));
+
+		assertThat(idempotentResponseRepository.findByUserIdAndIdempotencyKey(user.getId(), "key"))
+				.hasValueSatisfying(stored -> assertThat(stored.getRequestHash()).isEqualTo("first"));
+	}
+
+	private static IdempotentResponse response(User user, String requestHash, LocalDateTime createdAt) {
+		return IdempotentResponse.builder()
+				.userId(user.getId())
+				.idempotencyKey("key")
+				.requestHash(requestHash)
+				.status(201)
+				.createdAt(createdAt)
+				.build();
+	}
+}
@@ -0,0 +1,106 @@
+package com.xpenseai.receipt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.expense.ExpenseRequest;
+import com.xpenseai.expense.ExpenseService;
+import com.xpenseai.user.User;
+
+/**
+ * Uploads receipts into a scratch directory and serves them back through {@link BlobResponder}.
+ */
+class ReceiptServiceTests extends IntegrationTestSupport {
+
+	@Autowired
+	private ReceiptService receiptService;
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Test
+	void sameImageIsStoredOncePerUserAndOnlyLinkableByItsOwner() throws Exception {
+		User owner = newUser("owner");
+		User other = newUser("other");
+		byte[] png = png();
+
+		ReceiptView first = receiptService.uploadReceipt(upload(png), owner);
+		ReceiptView again = receiptService.uploadReceipt(upload(png), owner);
+		ReceiptView othersCopy = receiptService.uploadReceipt(upload(png), other);
+
+		assertThat(again.receiptId()).isEqualTo(first.receiptId());
+		assertThat(othersCopy.receiptId()).isNotEqualTo(first.receiptId());
+		assertThat(first.contentType()).isEqualTo("image/png");
+		assertThat(expenseService.createExpense(expense(first.receiptId()), owner).getReceiptId())
+				.isEqualTo(first.receiptId());
+		assertThatThrownBy(() -> receiptService.getReceipt(first.receiptId(), other))
+				.isInstanceOf(ResponseStatusException.class);
+		assertThatThrownBy(() -> expenseService.createExpense(expense(first.receiptId()), other))
+				.isInstanceOf(ResponseStatusException.class);
+		assertThatThrownBy(() -> receiptService.uploadReceipt(
+				new MockMultipartFile("receipt", "notes.txt", "image/png", "not an image".getBytes()), owner))
+				.isInstanceOf(ResponseStatusException.class);
+	}
+
+	@Test
+	void servesRangesAndConditionalRequests() throws Exception {
+		User owner = newUser("ranges");
+		byte[] png = png();
+		Long receiptId = receiptService.uploadReceipt(upload(png), owner).receiptId();
+		Receipt receipt = receiptService.getReceipt(receiptId, owner);
+
+		MockHttpServletResponse partial = serve(receipt, "Range", "bytes=10-19");
+		assertThat(partial.getStatus()).isEqualTo(206);
+		assertThat(partial.getHeader("Content-Range")).isEqualTo("bytes 10-19/" + png.length);
+		assertThat(partial.getContentAsByteArray()).containsExactly(Arrays.copyOfRange(png, 10, 20));
+
+		assertThat(serve(receipt, "Range", "bytes=" + png.length + "-").getStatus()).isEqualTo(416);
+		assertThat(serve(receipt, "If-None-Match", "\"" + receipt.getContentHash() + "\"").getStatus()).isEqualTo(304);
+		assertThat(serve(receipt, "Range", "bytes=0-0,5-9").getContentAsByteArray()).containsExactly(png);
+	}
+
+	private MockHttpServletResponse serve(Receipt receipt, String header, String value) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/receipts/" + receipt.getId());
+		request.addHeader(header, value);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		BlobResponder.write(request, response, receiptService.originalFile(receipt), receipt.getContentType(),
+				"\"" + receipt.getContentHash() + "\"");
+		return response;
+	}
+
+	private static MockMultipartFile upload(byte[] content) {
+		return new MockMultipartFile("receipt", "receipt.png", "image/png", content);
+	}
+
+	private static byte[] png() throws Exception {
+		BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+		image.setRGB(3, 4, (int) System.nanoTime());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+
+	private static ExpenseRequest expense(Long receiptId) {
+		return ExpenseRequest.builder()
+				.description("Lunch")
+				.amount(12.5)
+				.date("2024-05-01")
+				.category("Food")
+				.receiptId(receiptId)
+				.build();
+	}
+}
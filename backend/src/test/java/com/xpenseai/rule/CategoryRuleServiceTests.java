@@ -0,0 +1,90 @@
+package com.xpenseai.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.expense.ExpenseRequest;
+import com.xpenseai.expense.ExpenseService;
+import com.xpenseai.user.User;
+
+class CategoryRuleServiceTests extends IntegrationTestSupport {
+
+	@Autowired
+	private CategoryRuleService categoryRuleService;
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@Test
+	void mostSpecificMatchingRuleWins() {
+		User user = newUser("specific");
+		rule(user, "uber", null, null, "Transport");
+		rule(user, "Uber  Eats", null, null, "Dining");
+		rule(user, "costco", null, null, "Groceries");
+		rule(user, "costco", 500.0, null, "Shopping");
+		rule(user, null, 1000.0, null, "Large");
+		rule(user, null, null, 5.0, "Small");
+		rule(user, "he", null, null, "He");
+		rule(user, "she", null, null, "She");
+		rule(user, "hers", null, null, "Hers");
+
+		assertThat(category(user, "UBER *TRIP", 20.0)).contains("Transport");
+		assertThat(category(user, "uber\teats order", 20.0)).contains("Dining");
+		assertThat(category(user, "COSTCO WHOLESALE", 80.0)).contains("Groceries");
+		assertThat(category(user, "COSTCO WHOLESALE", 500.0)).contains("Shopping");
+		assertThat(category(user, "Laptop", 1200.0)).contains("Large");
+		assertThat(category(user, "Gum", 4.99)).contains("Small");
+		assertThat(category(user, "Gum", 5.0)).isEmpty();
+		// Overlapping keywords are all found in one pass; the longest wins
+		assertThat(category(user, "ushers", 20.0)).contains("Hers");
+		assertThat(category(user, "ushe", 20.0)).contains("She");
+		assertThat(category(newUser("empty"), "uber", 20.0)).isEmpty();
+	}
+
+	@Test
+	void expensesWithoutCategoryFollowTheCurrentRules() {
+		User user = newUser("ingest");
+		CategoryRule rule = rule(user, "netflix", null, null, "Entertainment");
+
+		assertThat(expenseService.createExpense(expense("NETFLIX.COM", null), user).getCategory())
+				.isEqualTo("Entertainment");
+		assertThat(expenseService.createExpense(expense("NETFLIX.COM", "Subscriptions"), user).getCategory())
+				.isEqualTo("Subscriptions");
+
+		categoryRuleService.updateRule(rule.getId(), CategoryRuleRequest.builder()
+				.keyword("netflix").category("Subscriptions").build(), user);
+		assertThat(expenseService.createExpenses(List.of(expense("Netflix", null)), user).get(0).getCategory())
+				.isEqualTo("Subscriptions");
+
+		categoryRuleService.deleteRule(rule.getId(), user);
+		assertThat(expenseService.createExpense(expense("NETFLIX.COM", null), user).getCategory()).isNull();
+	}
+
+	private Optional<String> category(User user, String description, Double amount) {
+		return categoryRuleService.match(description, amount, user).map(CategoryRuleMatch::category);
+	}
+
+	private CategoryRule rule(User user, String keyword, Double minAmount, Double maxAmount, String category) {
+		return categoryRuleService.createRule(CategoryRuleRequest.builder()
+				.keyword(keyword)
+				.minAmount(minAmount)
+				.maxAmount(maxAmount)
+				.category(category)
+				.build(), user);
+	}
+
+	private static ExpenseRequest expense(String description, String category) {
+		return ExpenseRequest.builder()
+				.description(description)
+				.amount(15.99)
+				.date("2024-05-01")
+				.category(category)
+				.build();
+	}
+}
@@ -0,0 +1,52 @@
+package com.xpenseai.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Runs the real servers with actuator on its own port, as in prod, and scrapes it the way
+ * Prometheus does: without any credentials.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:management-port-tests;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create",
+		"management.server.port=0",
+		"xpenseai.rate-limit.enabled=false",
+		"xpenseai.budget-spend.flush-interval-ms=3600000",
+		"xpenseai.budgets.rollover-cron=-",
+		"xpenseai.archive.directory=target/archive-tests/${random.uuid}"
+})
+@AutoConfigureObservability(tracing = false)
+class ManagementPortTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@LocalServerPort
+	private int serverPort;
+
+	@LocalManagementPort
+	private int managementPort;
+
+	@Test
+	void prometheusIsScrapeableOnTheManagementPortOnly() {
+		ResponseEntity<String> scrape = restTemplate.getForEntity(
+				"http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+
+		assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(scrape.getBody()).contains("jvm_memory_used_bytes");
+		assertThat(restTemplate.getForEntity("http://localhost:" + serverPort + "/actuator/prometheus", String.class)
+				.getStatusCode().is2xxSuccessful()).isFalse();
+		assertThat(restTemplate.getForEntity("http://localhost:" + serverPort + "/api/v1/expenses", String.class)
+				.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+	}
+}
@@ -1,13 +1,50 @@
 package com.xpenseai.security;
 
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.user.Role;
+import com.xpenseai.user.User;
+
+class SecurityApplicationTests extends IntegrationTestSupport {
 
-@SpringBootTest
-class SecurityApplicationTests {
+	@Autowired
+	private MockMvc mockMvc;
 
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void healthIsOpenToEveryone() throws Exception {
+		mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+	}
+
+	@Test
+	void metricsAreOnlyForAdmins() throws Exception {
+		User admin = newUser("admin");
+		admin.setRole(Role.ADMIN);
+
+		mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+		mockMvc.perform(as(get("/actuator/prometheus"), newUser("scraper"))).andExpect(status().isForbidden());
+		mockMvc.perform(as(get("/actuator/metrics"), newUser("curious"))).andExpect(status().isForbidden());
+		// Export (and with it /actuator/prometheus) is off in tests; the metrics endpoint is behind the same rule
+		mockMvc.perform(as(get("/actuator/metrics"), admin))
+				.andExpect(status().isOk())
+				.andExpect(content().string(Matchers.containsString("jvm.memory.used")));
+	}
+
+	private static MockHttpServletRequestBuilder as(MockHttpServletRequestBuilder request, User user) {
+		return request.with(authentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities())));
+	}
 }
@@ -0,0 +1,88 @@
+package com.xpenseai.statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.FileSystemUtils;
+
+import com.xpenseai.IntegrationTestSupport;
+import com.xpenseai.expense.ExpenseRequest;
+import com.xpenseai.expense.ExpenseService;
+import com.xpenseai.user.User;
+
+/**
+ * Runs the month-end job against a small set of users split into two-user chunks.
+ */
+class StatementJobTests extends IntegrationTestSupport {
+
+	private static final YearMonth MONTH = YearMonth.of(2021, 3);
+
+	@Autowired
+	private StatementJob statementJob;
+
+	@Autowired
+	private StatementStore statementStore;
+
+	@Autowired
+	private ExpenseService expenseService;
+
+	@BeforeEach
+	void setUp() {
+		FileSystemUtils.deleteRecursively(Paths.get("target/statement-tests").toFile());
+	}
+
+	@Test
+	void statementShowsCategoryTotalsMerchantsAndAnomalies() throws Exception {
+		User user = newUser("ada");
+		for (int i = 1; i <= 4; i++) {
+			expenseService.createExpense(expense("Corner Shop", 20.0, "Groceries", MONTH.atDay(i).toString()), user);
+		}
+		expenseService.createExpense(expense("Wine Cellar", 150.0, "Groceries", MONTH.atDay(20).toString()), user);
+		for (int i = 1; i <= 3; i++) {
+			expenseService.createExpense(expense("Cafe", 10.0, "Dining", MONTH.minusMonths(i).atDay(5).toString()), user);
+		}
+		expenseService.createExpense(expense("Bistro", 60.0, "Dining", MONTH.atDay(12).toString()), user);
+
+		statementJob.generate(MONTH);
+
+		String html = Files.readString(statementStore.find(MONTH, user.getId()).orElseThrow());
+		assertThat(html).contains("March 2021", "Total spent: <strong>290.00</strong> across 6 expenses");
+		assertThat(html).contains("<td>Groceries</td><td class=\"n\">5</td><td class=\"n\">230.00</td>");
+		assertThat(html).contains("<td>Wine Cellar</td><td class=\"n\">1</td><td class=\"n\">150.00</td>");
+		assertThat(html).contains("7.5x the usual Groceries expense of 20.00", "6.0x the 3-month average of 10.00");
+	}
+
+	@Test
+	void resumesAfterTheCheckpointAndStopsOnceComplete() {
+		YearMonth month = MONTH.plusMonths(1);
+		User first = newUser("first");
+		User second = newUser("second");
+		User third = newUser("third");
+		statementStore.writeCheckpoint(month, new StatementStore.Checkpoint(first.getId(), false));
+
+		int written = statementJob.generate(month);
+
+		assertThat(statementStore.find(month, first.getId())).isEmpty();
+		assertThat(statementStore.find(month, second.getId())).isPresent();
+		assertThat(statementStore.find(month, third.getId())).isPresent();
+		assertThat(written).isEqualTo(userRepository.findAll().stream().filter(u -> u.getId() > first.getId()).count());
+		assertThat(statementStore.readCheckpoint(month))
+				.isEqualTo(new StatementStore.Checkpoint(third.getId(), true));
+		assertThat(statementJob.generate(month)).isZero();
+	}
+
+	private static ExpenseRequest expense(String description, double amount, String category, String date) {
+		return ExpenseRequest.builder()
+				.description(description)
+				.amount(amount)
+				.date(date)
+				.category(category)
+				.build();
+	}
+}
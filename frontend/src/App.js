@@ -8,6 +8,7 @@ import BudgetForm from "./components/budget/BudgetForm";
 import BudgetList from "./components/budget/BudgetList";
 import Dashboard from "./components/dashboard/Dashboard";
 import ScanReceipt from "./components/scanner/ScanReceipt";
+import CategoryRules from "./components/rules/CategoryRules";
 import authService from "./services/authService";
 import apiService from "./services/apiService";
 
@@ -25,7 +26,7 @@ function App() {
   });
   const [showLogin, setShowLogin] = React.useState(true);
   const [activeTab, setActiveTab] = React.useState("add");
-  const [addPageTab, setAddPageTab] = React.useState("manual"); // "manual", "scan", or "budget"
+  const [addPageTab, setAddPageTab] = React.useState("manual"); // "manual", "scan", "budget" or "rules"
 
   const handleExpenseAdded = () => {
     setRefreshList((prev) => prev + 1);
@@ -46,15 +47,14 @@ function App() {
   // Add bulk expenses from receipt scanner
   const handleBulkExpenseAdd = async (expenses) => {
     try {
-      // Add all expenses via API
-      for (const expense of expenses) {
-        await apiService.createExpense({
-          description: expense.description,
-          amount: parseFloat(expense.amount),
-          date: expense.date,
-          category: expense.category,
-        });
-      }
+      // Add all expenses in one request
+      await apiService.createExpenses(expenses.map(expense => ({
+        description: expense.description,
+        amount: parseFloat(expense.amount),
+        date: expense.date,
+        category: expense.category,
+        receiptId: expense.receiptId,
+      })));
       
       // Refresh the expense list
       handleExpenseAdded();
@@ -169,6 +169,12 @@ function App() {
                   >
                     Set Budget
                   </button>
+                  <button
+                    className={`tab-btn ${addPageTab === "rules" ? "active-tab" : ""}`}
+                    onClick={() => setAddPageTab("rules")}
+                  >
+                    Rules
+                  </button>
                 </div>
 
                 {/* Sub-tab Content */}
@@ -254,6 +260,12 @@ function App() {
                       </div>
                     </div>
                   )}
+
+                  {addPageTab === "rules" && (
+                    <div className="rules-section">
+                      <CategoryRules />
+                    </div>
+                  )}
                 </div>
 
                 {/* Hover effects for sub-tabs */}
@@ -7,6 +7,17 @@ function BudgetList({ refreshTrigger }) {
   const [isLoading, setIsLoading] = useState(false);
   const [error, setError] = useState("");
   const [activeTab, setActiveTab] = useState("current"); // "current" or "history"
+  const [alertVersion, setAlertVersion] = useState(0);
+  const [latestAlert, setLatestAlert] = useState(null);
+
+  // Budget changes are pushed by the server; refetch only when something actually happened
+  useEffect(() => {
+    const unsubscribe = apiService.subscribeToBudgetAlerts((alert) => {
+      setLatestAlert(alert);
+      setAlertVersion((prev) => prev + 1);
+    });
+    return unsubscribe;
+  }, []);
 
   useEffect(() => {
     const fetchData = async () => {
@@ -29,7 +40,7 @@ function BudgetList({ refreshTrigger }) {
     };
 
     fetchData();
-  }, [refreshTrigger, activeTab]);
+  }, [refreshTrigger, activeTab, alertVersion]);
 
   const deleteBudget = async (budgetId) => {
     try {
@@ -41,6 +52,19 @@ function BudgetList({ refreshTrigger }) {
     }
   };
 
+  // Shared budgets count every member's expenses in the category
+  const shareBudget = async (budgetId) => {
+    const email = window.prompt("Share this budget with (email):");
+    if (!email) return;
+    try {
+      await apiService.addBudgetMember(budgetId, email.trim());
+      setAlertVersion((prev) => prev + 1);
+    } catch (error) {
+      console.error("Error sharing budget:", error);
+      setError("Failed to share budget");
+    }
+  };
+
   const formatPeriodType = (periodType) => {
     if (!periodType || typeof periodType !== 'string') {
       return 'Monthly'; // Default fallback
@@ -87,6 +111,12 @@ function BudgetList({ refreshTrigger }) {
         </div>
       </div>
 
+      {latestAlert && latestAlert.type === "THRESHOLD" && (
+        <div style={{ color: latestAlert.threshold >= 100 ? 'red' : 'orange', marginBottom: '10px' }}>
+          {latestAlert.category} budget has reached {latestAlert.threshold}% (${latestAlert.spentAmount.toFixed(2)} of ${latestAlert.budgetAmount})
+        </div>
+      )}
+
       {error && (
         <div style={{ color: 'red', marginBottom: '10px' }}>
           {error}
@@ -103,11 +133,16 @@ function BudgetList({ refreshTrigger }) {
               <div className="budget-card" key={budget.id}>
                 <div className="budget-header-info">
                   <div className="budget-category">{budget.category || 'Unknown'}</div>
-                  <div className="budget-period">{formatPeriodType(budget.periodType)}</div>
+                  <div className="budget-period">
+                    {formatPeriodType(budget.periodType)}
+                    {budget.owned === false && " · Shared with you"}
+                  </div>
                 </div>
                 
                 <div className="budget-amount-info">
-                  <div className="budget-amount">${budget.amount || 0}</div>
+                  <div className="budget-amount">
+                    ${(budget.spentAmount || 0).toFixed(2)} of ${budget.amount || 0}
+                  </div>
                   <div className="budget-dates">
                     Period: {budget.currentPeriodStart || 'Not set'} - {budget.nextResetDate || 'Not set'}
                   </div>
@@ -117,9 +152,16 @@ function BudgetList({ refreshTrigger }) {
                   <span className="auto-reset-status">
                     {budget.autoReset ? "Auto-reset: On" : "Auto-reset: Off"}
                   </span>
-                  <button className="delete-btn" onClick={() => deleteBudget(budget.id)}>
-                    Delete
-                  </button>
+                  {budget.owned !== false && (
+                    <>
+                      <button className="tab-btn" onClick={() => shareBudget(budget.id)}>
+                        Share
+                      </button>
+                      <button className="delete-btn" onClick={() => deleteBudget(budget.id)}>
+                        Delete
+                      </button>
+                    </>
+                  )}
                 </div>
               </div>
             ))
@@ -31,11 +31,12 @@ function Dashboard() {
   const [timeData, setTimeData] = useState([]);
   const [summary, setSummary] = useState({ totalSpent: 0, totalBudget: 0 });
   const [comparisonData, setComparisonData] = useState([]);
+  const [topMovers, setTopMovers] = useState([]);
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState("");
 
   useEffect(() => {
-    const processDashboardData = (expenses, budgets) => {
+    const processDashboardData = (expenses, budgets, trends) => {
       // Pie Chart: group by category
       const grouped = expenses.reduce((acc, item) => {
         acc[item.category] = (acc[item.category] || 0) + parseFloat(item.amount);
@@ -48,30 +49,28 @@ function Dashboard() {
       }));
       setData(chartData);
 
-      // Bar Chart: group by time (month/week)
-      const groupedByTime = {};
+      // Bar Chart: monthly totals come precomputed from the analytics service;
+      // the weekly view groups the raw expenses by week of month
+      setTopMovers(trends.topMovers);
+      if (viewMode === "monthly") {
+        setTimeData(trends.months
+          .map((label, i) => ({ label, amount: trends.total.monthly[i] }))
+          .filter((point, i) => point.amount !== 0 || i === trends.months.length - 1));
+      } else {
+        const groupedByWeek = {};
+        expenses.forEach((e) => {
+          const week = Math.ceil(new Date(e.date).getDate() / 7);
+          const key = `Week ${week}`;
+          groupedByWeek[key] = (groupedByWeek[key] || 0) + parseFloat(e.amount);
+        });
 
-      expenses.forEach((e) => {
-        const date = new Date(e.date);
-        let key;
-        if (viewMode === "monthly") {
-          key = `${date.getFullYear()}-${String(date.getMonth() + 1).padStart(2, '0')}`;
-        } else {
-          const week = Math.ceil(date.getDate() / 7);
-          key = `Week ${week}`;
-        }
-
-        groupedByTime[key] = (groupedByTime[key] || 0) + parseFloat(e.amount);
-      });
-
-      const sortedTimeData = Object.entries(groupedByTime)
-        .sort(([a], [b]) => a.localeCompare(b))
-        .map(([label, amount]) => ({
-          label,
-          amount,
-        }));
-
-      setTimeData(sortedTimeData);
+        setTimeData(Object.entries(groupedByWeek)
+          .sort(([a], [b]) => a.localeCompare(b))
+          .map(([label, amount]) => ({
+            label,
+            amount,
+          })));
+      }
 
       // Summary Box: total spent and total budget
       const totalSpent = expenses.reduce(
@@ -114,12 +113,13 @@ function Dashboard() {
       setError("");
       
       try {
-        const [expenses, budgets] = await Promise.all([
+        const [expenses, budgets, trends] = await Promise.all([
           apiService.getUserExpenses(),
-          apiService.getUserBudgets()
+          apiService.getUserBudgets(),
+          apiService.getTrends()
         ]);
 
-        processDashboardData(expenses, budgets);
+        processDashboardData(expenses, budgets, trends);
       } catch (error) {
         console.error("Error fetching dashboard data:", error);
         setError("Failed to load dashboard data");
@@ -253,6 +253,23 @@ function Dashboard() {
         )}
       </div>
 
+      {/* Month-over-month Top Movers */}
+      {topMovers.length > 0 && (
+        <div className="chart-container">
+          <h2 className="chart-title">Biggest Changes This Month</h2>
+          <ul className="top-movers">
+            {topMovers.map((mover) => (
+              <li key={mover.category ?? 'uncategorized'}>
+                <strong>{mover.category ?? 'Uncategorized'}</strong>{' '}
+                ${mover.monthOverMonth.current.toFixed(2)} vs ${mover.monthOverMonth.previous.toFixed(2)} last month
+                {' '}({mover.monthOverMonth.delta >= 0 ? '+' : ''}{mover.monthOverMonth.delta.toFixed(2)}
+                {mover.monthOverMonth.percent !== null && `, ${mover.monthOverMonth.percent}%`})
+              </li>
+            ))}
+          </ul>
+        </div>
+      )}
+
       {/* Budget vs Actual Comparison */}
       <div className="chart-container">
         <h2 className="chart-title">Budget vs Actual Spending</h2>
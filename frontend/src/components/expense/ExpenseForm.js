@@ -38,8 +38,9 @@ function ExpenseForm({ onExpenseAdded, prefillData = {}, isFromScan = false, onS
         // Use prefilled category from scan
         finalCategory = category;
       } else {
-        // Get AI category for manual entries
-        finalCategory = await categorizeExpense(description, amount);
+        // The user's own rules first; the model only when none applies
+        finalCategory = await apiService.matchCategoryRule(description, amount)
+          || await categorizeExpense(description, amount);
       }
 
       // Use the API service and make sure date is in YYYY-MM-DD format
@@ -48,6 +49,7 @@ function ExpenseForm({ onExpenseAdded, prefillData = {}, isFromScan = false, onS
         amount: parseFloat(amount),
         date: date,
         category: finalCategory,
+        receiptId: prefillData.receiptId,
       });
 
       console.log("Expense added successfully via API");
@@ -118,6 +118,18 @@ function ExpenseList({ refreshTrigger }) {
     }
   };
 
+  const viewReceipt = async (receiptId) => {
+    try {
+      const url = await apiService.getReceiptUrl(receiptId);
+      window.open(url, "_blank");
+      // The new tab has its own copy once loaded
+      setTimeout(() => URL.revokeObjectURL(url), 60000);
+    } catch (error) {
+      console.error("Error loading receipt:", error);
+      setError("Failed to load receipt");
+    }
+  };
+
   const clearFilters = () => {
     setSearchTerm("");
     setSelectedCategory("all");
@@ -338,6 +350,11 @@ function ExpenseList({ refreshTrigger }) {
             <button className="delete-btn" onClick={() => deleteExpense(expense.id)}>
               Delete
             </button>
+            {expense.receiptId && (
+              <button className="receipt-btn" onClick={() => viewReceipt(expense.receiptId)}>
+                Receipt
+              </button>
+            )}
           </div>
         ))
       )}
@@ -0,0 +1,171 @@
+import React, { useEffect, useState } from 'react';
+import apiService from '../../services/apiService';
+
+// Per-user rules such as "description contains UBER -> Transport". They categorize
+// expenses before the AI is asked, and expenses saved without a category.
+function CategoryRules() {
+  const [rules, setRules] = useState([]);
+  const [keyword, setKeyword] = useState('');
+  const [minAmount, setMinAmount] = useState('');
+  const [maxAmount, setMaxAmount] = useState('');
+  const [category, setCategory] = useState('');
+  const [isLoading, setIsLoading] = useState(false);
+  const [error, setError] = useState('');
+
+  useEffect(() => {
+    apiService.getCategoryRules()
+      .then(setRules)
+      .catch((error) => {
+        console.error('Error fetching rules:', error);
+        setError('Failed to load rules');
+      });
+  }, []);
+
+  const handleSubmit = async (e) => {
+    e.preventDefault();
+    setError('');
+
+    if (!category || (!keyword && !minAmount && !maxAmount)) {
+      setError('Choose a category and a keyword or amount range');
+      return;
+    }
+
+    setIsLoading(true);
+
+    try {
+      const rule = await apiService.createCategoryRule({
+        keyword: keyword.trim(),
+        minAmount: minAmount === '' ? null : parseFloat(minAmount),
+        maxAmount: maxAmount === '' ? null : parseFloat(maxAmount),
+        category: category
+      });
+      setRules([...rules, rule]);
+      setKeyword('');
+      setMinAmount('');
+      setMaxAmount('');
+      setCategory('');
+    } catch (error) {
+      console.error('Error creating rule:', error);
+      setError(error.message || 'Error creating rule. Please try again.');
+    } finally {
+      setIsLoading(false);
+    }
+  };
+
+  const deleteRule = async (ruleId) => {
+    try {
+      await apiService.deleteCategoryRule(ruleId);
+      setRules(rules.filter((r) => r.id !== ruleId));
+    } catch (error) {
+      console.error('Error deleting rule:', error);
+      setError('Failed to delete rule');
+    }
+  };
+
+  const describe = (rule) => {
+    const parts = [];
+    if (rule.keyword) parts.push(`contains "${rule.keyword}"`);
+    if (rule.minAmount != null) parts.push(`amount ≥ ${rule.minAmount}`);
+    if (rule.maxAmount != null) parts.push(`amount < ${rule.maxAmount}`);
+    return parts.join(' and ');
+  };
+
+  const categories = [
+    'Food',
+    'Transport',
+    'Utilities',
+    'Entertainment',
+    'Health',
+    'Shopping',
+    'Tax',
+    'Other'
+  ];
+
+  return (
+    <div className="form-section">
+      <h2 className="form-title">Categorization Rules</h2>
+      {error && (
+        <div style={{ color: 'red', marginBottom: '10px' }}>
+          {error}
+        </div>
+      )}
+      <form onSubmit={handleSubmit}>
+        <div className="form-group">
+          <input
+            className="form-input"
+            type="text"
+            placeholder="Description contains (e.g. UBER)"
+            value={keyword}
+            onChange={(e) => setKeyword(e.target.value)}
+            disabled={isLoading}
+          />
+        </div>
+        <div className="form-group" style={{ display: 'flex', gap: '8px' }}>
+          <input
+            className="form-input"
+            type="number"
+            step="0.01"
+            placeholder="Min amount"
+            value={minAmount}
+            onChange={(e) => setMinAmount(e.target.value)}
+            disabled={isLoading}
+          />
+          <input
+            className="form-input"
+            type="number"
+            step="0.01"
+            placeholder="Below amount"
+            value={maxAmount}
+            onChange={(e) => setMaxAmount(e.target.value)}
+            disabled={isLoading}
+          />
+        </div>
+        <div className="form-group">
+          <select
+            className="form-input"
+            value={category}
+            onChange={(e) => setCategory(e.target.value)}
+            disabled={isLoading}
+          >
+            <option value="">Then categorize as</option>
+            {categories.map((cat) => (
+              <option key={cat} value={cat}>{cat}</option>
+            ))}
+          </select>
+        </div>
+        <button type="submit" className="add-expense-btn" disabled={isLoading}>
+          {isLoading ? 'Saving...' : 'Add Rule'}
+        </button>
+      </form>
+
+      {rules.length > 0 && (
+        <ul style={{ listStyle: 'none', padding: 0, marginTop: '20px' }}>
+          {rules.map((rule) => (
+            <li
+              key={rule.id}
+              style={{
+                display: 'flex',
+                justifyContent: 'space-between',
+                alignItems: 'center',
+                padding: '8px 0',
+                borderBottom: '1px solid #eee',
+                fontSize: '14px'
+              }}
+            >
+              <span>If {describe(rule)} → <strong>{rule.category}</strong></span>
+              <button
+                type="button"
+                onClick={() => deleteRule(rule.id)}
+                style={{ background: 'none', border: 'none', color: '#dc2626', cursor: 'pointer' }}
+              >
+                Remove
+              </button>
+            </li>
+          ))}
+        </ul>
+      )}
+    </div>
+  );
+}
+
+export default CategoryRules;
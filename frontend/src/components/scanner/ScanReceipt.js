@@ -94,6 +94,16 @@ function ScanReceipt({ onAddExpenses }) {
     const enhanced = await Promise.all(
       expenses.map(async (expense, index) => {
         try {
+          // Items the user's rules already categorize never reach the model
+          const ruleCategory = await apiService.matchCategoryRule(expense.description, expense.amount);
+          if (ruleCategory) {
+            return {
+              ...expense,
+              category: ruleCategory,
+              originalCategory: ruleCategory
+            };
+          }
+
           // Add small delay between requests to avoid rate limiting
           if (index > 0) {
             await new Promise(resolve => setTimeout(resolve, 500));
@@ -285,12 +295,6 @@ function ScanReceipt({ onAddExpenses }) {
   };
 
   const handleIndividualExpenseAdded = async (index) => {
-    // Add receipt reference to the expense being added
-    const expense = enhancedExpenses[index];
-    if (expense && savedReceiptId) {
-      expense.receiptId = savedReceiptId;
-    }
-
     // Remove this expense from the list after adding
     const updated = enhancedExpenses.filter((_, i) => i !== index);
     setEnhancedExpenses(updated);
@@ -500,6 +504,7 @@ function ScanReceipt({ onAddExpenses }) {
               <ExpenseForm 
                 prefillData={{
                   ...getTaxExpense(),
+                  receiptId: savedReceiptId,
                   date: getTaxExpense().date || new Date().toISOString().split('T')[0]
                 }}
                 onExpenseAdded={() => handleIndividualExpenseAdded(enhancedExpenses.findIndex(exp => exp.isTax))}
@@ -519,6 +524,7 @@ function ScanReceipt({ onAddExpenses }) {
                 <ExpenseForm 
                   prefillData={{
                     ...expense,
+                    receiptId: savedReceiptId,
                     date: expense.date || new Date().toISOString().split('T')[0]
                   }}
                   onExpenseAdded={() => handleIndividualExpenseAdded(actualIndex)}
@@ -2,10 +2,36 @@
 import authService from './authService';
 
 const API_BASE_URL = 'http://localhost:8080/api/v1';
+const IDEMPOTENT_ATTEMPTS = 3;
+
+const sleep = (ms) => new Promise(resolve => setTimeout(resolve, ms));
 
 class ApiService {
+  // Sends a create with an Idempotency-Key and retries network errors, 409 (the first
+  // attempt is still running) and 5xx with the same key, so the server applies it once.
+  async sendIdempotent(url, options, send = fetch) {
+    const idempotencyKey = crypto.randomUUID();
+    const request = { ...options, headers: { ...options.headers, 'Idempotency-Key': idempotencyKey } };
+
+    for (let attempt = 1; ; attempt++) {
+      try {
+        const response = await send(url, request);
+        const retryable = response.status === 409 || response.status >= 500;
+        if (!retryable || attempt === IDEMPOTENT_ATTEMPTS) {
+          return response;
+        }
+      } catch (error) {
+        // fetch rejects with a TypeError when the request never got a response
+        if (!(error instanceof TypeError) || attempt === IDEMPOTENT_ATTEMPTS) {
+          throw error;
+        }
+      }
+      await sleep(250 * 2 ** (attempt - 1));
+    }
+  }
+
   async createExpense(expenseData) {
-    const response = await authService.makeAuthenticatedRequest(`${API_BASE_URL}/expenses`, {
+    const response = await this.sendIdempotent(`${API_BASE_URL}/expenses`, {
       method: 'POST',
       headers: {
         'Content-Type': 'application/json',
@@ -15,8 +41,9 @@ class ApiService {
         amount: expenseData.amount,
         date: expenseData.date,
         category: expenseData.category,
+        receiptId: expenseData.receiptId,
       }),
-    });
+    }, (url, options) => authService.makeAuthenticatedRequest(url, options));
   
     if (!response.ok) {
       const error = await response.text();
@@ -26,6 +53,29 @@ class ApiService {
     return await response.json();
   }
 
+  async createExpenses(expenses) {
+    const response = await this.sendIdempotent(`${API_BASE_URL}/expenses/batch`, {
+      method: 'POST',
+      headers: {
+        'Content-Type': 'application/json',
+      },
+      body: JSON.stringify(expenses.map(expenseData => ({
+        description: expenseData.description,
+        amount: expenseData.amount,
+        date: expenseData.date,
+        category: expenseData.category,
+        receiptId: expenseData.receiptId,
+      }))),
+    }, (url, options) => authService.makeAuthenticatedRequest(url, options));
+
+    if (!response.ok) {
+      const error = await response.text();
+      throw new Error(error || 'Failed to create expenses');
+    }
+
+    return await response.json();
+  }
+
   async getUserExpenses() {
     console.log('🔵 Calling getUserExpenses...');
     console.log('🔑 Auth token:', localStorage.getItem('jwt_token') ? 'Present' : 'Missing');
@@ -68,8 +118,112 @@ class ApiService {
     }
   }
 
+  // Uploading the same image twice returns the same receiptId, so retries are safe.
+  // No Content-Type header: the browser sets the multipart boundary itself.
+  async uploadReceipt(formData) {
+    const response = await fetch(`${API_BASE_URL}/receipts`, {
+      method: 'POST',
+      headers: {
+        ...authService.getAuthHeader(),
+      },
+      body: formData,
+    });
+
+    if (!response.ok) {
+      const error = await response.text();
+      throw new Error(error || 'Failed to upload receipt');
+    }
+
+    return await response.json();
+  }
+
+  // Returns an object URL for the receipt image (or its thumbnail); revoke it when done.
+  async getReceiptUrl(receiptId, thumbnail = false) {
+    const response = await fetch(`${API_BASE_URL}/receipts/${receiptId}${thumbnail ? '/thumbnail' : ''}`, {
+      headers: {
+        ...authService.getAuthHeader(),
+      },
+    });
+
+    if (!response.ok) {
+      throw new Error('Failed to load receipt');
+    }
+
+    return URL.createObjectURL(await response.blob());
+  }
+
+  async getCategoryRules() {
+    const response = await authService.makeAuthenticatedRequest(`${API_BASE_URL}/rules`, {
+      headers: {
+        'Content-Type': 'application/json',
+      },
+    });
+
+    if (!response.ok) {
+      const error = await response.text();
+      throw new Error(error || 'Failed to fetch rules');
+    }
+
+    return await response.json();
+  }
+
+  async createCategoryRule(ruleData) {
+    const response = await authService.makeAuthenticatedRequest(`${API_BASE_URL}/rules`, {
+      method: 'POST',
+      headers: {
+        'Content-Type': 'application/json',
+      },
+      body: JSON.stringify({
+        keyword: ruleData.keyword || null,
+        minAmount: ruleData.minAmount ?? null,
+        maxAmount: ruleData.maxAmount ?? null,
+        category: ruleData.category,
+      }),
+    });
+
+    if (!response.ok) {
+      const error = await response.text();
+      throw new Error(error || 'Failed to create rule');
+    }
+
+    return await response.json();
+  }
+
+  async deleteCategoryRule(ruleId) {
+    const response = await fetch(`${API_BASE_URL}/rules/${ruleId}`, {
+      method: 'DELETE',
+      headers: {
+        ...authService.getAuthHeader(),
+      },
+    });
+
+    if (!response.ok) {
+      const error = await response.text();
+      throw new Error(error || 'Failed to delete rule');
+    }
+  }
+
+  // The category the user's own rules give an expense, or null when none applies. Checked
+  // before asking the model; errors also give null so categorization falls back to it.
+  async matchCategoryRule(description, amount) {
+    try {
+      const params = new URLSearchParams({ description });
+      if (amount !== undefined && amount !== null && amount !== '') {
+        params.append('amount', amount);
+      }
+      const response = await authService.makeAuthenticatedRequest(`${API_BASE_URL}/rules/match?${params}`);
+      if (response.status !== 200) {
+        return null;
+      }
+      return (await response.json()).category;
+    } catch (error) {
+      console.warn('Rule matching failed:', error);
+      return null;
+    }
+  }
+
   async createBudget(budgetData) {
-    const response = await fetch(`${API_BASE_URL}/budgets`, {
+    const response = await this.sendIdempotent(`${API_BASE_URL}/budgets`, {
       method: 'POST',
       headers: {
         'Content-Type': 'application/json',
@@ -131,6 +285,24 @@ class ApiService {
     }
   }
 
+  async addBudgetMember(budgetId, email) {
+    const response = await fetch(`${API_BASE_URL}/budgets/${budgetId}/members`, {
+      method: 'POST',
+      headers: {
+        'Content-Type': 'application/json',
+        ...authService.getAuthHeader(),
+      },
+      body: JSON.stringify({ email }),
+    });
+
+    if (!response.ok) {
+      const error = await response.text();
+      throw new Error(error || 'Failed to share budget');
+    }
+
+    return await response.json();
+  }
+
   // services/apiService.js - Add these methods to your existing ApiService class
 
 // Add these methods to your existing ApiService class:
@@ -166,6 +338,26 @@ async getUserExpensesByDateRange(startDate, endDate) {
   return await response.json();
 }
 
+async searchExpenses(query, filters = {}) {
+  const params = new URLSearchParams({ q: query });
+  Object.entries(filters).forEach(([key, value]) => {
+    if (value !== undefined && value !== null && value !== '') params.append(key, value);
+  });
+
+  const response = await authService.makeAuthenticatedRequest(`${API_BASE_URL}/expenses/search?${params}`, {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+  });
+
+  if (!response.ok) {
+    const error = await response.text();
+    throw new Error(error || 'Failed to search expenses');
+  }
+
+  return await response.json();
+}
+
 async getBudgetHistory() {
   const response = await authService.makeAuthenticatedRequest(`${API_BASE_URL}/budgets/history`, {
     headers: {
@@ -181,6 +373,85 @@ async getBudgetHistory() {
   return await response.json();
 }
 
+async getTrends(months = 12) {
+  const response = await authService.makeAuthenticatedRequest(`${API_BASE_URL}/analytics/trends?months=${months}`, {
+    headers: {
+      'Content-Type': 'application/json',
+    },
+  });
+
+  if (!response.ok) {
+    const error = await response.text();
+    throw new Error(error || 'Failed to fetch trends');
+  }
+
+  return await response.json();
+}
+
+// Streams budget threshold/rollover alerts over SSE. fetch() is used instead of
+// EventSource so the JWT can travel in the Authorization header, which also means
+// reconnecting is up to us: the server closes each stream after its emitter timeout,
+// and network errors end it early. Reconnects back off exponentially up to 30s and
+// reset once a stream has been open for a while.
+subscribeToBudgetAlerts(onAlert) {
+  const controller = new AbortController();
+  let delay = 1000;
+  let retryTimer = null;
+
+  const readStream = async () => {
+    const response = await authService.makeAuthenticatedRequest(`${API_BASE_URL}/budgets/alerts`, {
+      headers: { Accept: 'text/event-stream' },
+      signal: controller.signal,
+    });
+    if (!response.ok) {
+      throw new Error(`Budget alert stream failed with status ${response.status}`);
+    }
+
+    const openedAt = Date.now();
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+
+    while (true) {
+      const { value, done } = await reader.read();
+      if (done) break;
+      buffer += decoder.decode(value, { stream: true });
+
+      const events = buffer.split('\n\n');
+      buffer = events.pop();
+      for (const event of events) {
+        const data = event.split('\n')
+          .filter((line) => line.startsWith('data:'))
+          .map((line) => line.slice(5))
+          .join('\n');
+        if (data) onAlert(JSON.parse(data));
+      }
+    }
+    if (Date.now() - openedAt > 60000) {
+      delay = 1000;
+    }
+  };
+
+  const connect = () => {
+    retryTimer = null;
+    readStream().catch((error) => {
+      if (error.name !== 'AbortError') {
+        console.error('Budget alert stream error:', error);
+      }
+    }).finally(() => {
+      if (controller.signal.aborted) return;
+      retryTimer = setTimeout(connect, delay * (0.5 + Math.random() / 2));
+      delay = Math.min(delay * 2, 30000);
+    });
+  };
+  connect();
+
+  return () => {
+    controller.abort();
+    if (retryTimer) clearTimeout(retryTimer);
+  };
+}
+
 async getBudgetHistoryByCategory(category) {
   const response = await authService.makeAuthenticatedRequest(`${API_BASE_URL}/budgets/history/${category}`, {
     headers: {